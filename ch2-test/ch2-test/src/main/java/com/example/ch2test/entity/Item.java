@@ -1,12 +1,16 @@
 package com.example.ch2test.entity;
 
 import com.example.ch2test.constant.ItemSellStatus;
+import com.example.ch2test.event.ItemSavedEvent;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.springframework.data.domain.DomainEvents;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
 
 @Entity
 @Table(name="item")
@@ -41,4 +45,10 @@ public class Item {
 
     private LocalDateTime updateTime; //수정 시간
 
+    // ItemRepository.save 가 끝나면 스프링 데이터가 이 이벤트를 발행함. (가격 색인 반영용)
+    @DomainEvents
+    Collection<Object> domainEvents(){
+        return Collections.singletonList(new ItemSavedEvent(id, price));
+    }
+
 }
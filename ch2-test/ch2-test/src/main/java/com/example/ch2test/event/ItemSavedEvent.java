@@ -0,0 +1,19 @@
+package com.example.ch2test.event;
+
+import lombok.Getter;
+
+// ItemRepository.save 때 스프링 데이터가 발행하는 이벤트. (Item 의 @DomainEvents)
+// 커밋 이후 가격 색인(ItemPriceIndex)에 한 건씩 반영하는 데 사용.
+@Getter
+public class ItemSavedEvent {
+
+    private final Long itemId;
+
+    private final int price;
+
+    public ItemSavedEvent(Long itemId, int price){
+        this.itemId = itemId;
+        this.price = price;
+    }
+
+}
@@ -0,0 +1,274 @@
+package com.example.ch2test.repository;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// 가격 범위 조회용 메모리 색인.
+// (가격, 상품 아이디) 순으로 정렬된 int[], long[] 두 배열로 들고 있어서
+// "가격 < x" 조회는 이진 탐색 한 번 + 배열 복사로 끝남. (정렬, 박싱 없음)
+// 저장(ItemRepository.save) 이 커밋될 때마다 ItemPriceIndexListener 가 한 건씩 반영함.
+@Component
+public class ItemPriceIndex {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // 가격 오름차순 (가격이 같으면 아이디 오름차순)
+    private int[] prices = new int[INITIAL_CAPACITY];
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+
+    // 아이디 오름차순. 수정 시 이전 가격 위치를 찾기 위한 값.
+    private long[] idsById = new long[INITIAL_CAPACITY];
+
+    private int[] pricesById = new int[INITIAL_CAPACITY];
+
+    private int size;
+
+    private volatile boolean stale = true;
+
+    // 처음 조회 전이거나 조회 때 디비와 다른 것이 확인되면 true. 조회하는 쪽에서 다시 적재함.
+    public boolean isStale(){
+        return stale;
+    }
+
+    public void markStale(){
+        stale = true;
+    }
+
+    // 전체 다시 적재. 두 배열은 같은 순서의 (아이디, 가격) 쌍.
+    public void reset(long[] itemIds, int[] itemPrices){
+        int count = itemIds.length;
+        long[] sortedIds = itemIds.clone();
+        int[] sortedPrices = itemPrices.clone();
+        sortByPrice(sortedPrices, sortedIds, count);
+
+        long[] byIdIds = itemIds.clone();
+        int[] byIdPrices = itemPrices.clone();
+        sortById(byIdIds, byIdPrices, count);
+
+        lock.writeLock().lock();
+        try {
+            prices = sortedPrices;
+            ids = sortedIds;
+            idsById = byIdIds;
+            pricesById = byIdPrices;
+            size = count;
+            stale = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(long itemId, int price){
+        lock.writeLock().lock();
+        try {
+            int idPos = Arrays.binarySearch(idsById, 0, size, itemId);
+            if(idPos >= 0){
+                if(pricesById[idPos] == price){
+                    return;
+                }
+                removePriceAt(pricePosition(size, pricesById[idPos], itemId), size);
+                pricesById[idPos] = price;
+                insertPrice(size - 1, price, itemId);
+                return;
+            }
+
+            ensureCapacity(size + 1);
+            int insertAt = -(idPos + 1);
+            System.arraycopy(idsById, insertAt, idsById, insertAt + 1, size - insertAt);
+            System.arraycopy(pricesById, insertAt, pricesById, insertAt + 1, size - insertAt);
+            idsById[insertAt] = itemId;
+            pricesById[insertAt] = price;
+            insertPrice(size, price, itemId);
+            size++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long itemId){
+        lock.writeLock().lock();
+        try {
+            int idPos = Arrays.binarySearch(idsById, 0, size, itemId);
+            if(idPos < 0){
+                return;
+            }
+            removePriceAt(pricePosition(size, pricesById[idPos], itemId), size);
+            System.arraycopy(idsById, idPos + 1, idsById, idPos, size - idPos - 1);
+            System.arraycopy(pricesById, idPos + 1, pricesById, idPos, size - idPos - 1);
+            size--;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 가격이 price 미만인 상품 아이디. desc 면 가격 내림차순.
+    public long[] idsLessThan(int price, boolean desc){
+        return rangeLessThan(price).ids(desc);
+    }
+
+    // 가격이 price 미만인 구간의 (가격, 아이디) 복사본. 조회 도중 색인이 바뀌어도 영향 없음.
+    public PriceRange rangeLessThan(int price){
+        lock.readLock().lock();
+        try {
+            int end = lowerBound(price);
+            return new PriceRange(Arrays.copyOf(prices, end), Arrays.copyOf(ids, end));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size(){
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 가격이 price 이상인 첫 위치.
+    private int lowerBound(int price){
+        int low = 0;
+        int high = size;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            if(prices[mid] < price){
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // (가격, 아이디) 로 이진 탐색. 없으면 -(삽입 위치 + 1).
+    private int pricePosition(int count, int price, long itemId){
+        int low = 0;
+        int high = count - 1;
+        while(low <= high){
+            int mid = (low + high) >>> 1;
+            int result = prices[mid] != price ? Integer.compare(prices[mid], price) : Long.compare(ids[mid], itemId);
+            if(result < 0){
+                low = mid + 1;
+            } else if(result > 0){
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    // 가격 배열의 앞 count 개 중에 끼워 넣기.
+    private void insertPrice(int count, int price, long itemId){
+        int insertAt = -(pricePosition(count, price, itemId) + 1);
+        System.arraycopy(prices, insertAt, prices, insertAt + 1, count - insertAt);
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, count - insertAt);
+        prices[insertAt] = price;
+        ids[insertAt] = itemId;
+    }
+
+    private void removePriceAt(int pos, int count){
+        System.arraycopy(prices, pos + 1, prices, pos, count - pos - 1);
+        System.arraycopy(ids, pos + 1, ids, pos, count - pos - 1);
+    }
+
+    private void ensureCapacity(int capacity){
+        if(capacity <= ids.length){
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        prices = Arrays.copyOf(prices, newCapacity);
+        ids = Arrays.copyOf(ids, newCapacity);
+        idsById = Arrays.copyOf(idsById, newCapacity);
+        pricesById = Arrays.copyOf(pricesById, newCapacity);
+    }
+
+    private static void sortByPrice(int[] prices, long[] ids, int count){
+        // (가격, 원래 위치) 를 long 하나로 묶어서 기본형 정렬. 가격이 상위 32비트라 가격 순으로 정렬됨.
+        long[] keys = new long[count];
+        for(int i=0;i<count;i++){
+            keys[i] = ((long) prices[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+        long[] sortedIds = new long[count];
+        int[] sortedPrices = new int[count];
+        for(int i=0;i<count;i++){
+            int index = (int) keys[i];
+            sortedIds[i] = ids[index];
+            sortedPrices[i] = prices[index];
+        }
+        // 같은 가격 안에서는 아이디 순서로 맞춤. (적재 쿼리가 아이디 순이면 이미 정렬되어 있음)
+        int start = 0;
+        for(int i=1;i<=count;i++){
+            if(i == count || sortedPrices[i] != sortedPrices[start]){
+                Arrays.sort(sortedIds, start, i);
+                start = i;
+            }
+        }
+        System.arraycopy(sortedIds, 0, ids, 0, count);
+        System.arraycopy(sortedPrices, 0, prices, 0, count);
+    }
+
+    private static void sortById(long[] ids, int[] prices, int count){
+        long[] original = ids.clone();
+        int[] originalPrices = prices.clone();
+        Arrays.sort(ids, 0, count);
+        for(int i=0;i<count;i++){
+            prices[Arrays.binarySearch(ids, 0, count, original[i])] = originalPrices[i];
+        }
+    }
+
+    public static class PriceRange {
+
+        private final int[] prices;
+
+        private final long[] ids;
+
+        private PriceRange(int[] prices, long[] ids){
+            this.prices = prices;
+            this.ids = ids;
+        }
+
+        public int size(){
+            return ids.length;
+        }
+
+        public long[] ids(boolean desc){
+            long[] result = ids.clone();
+            if(desc){
+                for(int i=0, j=result.length-1;i<j;i++, j--){
+                    long tmp = result[i];
+                    result[i] = result[j];
+                    result[j] = tmp;
+                }
+            }
+            return result;
+        }
+
+        // 가격 오름차순 기준 위치. 구간에 없으면 -1.
+        public int positionOf(int price, long itemId){
+            int low = 0;
+            int high = ids.length - 1;
+            while(low <= high){
+                int mid = (low + high) >>> 1;
+                int result = prices[mid] != price ? Integer.compare(prices[mid], price) : Long.compare(ids[mid], itemId);
+                if(result < 0){
+                    low = mid + 1;
+                } else if(result > 0){
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.example.ch2test.repository;
+
+import com.example.ch2test.event.ItemSavedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// ItemRepository.save 가 발행한 ItemSavedEvent 를 커밋 이후 가격 색인에 한 건씩 반영.
+// 커밋된 값만 반영하므로 롤백 시 되돌릴 것이 없음. 트랜잭션 밖에서 저장한 경우는 바로 반영.
+// save 를 거치지 않은 변경(삭제, 변경 감지로 바뀐 가격)은 조회 시 디비와 비교해서 색인을 다시 적재함.
+// 커밋 전에는 색인에 없으므로, 저장한 트랜잭션이 끝날 때까지 PENDING_WRITES 를 묶어 두고 그동안 가격 조회는 디비로 함.
+@Component
+public class ItemPriceIndexListener {
+
+    static final Object PENDING_WRITES = new Object(); //현재 트랜잭션에 아직 커밋되지 않은 상품 저장이 있음
+
+    private final ItemPriceIndex itemPriceIndex;
+
+    public ItemPriceIndexListener(ItemPriceIndex itemPriceIndex){
+        this.itemPriceIndex = itemPriceIndex;
+    }
+
+    // save 시점(커밋 전)에 바로 호출됨.
+    @EventListener
+    public void onItemSaving(ItemSavedEvent event){
+        if(!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(PENDING_WRITES)){
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(PENDING_WRITES, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_WRITES);
+            }
+        });
+    }
+
+    static boolean hasPendingWrites(){
+        return TransactionSynchronizationManager.hasResource(PENDING_WRITES);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemSaved(ItemSavedEvent event){
+        itemPriceIndex.put(event.getItemId(), event.getPrice());
+    }
+
+}
@@ -18,7 +18,7 @@ import java.util.List;
 // 기본설정 파일과, 테스트를 위한 설정 파일을 2개 분리해서 작업 중.
 
 //public interface ItemRepository extends JpaRepository<Item, Long> {
-    public interface ItemRepository extends JpaRepository<Item, Long>, QuerydslPredicateExecutor<Item> {
+    public interface ItemRepository extends JpaRepository<Item, Long>, QuerydslPredicateExecutor<Item>, ItemRepositoryCustom {
 //
 //    여러개의 쿼리 메소드 중에서, 조회 부분 보고,
 //    조회하는 옵션을 하나씩 볼 예정.
@@ -26,11 +26,7 @@ import java.util.List;
 //
     List<Item> findByItemNmOrItemDetail(String itemNm, String itemDetail);
 //
-    List<Item> findByPriceLessThan(Integer price);
-
-    List<Item> findByPriceLessThanOrderByPriceDesc(Integer price);
-
-    List<Item> findByPriceLessThanOrderByPriceAsc(Integer price);
+//    가격 범위 조회(findByPriceLessThan...) 는 ItemRepositoryCustom 으로 옮김. (가격 색인 사용)
 
     @Query("select i from Item i where i.itemDetail like " +
             "%:itemDetail% order by i.price desc")
@@ -0,0 +1,17 @@
+package com.example.ch2test.repository;
+
+import com.example.ch2test.entity.Item;
+
+import java.util.List;
+
+// 가격 범위 조회는 쿼리 메소드 대신 ItemPriceIndex 를 거쳐서 조회.
+// 같은 이름의 메소드는 스프링 데이터가 쿼리를 만들지 않고 ItemRepositoryCustomImpl 을 호출함.
+public interface ItemRepositoryCustom {
+
+    List<Item> findByPriceLessThan(Integer price);
+
+    List<Item> findByPriceLessThanOrderByPriceDesc(Integer price);
+
+    List<Item> findByPriceLessThanOrderByPriceAsc(Integer price);
+
+}
@@ -0,0 +1,112 @@
+package com.example.ch2test.repository;
+
+import com.example.ch2test.entity.Item;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
+
+    private static final int IN_CHUNK_SIZE = 1000; //in 조건 한 번에 넘기는 아이디 수
+
+    private final EntityManager em;
+
+    private final ItemPriceIndex itemPriceIndex;
+
+    public ItemRepositoryCustomImpl(EntityManager em, ItemPriceIndex itemPriceIndex){
+        this.em = em;
+        this.itemPriceIndex = itemPriceIndex;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Item> findByPriceLessThan(Integer price) {
+        return findByPriceRange(price, false);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Item> findByPriceLessThanOrderByPriceDesc(Integer price) {
+        return findByPriceRange(price, true);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Item> findByPriceLessThanOrderByPriceAsc(Integer price) {
+        return findByPriceRange(price, false);
+    }
+
+    // 가격 조건과 순서는 색인에서 구하고, 디비에서는 기본 키(in)로 해당 행만 읽어서 색인 순서대로 배치함. (가격 스캔, 정렬 없음)
+    // 색인과 디비가 다르면(삭제, save 없이 바뀐 가격) 색인을 다시 적재하도록 표시하고 가격 순 정렬 쿼리로 대신함.
+    // 현재 트랜잭션에 커밋 전 저장이 있거나 변경 감지로 바뀐 상품이 있으면 색인에 아직 없으므로 처음부터 디비로 조회함.
+    // 색인은 이 서버에서 ItemRepository.save 로 저장한 내용만 받으므로 서버 한 대가 유일한 쓰기 주체일 때만 맞음.
+    // 다른 서버나 SQL 로 직접 추가한 행은 색인에 없어서 결과에서 빠짐. (여러 서버에서 쓰는 배치는 지원하지 않음)
+    private List<Item> findByPriceRange(int price, boolean desc){
+        if(hasPendingItemWrites()){
+            return findByPriceFromDb(price, desc);
+        }
+        ItemPriceIndex.PriceRange range = priceIndex().rangeLessThan(price);
+        long[] ids = range.ids(desc);
+        List<Long> idList = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            idList.add(id);
+        }
+
+        Map<Long, Item> itemMap = new HashMap<>();
+        for(int from=0;from<idList.size();from+=IN_CHUNK_SIZE){
+            List<Item> rows = em.createQuery("select i from Item i where i.id in :ids", Item.class)
+                    .setParameter("ids", idList.subList(from, Math.min(from + IN_CHUNK_SIZE, idList.size())))
+                    .getResultList();
+            for (Item item : rows) {
+                itemMap.put(item.getId(), item);
+            }
+        }
+
+        List<Item> items = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            Item item = itemMap.get(id);
+            if(item == null || range.positionOf(item.getPrice(), id) < 0){
+                itemPriceIndex.markStale();
+                return findByPriceFromDb(price, desc);
+            }
+            items.add(item);
+        }
+        return items;
+    }
+
+    // 기존 쿼리 메소드가 만들던 쿼리. (가격 순, 같은 가격은 아이디 순)
+    private List<Item> findByPriceFromDb(int price, boolean desc){
+        return em.createQuery("select i from Item i where i.price < :price order by i.price "
+                        + (desc ? "desc, i.id desc" : "asc, i.id asc"), Item.class)
+                .setParameter("price", price)
+                .getResultList();
+    }
+
+    // save 했지만 아직 커밋 전이거나, save 없이 변경 감지로 바뀐 상품이 영속성 컨텍스트에 있는지.
+    private boolean hasPendingItemWrites(){
+        return ItemPriceIndexListener.hasPendingWrites()
+                || (TransactionSynchronizationManager.isActualTransactionActive() && em.unwrap(Session.class).isDirty());
+    }
+
+    private ItemPriceIndex priceIndex(){
+        if(itemPriceIndex.isStale()){
+            List<Object[]> rows = em.createQuery("select i.id, i.price from Item i order by i.id", Object[].class)
+                    .getResultList();
+            long[] ids = new long[rows.size()];
+            int[] prices = new int[rows.size()];
+            for(int i=0;i<rows.size();i++){
+                ids[i] = (Long) rows.get(i)[0];
+                prices[i] = (Integer) rows.get(i)[1];
+            }
+            itemPriceIndex.reset(ids, prices);
+        }
+        return itemPriceIndex;
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.example.ch2test;
+
+import com.example.ch2test.repository.ItemRepository;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.context.annotation.ComponentScan;
+
+// 테스트용 스프링 부트 설정. (이 모듈에는 애플리케이션 클래스가 없음)
+// @SpringBootTest 가 패키지를 거슬러 올라가며 찾는 설정이고, 벤치마크도 이 설정으로 컨텍스트를 띄움.
+// 엔티티, 리포지토리는 이 클래스 패키지 아래를 자동 설정이 찾고, 빈(색인, 리스너)은 repository 패키지만 스캔함.
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@ComponentScan(basePackageClasses = ItemRepository.class)
+public class Ch2TestConfig {
+
+}
@@ -0,0 +1,121 @@
+package com.example.ch2test.repository;
+
+import com.example.ch2test.Ch2TestConfig;
+import com.example.ch2test.constant.ItemSellStatus;
+import com.example.ch2test.entity.Item;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// 가격 색인(ItemRepository.findByPriceLessThanOrderByPriceDesc) vs 같은 조건의 JPQL(기존 쿼리 메소드가 만들던 쿼리) 비교.
+// H2 메모리 디비에 상품을 넣고 가격 상위 몇 % 구간을 조회함. 엔티티 조회 비용은 양쪽 모두 포함.
+// 실행 : mvn test-compile 후 IDE 에서 main 실행, 또는 exec:java -Dexec.classpathScope=test
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class ItemPriceIndexBenchmark {
+
+    @Param({"100000"})
+    int itemCount;
+
+    // 조회 기준 가격. 전체 가격 범위(10000 ~ 110000) 중 하위 1%, 10% 구간.
+    @Param({"11000", "20000"})
+    int price;
+
+    private ConfigurableApplicationContext context;
+
+    private ItemRepository itemRepository;
+
+    private EntityManager em;
+
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        // application.properties(MySQL) 보다 우선하도록 실행 인자로 H2 설정을 넘김.
+        context = new SpringApplicationBuilder(Ch2TestConfig.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.jpa.properties.hibernate.show_sql=false",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=1000",
+                        "--logging.level.root=warn",
+                        "--logging.level.org.hibernate.type.descriptor.sql=warn");
+        itemRepository = context.getBean(ItemRepository.class);
+        em = context.getBean(EntityManager.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        Random random = new Random(42);
+        for(int from=0;from<itemCount;from+=1000){
+            int to = Math.min(from + 1000, itemCount);
+            int chunkFrom = from;
+            transactionTemplate.executeWithoutResult(status -> {
+                for(int i=chunkFrom;i<to;i++){
+                    Item item = new Item();
+                    item.setItemNm("테스트 상품" + i);
+                    item.setPrice(10000 + random.nextInt(100000));
+                    item.setItemDetail("테스트 상품 상세 설명" + i);
+                    item.setItemSellStatus(ItemSellStatus.SELL);
+                    item.setStockNumber(100);
+                    item.setRegTime(LocalDateTime.now());
+                    item.setUpdateTime(LocalDateTime.now());
+                    em.persist(item);
+                }
+            });
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(){
+        context.close();
+    }
+
+    @Benchmark
+    public List<Item> priceIndex(){
+        return itemRepository.findByPriceLessThanOrderByPriceDesc(price);
+    }
+
+    @Benchmark
+    public List<Item> derivedQuery(){
+        return transactionTemplate.execute(status -> em
+                .createQuery("select i from Item i where i.price < :price order by i.price desc", Item.class)
+                .setParameter("price", price)
+                .getResultList());
+    }
+
+    public static void main(String[] args) throws Exception{
+        new Runner(new OptionsBuilder()
+                .include(ItemPriceIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
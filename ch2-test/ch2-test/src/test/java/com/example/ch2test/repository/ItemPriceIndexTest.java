@@ -0,0 +1,41 @@
+package com.example.ch2test.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemPriceIndexTest {
+
+    @Test
+    @DisplayName("가격 미만 조회 정렬 테스트")
+    public void idsLessThanTest(){
+        ItemPriceIndex itemPriceIndex = new ItemPriceIndex();
+        itemPriceIndex.reset(new long[]{1, 2, 3, 4}, new int[]{10003, 10001, 10003, 10010});
+
+        assertArrayEquals(new long[]{2, 1, 3}, itemPriceIndex.idsLessThan(10005, false));
+        assertArrayEquals(new long[]{3, 1, 2}, itemPriceIndex.idsLessThan(10005, true));
+        assertArrayEquals(new long[]{}, itemPriceIndex.idsLessThan(10001, false));
+    }
+
+    @Test
+    @DisplayName("저장, 가격 수정, 삭제 반영 테스트")
+    public void putRemoveTest(){
+        ItemPriceIndex itemPriceIndex = new ItemPriceIndex();
+        for(int i=1;i<=20;i++){
+            itemPriceIndex.put(i, 10000 + i);
+        }
+        itemPriceIndex.put(3, 20000);
+        itemPriceIndex.remove(1);
+        itemPriceIndex.remove(100);
+
+        assertEquals(19, itemPriceIndex.size());
+        assertArrayEquals(new long[]{2, 4}, itemPriceIndex.idsLessThan(10005, false));
+        long[] desc = itemPriceIndex.idsLessThan(20001, true);
+        assertEquals(19, desc.length);
+        assertEquals(3, desc[0]);
+        assertEquals(20, desc[1]);
+    }
+
+}
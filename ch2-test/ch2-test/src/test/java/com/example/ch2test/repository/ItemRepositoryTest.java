@@ -15,11 +15,13 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.support.Querydsl;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
 import org.thymeleaf.util.StringUtils;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -139,6 +141,61 @@ class ItemRepositoryTest {
         }
     }
 
+    @Test
+    @DisplayName("가격 색인 조회, 삭제 후 다시 적재 테스트")
+    public void findByPriceIndexTest(){
+        // 다른 테스트의 상품(10000원 이상)과 겹치지 않는 가격.
+        Item deleted = null;
+        for(int i=1;i<=3;i++){
+            Item item = new Item();
+            item.setItemNm("색인 상품" + i);
+            item.setPrice(i);
+            item.setItemDetail("색인 상품 상세 설명" + i);
+            item.setItemSellStatus(ItemSellStatus.SELL);
+            item.setStockNumber(100);
+            item.setRegTime(LocalDateTime.now());
+            item.setUpdateTime(LocalDateTime.now());
+            Item savedItem = itemRepository.save(item);
+            if(i == 2){
+                deleted = savedItem;
+            }
+        }
+
+        assertEquals(List.of(3, 2, 1), prices(itemRepository.findByPriceLessThanOrderByPriceDesc(4)));
+
+        // 삭제는 색인에 반영되지 않으므로 조회 때 디비와 비교해서 다시 적재함.
+        itemRepository.delete(deleted);
+        assertEquals(List.of(1, 3), prices(itemRepository.findByPriceLessThanOrderByPriceAsc(4)));
+        assertEquals(List.of(1, 3), prices(itemRepository.findByPriceLessThan(4)));
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("커밋 전 저장한 상품의 가격 조회 테스트")
+    public void findByPricePendingWriteTest(){
+        // 색인에는 커밋 후에 들어가므로 같은 트랜잭션에서는 디비로 조회해야 보임. (먼저 색인을 적재해 둠)
+        assertEquals(List.of(), prices(itemRepository.findByPriceLessThan(1)));
+        Item item = new Item();
+        item.setItemNm("커밋 전 상품");
+        item.setPrice(0);
+        item.setItemDetail("커밋 전 상품 상세 설명");
+        item.setItemSellStatus(ItemSellStatus.SELL);
+        item.setStockNumber(100);
+        item.setRegTime(LocalDateTime.now());
+        item.setUpdateTime(LocalDateTime.now());
+        itemRepository.save(item);
+
+        assertEquals(List.of(0), prices(itemRepository.findByPriceLessThan(1)));
+    }
+
+    private static List<Integer> prices(List<Item> itemList){
+        List<Integer> prices = new ArrayList<>();
+        for(Item item : itemList){
+            prices.add(item.getPrice());
+        }
+        return prices;
+    }
+
     @Test
     @DisplayName("@Query를 이용한 상품 조회 테스트")
     public void findByItemDetailTest(){
@@ -0,0 +1,83 @@
+package com.example.ch7_8_test.asset;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+// 빌드 때(prepare-package) 정적 파일(css, js) 옆에 gzip 압축본(.gz)을 미리 만들어 둠.
+// 빌드에서만 쓰는 도구라 운영 jar 에 들어가지 않도록 src/build/java 에 둠. 빌드는 JDK 만으로 이 파일을 바로 실행하므로
+// (java 단일 소스 파일 실행) 테스트 컴파일 여부와 관계없고, 테스트에서는 build-helper 로 테스트 소스에 추가해서 씀.
+// 요청마다 압축하지 않고, EncodedResourceResolver 가 Accept-Encoding: gzip 요청에 .gz 파일을 그대로 내려줌.
+// 압축해도 작아지지 않는 파일은 .gz 를 만들지 않고, 원본보다 새로운 .gz 가 있으면 다시 만들지 않음.
+public class StaticAssetCompressor {
+
+    private static final List<String> EXTENSIONS = List.of(".css", ".js");
+
+    public static void main(String[] args) throws IOException {
+        Path root = Paths.get(args[0]);
+        int count = compress(root);
+        System.out.println("정적 파일 gzip 압축 : " + count + "건 (" + root + ")");
+    }
+
+    // root 아래 압축 대상 파일의 .gz 를 만들고, 새로 만든 건수를 반환.
+    public static int compress(Path root) throws IOException {
+        if(!Files.isDirectory(root)){
+            return 0;
+        }
+        List<Path> assets;
+        try (Stream<Path> paths = Files.walk(root)) {
+            assets = paths.filter(Files::isRegularFile)
+                    .filter(StaticAssetCompressor::isCompressible)
+                    .collect(Collectors.toList());
+        }
+
+        int count = 0;
+        for (Path asset : assets) {
+            if(compressFile(asset)){
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean isCompressible(Path path){
+        String fileName = path.getFileName().toString();
+        return EXTENSIONS.stream().anyMatch(fileName::endsWith);
+    }
+
+    private static boolean compressFile(Path asset) throws IOException {
+        Path gzPath = asset.resolveSibling(asset.getFileName() + ".gz");
+        if(Files.exists(gzPath) && Files.getLastModifiedTime(gzPath).compareTo(Files.getLastModifiedTime(asset)) >= 0){
+            return false;
+        }
+
+        // 임시 파일에 쓴 뒤 이름을 바꿔서, 압축 도중에 멈춰도 깨진 .gz 가 서빙되지 않게 함.
+        Path tmpPath = asset.resolveSibling(asset.getFileName() + ".gz.tmp");
+        try (InputStream in = Files.newInputStream(asset);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmpPath)) {
+                 {
+                     def.setLevel(Deflater.BEST_COMPRESSION);
+                 }
+             }) {
+            in.transferTo(out);
+        }
+
+        if(Files.size(tmpPath) >= Files.size(asset)){
+            Files.delete(tmpPath);
+            Files.deleteIfExists(gzPath);
+            return false;
+        }
+        Files.move(tmpPath, gzPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
+
+}
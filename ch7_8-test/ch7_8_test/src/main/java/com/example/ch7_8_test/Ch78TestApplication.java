@@ -2,8 +2,10 @@ package com.example.ch7_8_test;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class Ch78TestApplication {
 
     public static void main(String[] args) {
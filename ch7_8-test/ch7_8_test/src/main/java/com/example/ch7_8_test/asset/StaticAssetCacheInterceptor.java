@@ -0,0 +1,49 @@
+package com.example.ch7_8_test.asset;
+
+import com.example.ch7_8_test.image.ImageServlet;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.resource.ContentVersionStrategy;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+import org.springframework.web.servlet.resource.VersionStrategy;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+// 정적 파일(/css/**, /js/**) 캐시 헤더.
+// 내용 해시가 붙은 주소(layout1-<md5>.css)는 내용이 바뀌면 주소가 바뀌므로 1년 immutable 캐시.
+// 해시 모양만 보고 붙이지 않고, 해시를 뗀 원래 주소로 리소스 체인이 만드는 주소가 요청 주소와 같을 때만 붙임.
+// (해시가 틀렸거나 해시 모양의 이름을 가진 원래 파일이면 다시 확인하는 헤더가 됨)
+// 해시가 없는 원래 주소는 매번 Last-Modified 로 다시 확인하게 함.
+public class StaticAssetCacheInterceptor implements HandlerInterceptor {
+
+    private static final String REVALIDATE_CACHE_CONTROL = "no-cache";
+
+    private final VersionStrategy versionStrategy = new ContentVersionStrategy();
+
+    // 웹 설정(WebMvcConfigurer)이 만들어질 때는 아직 없는 빈이라 요청 때 꺼내 씀.
+    private final ObjectProvider<ResourceUrlProvider> resourceUrlProvider;
+
+    public StaticAssetCacheInterceptor(ObjectProvider<ResourceUrlProvider> resourceUrlProvider){
+        this.resourceUrlProvider = resourceUrlProvider;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler){
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, isVersioned(path)
+                ? ImageServlet.IMMUTABLE_CACHE_CONTROL : REVALIDATE_CACHE_CONTROL);
+        return true;
+    }
+
+    private boolean isVersioned(String path){
+        String version = versionStrategy.extractVersion(path);
+        if(version == null){
+            return false;
+        }
+        String strippedPath = versionStrategy.removeVersion(path, version);
+        return path.equals(resourceUrlProvider.getObject().getForLookupPath(strippedPath));
+    }
+
+}
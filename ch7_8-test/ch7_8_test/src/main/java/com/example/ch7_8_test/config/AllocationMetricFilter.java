@@ -0,0 +1,57 @@
+package com.example.ch7_8_test.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+// 파일 업로드(multipart) 요청 하나가 요청 스레드에서 할당한 힙 바이트 수. (/actuator/metrics/http.request.allocated)
+// 업로드 파일을 byte[] 로 읽지 않는지 확인하는 용도. 파일 크기와 관계없이 값이 거의 일정해야 함.
+@Component
+public class AllocationMetricFilter extends OncePerRequestFilter {
+
+    private final com.sun.management.ThreadMXBean threadMXBean;
+
+    private final MeterRegistry meterRegistry;
+
+    public AllocationMetricFilter(MeterRegistry meterRegistry){
+        this.meterRegistry = meterRegistry;
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        this.threadMXBean = bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()
+                ? (com.sun.management.ThreadMXBean) bean : null;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return threadMXBean == null || contentType == null || !contentType.startsWith("multipart/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long threadId = Thread.currentThread().getId();
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder("http.request.allocated")
+                    .baseUnit("bytes")
+                    .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                    .register(meterRegistry)
+                    .record(allocated);
+        }
+    }
+
+}
@@ -0,0 +1,135 @@
+package com.example.ch7_8_test.config;
+
+import com.example.ch7_8_test.event.ItemChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 비로그인 사용자의 메인 페이지("/") 렌더링 결과(html) 를 짧은 시간 동안 캐시.
+// 메인 트래픽 대부분이 같은 페이지/검색어 조합이라 그 동안은 조회 쿼리와 템플릿 렌더링을 건너뜀.
+// 시큐리티 필터 다음에 실행되어야 로그인 여부를 알 수 있으므로 기본 순서(가장 마지막)로 등록함.
+@Component
+public class MainPageCacheFilter extends OncePerRequestFilter {
+
+    public static final String CACHE_HEADER = "X-Main-Cache";
+
+    private static final int MAX_ENTRIES = 1000;
+
+    private final Map<String, CachedPage> pages = new ConcurrentHashMap<>();
+
+    private final long ttlMillis;
+
+    public MainPageCacheFilter(@Value("${mainPageCacheTtlSeconds:5}") long ttlSeconds){
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !"GET".equals(request.getMethod()) || !"/".equals(path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        // 로그인 사용자는 헤더 메뉴(sec:authorize) 가 다르므로 캐시하지 않음.
+        if(ttlMillis <= 0 || !isAnonymous()){
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = cacheKey(request);
+        long now = System.currentTimeMillis();
+        CachedPage cached = pages.get(key);
+        if(cached != null && cached.expireAt > now){
+            response.setHeader(CACHE_HEADER, "HIT");
+            response.setContentType(cached.contentType);
+            response.setContentLength(cached.body.length);
+            response.getOutputStream().write(cached.body);
+            return;
+        }
+
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        responseWrapper.setHeader(CACHE_HEADER, "MISS");
+        filterChain.doFilter(request, responseWrapper);
+
+        byte[] body = responseWrapper.getContentAsByteArray();
+        if(isCacheable(responseWrapper, body)){
+            // 렌더링에 걸린 시간만큼 TTL 이 줄지 않도록 만료 시각은 응답이 끝난 뒤 시각 기준.
+            long renderedAt = System.currentTimeMillis();
+            if(pages.size() >= MAX_ENTRIES){
+                pages.values().removeIf(value -> value.expireAt <= renderedAt);
+                if(pages.size() >= MAX_ENTRIES){
+                    pages.clear();
+                }
+            }
+            pages.put(key, new CachedPage(body, responseWrapper.getContentType(), renderedAt + ttlMillis));
+        }
+        responseWrapper.copyBodyToResponse();
+    }
+
+    // 상품 등록/수정 후에는 목록이 바뀌므로 전체를 비움.
+    @Order(2) //ItemPageCache 참고
+    @TransactionalEventListener
+    public void onItemChanged(ItemChangedEvent event){
+        pages.clear();
+    }
+
+    // 페이지 번호, 검색어, 필터 파라미터를 이름 순으로 정렬해서 순서만 다른 요청도 같은 키가 되게 함.
+    private static String cacheKey(HttpServletRequest request){
+        StringBuilder key = new StringBuilder();
+        for (Map.Entry<String, String[]> entry : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            for (String value : entry.getValue()) {
+                key.append(entry.getKey()).append('=').append(value).append('&');
+            }
+        }
+        return key.toString();
+    }
+
+    private static boolean isAnonymous(){
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null || authentication instanceof AnonymousAuthenticationToken;
+    }
+
+    // 정상 응답인 html 만 저장. 사용자별 csrf 토큰이 들어간 페이지는 다른 사용자에게 보여주면 안 되므로 제외.
+    private static boolean isCacheable(HttpServletResponse response, byte[] body){
+        if(response.getStatus() != HttpServletResponse.SC_OK || body.length == 0
+                || response.getContentType() == null || !response.getContentType().startsWith("text/html")){
+            return false;
+        }
+        return !new String(body, StandardCharsets.UTF_8).contains("_csrf");
+    }
+
+    private static class CachedPage {
+
+        private final byte[] body;
+
+        private final String contentType;
+
+        private final long expireAt;
+
+        private CachedPage(byte[] body, String contentType, long expireAt){
+            this.body = body;
+            this.contentType = contentType;
+            this.expireAt = expireAt;
+        }
+
+    }
+
+}
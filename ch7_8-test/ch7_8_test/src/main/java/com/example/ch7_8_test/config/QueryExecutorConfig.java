@@ -0,0 +1,54 @@
+package com.example.ch7_8_test.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class QueryExecutorConfig {
+
+    // 페이지 count 쿼리 전용 스레드. 스레드마다 커넥션을 하나씩 더 쓰므로 커넥션 풀(기본 10) 보다 작게 둠.
+    // 스레드와 대기열이 모두 차면 호출한 스레드에서 그대로 실행(기존 순차 실행과 같음).
+    @Bean(name = "countQueryExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor countQueryExecutor(@Value("${countQueryThreads:4}") int threads){
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads * 10);
+        executor.setThreadNamePrefix("count-query-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    // 상품 이미지 썸네일 생성 전용 스레드. 이미지 디코딩은 cpu, 메모리를 많이 쓰므로 적게 두고,
+    // 대기열이 차면 작업을 받지 않음. (커밋 직후 콜백 스레드에서 실행되지 않도록, ItemImgVariantService 가 나중에 다시 채움)
+    @Bean(name = "thumbnailExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor thumbnailExecutor(@Value("${thumbnailThreads:2}") int threads){
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads * 50);
+        executor.setThreadNamePrefix("thumbnail-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    // 상품 등록/수정 때 업로드 이미지 파일을 동시에 쓰는 스레드. 디스크 쓰기 위주라 커넥션과 무관함.
+    @Bean(name = "imageIoExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor imageIoExecutor(@Value("${imageIoThreads:4}") int threads){
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads * 10);
+        executor.setThreadNamePrefix("image-io-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+}
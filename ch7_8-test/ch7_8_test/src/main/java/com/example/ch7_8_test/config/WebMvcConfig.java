@@ -1,9 +1,20 @@
 package com.example.ch7_8_test.config;
 
+import com.example.ch7_8_test.asset.StaticAssetCacheInterceptor;
+import com.example.ch7_8_test.image.ImageServlet;
+import com.example.ch7_8_test.image.ImgShard;
+import com.example.ch7_8_test.image.OffHeapImageCache;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+
+import java.net.URI;
+import java.nio.file.Paths;
 
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
@@ -11,10 +22,27 @@ public class WebMvcConfig implements WebMvcConfigurer {
     @Value("${uploadPath}")
     String uploadPath;
 
+    private final ObjectProvider<ResourceUrlProvider> resourceUrlProvider;
+
+    public WebMvcConfig(ObjectProvider<ResourceUrlProvider> resourceUrlProvider){
+        this.resourceUrlProvider = resourceUrlProvider;
+    }
+
+    // 업로드 이미지는 리소스 핸들러(디스패처 서블릿) 대신 전용 서블릿으로 내려줌. (/images/* 가 "/" 보다 우선)
+    // 폴더 나누기(ImgShard) 이전 경로와 이후 경로 중 한쪽에 없으면 다른 쪽에서 찾음. (옮기는 동안 두 경로 모두 동작)
+    @Bean
+    public ServletRegistrationBean<ImageServlet> imageServlet(OffHeapImageCache imageCache){
+        ServletRegistrationBean<ImageServlet> registration =
+                new ServletRegistrationBean<>(new ImageServlet(Paths.get(URI.create(uploadPath)), ImgShard::alternate, imageCache), "/images/*");
+        registration.setName("imageServlet");
+        return registration;
+    }
+
+    // 정적 파일의 내용 해시 주소, .gz 선택은 리소스 체인(spring.web.resources.chain.*)이 처리하고 캐시 헤더만 여기서 붙임.
     @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        registry.addResourceHandler("/images/**")
-                .addResourceLocations(uploadPath);
+    public void addInterceptors(InterceptorRegistry registry){
+        registry.addInterceptor(new StaticAssetCacheInterceptor(resourceUrlProvider))
+                .addPathPatterns("/css/**", "/js/**");
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,12 @@
+package com.example.ch7_8_test.constant;
+
+// 페이징 조회 시 전체 건수를 구하는 방식.
+// EXACT : 매번 count 쿼리, CACHED : 검색 조건별 count 결과를 TTL 동안 재사용,
+// HAS_NEXT : count 없이 한 건 더 조회해서 다음 페이지 존재 여부만 판단. (전체 건수가 없으므로 Page 가 아닌 Slice 로 반환)
+// PARALLEL : count 를 목록 쿼리와 동시에 다른 커넥션에서 실행.
+//            두 쿼리가 서로 다른 커넥션(스냅샷)에서 돌므로 그 사이 커밋된 등록/삭제만큼 건수와 목록이 어긋날 수 있음.
+//            (마지막 페이지가 비거나 페이지 수가 하나 차이 나는 정도) 화면 표시용 목록에서만 쓰고,
+//            호출한 트랜잭션의 미커밋 변경은 count 에 보이지 않으므로 쓰기 트랜잭션 안에서는 쓰지 않음.
+public enum CountMode {
+    EXACT, CACHED, HAS_NEXT, PARALLEL
+}
@@ -0,0 +1,44 @@
+package com.example.ch7_8_test.constant;
+
+// 메인 화면 가격대 필터. [minPrice, maxPrice) 구간.
+public enum PriceBand {
+    UNDER_10K("1만원 미만", 0, 10000),
+    FROM_10K_TO_30K("1만원 ~ 3만원", 10000, 30000),
+    FROM_30K_TO_50K("3만원 ~ 5만원", 30000, 50000),
+    FROM_50K_TO_100K("5만원 ~ 10만원", 50000, 100000),
+    OVER_100K("10만원 이상", 100000, Integer.MAX_VALUE);
+
+    private final String label;
+
+    private final int minPrice;
+
+    private final int maxPrice;
+
+    PriceBand(String label, int minPrice, int maxPrice){
+        this.label = label;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+    }
+
+    public String getLabel(){
+        return label;
+    }
+
+    public int getMinPrice(){
+        return minPrice;
+    }
+
+    public int getMaxPrice(){
+        return maxPrice;
+    }
+
+    public static PriceBand of(int price){
+        for (PriceBand priceBand : values()) {
+            if(price >= priceBand.minPrice && price < priceBand.maxPrice){
+                return priceBand;
+            }
+        }
+        return UNDER_10K;
+    }
+
+}
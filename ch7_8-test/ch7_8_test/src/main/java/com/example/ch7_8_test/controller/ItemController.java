@@ -1,13 +1,24 @@
 package com.example.ch7_8_test.controller;
 
+import com.example.ch7_8_test.constant.CountMode;
+import com.example.ch7_8_test.dto.AdminItemDto;
 import com.example.ch7_8_test.dto.ItemFormDto;
 import com.example.ch7_8_test.dto.ItemSearchDto;
-import com.example.ch7_8_test.entity.Item;
+import com.example.ch7_8_test.dto.ItemSuggestDto;
+import com.example.ch7_8_test.dto.TopItemDto;
+import com.example.ch7_8_test.service.BestSellerService;
+import com.example.ch7_8_test.service.ItemImgIngestService;
+import com.example.ch7_8_test.service.ItemRecommendService;
 import com.example.ch7_8_test.service.ItemService;
+import com.example.ch7_8_test.service.ItemSuggestService;
+import com.example.ch7_8_test.stats.ItemPopularityTracker;
+import com.example.ch7_8_test.stats.ItemViewCounter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -15,6 +26,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.persistence.EntityNotFoundException;
@@ -28,6 +40,18 @@ public class ItemController {
 
     private final ItemService itemService;
 
+    private final ItemImgIngestService itemImgIngestService;
+
+    private final ItemSuggestService itemSuggestService;
+
+    private final ItemRecommendService itemRecommendService;
+
+    private final BestSellerService bestSellerService;
+
+    private final ItemViewCounter itemViewCounter;
+
+    private final ItemPopularityTracker itemPopularityTracker;
+
     @GetMapping(value = "/admin/item/new")
     public String itemForm(Model model){
         model.addAttribute("itemFormDto", new ItemFormDto());
@@ -48,7 +72,8 @@ public class ItemController {
         }
 
         try {
-            itemService.saveItem(itemFormDto, itemImgFileList);
+            //이미지 파일은 트랜잭션 전에 동시에 저장
+            itemService.saveItem(itemFormDto, itemImgIngestService.ingest(itemImgFileList));
         } catch (Exception e){
             model.addAttribute("errorMessage", "상품 등록 중 에러가 발생하였습니다.");
             return "item/itemForm";
@@ -85,7 +110,7 @@ public class ItemController {
         }
 
         try {
-            itemService.updateItem(itemFormDto, itemImgFileList);
+            itemService.updateItem(itemFormDto, itemImgIngestService.ingest(itemImgFileList));
         } catch (Exception e){
             model.addAttribute("errorMessage", "상품 수정 중 에러가 발생하였습니다.");
             return "item/itemForm";
@@ -98,10 +123,13 @@ public class ItemController {
     public String itemManage(ItemSearchDto itemSearchDto, @PathVariable("page") Optional<Integer> page, Model model){
 
         Pageable pageable = PageRequest.of(page.isPresent() ? page.get() : 0, 3);
-        Page<Item> items = itemService.getAdminItemPage(itemSearchDto, pageable);
+        // 관리 화면은 전체 페이지 수가 필요하므로 count 쿼리를 목록 쿼리와 동시에 실행.
+        // (필터가 있으면 비트맵 색인에서 건수를 구하고, 없을 때만 PARALLEL 로 디비 조회. 동시 변경 시 건수는 근사치)
+        Page<AdminItemDto> items = itemService.getAdminItemPage(itemSearchDto, pageable, CountMode.PARALLEL);
 
         model.addAttribute("items", items);
         model.addAttribute("itemSearchDto", itemSearchDto);
+        model.addAttribute("regDateCounts", itemService.getRegDateCounts());
         model.addAttribute("maxPage", 5);
 
         return "item/itemMng";
@@ -110,8 +138,30 @@ public class ItemController {
     @GetMapping(value = "/item/{itemId}")
     public String itemDtl(Model model, @PathVariable("itemId") Long itemId){
         ItemFormDto itemFormDto = itemService.getItemDtl(itemId);
+        // 조회수는 메모리 카운터에만 더하고 디비 반영은 주기적으로 모아서 함.
+        itemViewCounter.increment(itemId);
+        itemPopularityTracker.recordView(itemId);
         model.addAttribute("item", itemFormDto);
+        model.addAttribute("viewCount", itemViewCounter.getViewCount(itemId));
+        model.addAttribute("alsoBoughtItems", itemRecommendService.getAlsoBoughtItems(itemId));
         return "item/itemDtl";
     }
 
-}
\ No newline at end of file
+    // 검색창 자동완성. 메모리 트라이에서만 조회하므로 키 입력마다 호출해도 디비 부하가 없음.
+    // size 는 1 ~ MAX_SUGGEST_SIZE 로 맞춤. (0, 음수가 트라이 조회까지 내려가지 않도록)
+    @GetMapping(value = "/api/items/suggest")
+    public @ResponseBody ResponseEntity<List<ItemSuggestDto>> suggest(@RequestParam("q") String q, Optional<Integer> size){
+        int suggestSize = Math.max(1, Math.min(size.orElse(ItemSuggestService.MAX_SUGGEST_SIZE), ItemSuggestService.MAX_SUGGEST_SIZE));
+        List<ItemSuggestDto> suggestions = itemSuggestService.suggest(q, suggestSize);
+        return new ResponseEntity<List<ItemSuggestDto>>(suggestions, HttpStatus.OK);
+    }
+
+    // 최근 1시간 판매량 상위 상품. (메모리 요약 기준 추정치) size 는 1 ~ MAX_STATS_SIZE 로 맞춤.
+    @GetMapping(value = "/admin/stats/top-items")
+    public @ResponseBody ResponseEntity<List<TopItemDto>> topItems(Optional<Integer> size){
+        int statsSize = Math.max(1, Math.min(size.orElse(20), BestSellerService.MAX_STATS_SIZE));
+        List<TopItemDto> topItems = bestSellerService.getBestSellerStats(statsSize);
+        return new ResponseEntity<List<TopItemDto>>(topItems, HttpStatus.OK);
+    }
+
+}
@@ -1,16 +1,22 @@
 package com.example.ch7_8_test.controller;
 
+import com.example.ch7_8_test.constant.CountMode;
 import com.example.ch7_8_test.dto.ItemSearchDto;
 import com.example.ch7_8_test.dto.MainItemDto;
+import com.example.ch7_8_test.search.ItemFacetIndex;
+import com.example.ch7_8_test.service.BestSellerService;
 import com.example.ch7_8_test.service.ItemService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.thymeleaf.util.StringUtils;
 
+import java.util.List;
 import java.util.Optional;
 
 @Controller
@@ -19,17 +25,52 @@ public class MainController {
 
     private final ItemService itemService;
 
+    private final BestSellerService bestSellerService;
+
     @GetMapping(value = "/")
-    public String main(ItemSearchDto itemSearchDto, Optional<Integer> page, Model model){
+    public String main(ItemSearchDto itemSearchDto, Optional<Integer> page, Optional<Long> after, Model model){
+
+        // ?after=<상품아이디> 로 들어오면 커서 방식으로 조회.
+        // 깊은 페이지도 offset 스캔이나 count 쿼리 없이 다음 묶음만 가져옴. (필터나 인기순을 고른 경우는 페이지 번호 방식)
+        if(after.isPresent() && !ItemFacetIndex.hasFilter(itemSearchDto) && StringUtils.isEmpty(itemSearchDto.getSort())){
+            Slice<MainItemDto> items = itemService.getMainItemSlice(itemSearchDto, after.get(), 6);
+            List<MainItemDto> content = items.getContent();
+
+            model.addAttribute("items", items);
+            model.addAttribute("itemSearchDto", itemSearchDto);
+            model.addAttribute("cursorMode", true);
+            model.addAttribute("nextCursor", items.hasNext() ? content.get(content.size() - 1).getId() : null);
+            return "main";
+        }
 
         Pageable pageable = PageRequest.of(page.isPresent() ? page.get() : 0, 6);
-        Page<MainItemDto> items = itemService.getMainItemPage(itemSearchDto, pageable);
+        // 메인은 다음 페이지 존재 여부만 알면 되므로 count 쿼리 없이 조회. (검색, 필터 색인을 탄 경우는 전체 건수가 있는 Page)
+        Slice<MainItemDto> items = itemService.getMainItemPage(itemSearchDto, pageable, CountMode.HAS_NEXT);
+
+        // 첫 페이지 검색 결과가 없을 때만 오타를 교정해서 한 번 더 조회. 이후 페이지 링크는 교정된 검색어를 사용함.
+        if(items.getContent().isEmpty() && pageable.getPageNumber() == 0
+                && !StringUtils.isEmpty(itemSearchDto.getSearchQuery())){
+            String correctedQuery = itemService.correctSearchQuery(itemSearchDto.getSearchQuery());
+            if(correctedQuery != null){
+                model.addAttribute("originalQuery", itemSearchDto.getSearchQuery());
+                model.addAttribute("correctedQuery", correctedQuery);
+                itemSearchDto.setSearchQuery(correctedQuery);
+                items = itemService.getMainItemPage(itemSearchDto, pageable, CountMode.HAS_NEXT);
+            }
+        }
 
         model.addAttribute("items", items);
         model.addAttribute("itemSearchDto", itemSearchDto);
+        model.addAttribute("facets", itemService.getMainItemFacets(itemSearchDto));
+        model.addAttribute("cursorMode", false);
+        model.addAttribute("totalKnown", items instanceof Page);
         model.addAttribute("maxPage", 5);
+        // 검색하지 않은 첫 화면에만 최근 1시간 인기 상품을 보여줌.
+        if(StringUtils.isEmpty(itemSearchDto.getSearchQuery()) && pageable.getPageNumber() == 0){
+            model.addAttribute("bestSellers", bestSellerService.getBestSellerItems(4));
+        }
 
         return "main";
     }
 
-}
\ No newline at end of file
+}
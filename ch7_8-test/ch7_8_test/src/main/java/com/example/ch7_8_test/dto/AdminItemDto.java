@@ -0,0 +1,32 @@
+package com.example.ch7_8_test.dto;
+
+import com.example.ch7_8_test.constant.ItemSellStatus;
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+// 관리자 상품 목록 한 줄. 목록 캐시(ItemPageCache)에 그대로 담기므로 값을 바꿀 수 없게 만듦.
+@Getter
+public class AdminItemDto {
+
+    private final Long id;
+
+    private final String itemNm;
+
+    private final ItemSellStatus itemSellStatus;
+
+    private final String createdBy;
+
+    private final LocalDateTime regTime;
+
+    @QueryProjection
+    public AdminItemDto(Long id, String itemNm, ItemSellStatus itemSellStatus, String createdBy, LocalDateTime regTime){
+        this.id = id;
+        this.itemNm = itemNm;
+        this.itemSellStatus = itemSellStatus;
+        this.createdBy = createdBy;
+        this.regTime = regTime;
+    }
+
+}
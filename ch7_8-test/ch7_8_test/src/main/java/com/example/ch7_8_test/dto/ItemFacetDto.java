@@ -0,0 +1,22 @@
+package com.example.ch7_8_test.dto;
+
+import com.example.ch7_8_test.constant.ItemSellStatus;
+import com.example.ch7_8_test.constant.PriceBand;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// 메인 화면 필터별 상품 건수. 각 필터의 건수는 나머지 필터가 적용된 상태에서 계산함.
+@Getter @Setter
+public class ItemFacetDto {
+
+    private Map<ItemSellStatus, Integer> sellStatusCounts = new EnumMap<>(ItemSellStatus.class);
+
+    private Map<PriceBand, Integer> priceBandCounts = new EnumMap<>(PriceBand.class);
+
+    private Map<String, Integer> dateTypeCounts = new LinkedHashMap<>();
+
+}
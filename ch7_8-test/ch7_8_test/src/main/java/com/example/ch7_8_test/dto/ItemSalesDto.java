@@ -0,0 +1,18 @@
+package com.example.ch7_8_test.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter @Setter
+public class ItemSalesDto {
+
+    private Long itemId; //상품 아이디
+
+    private Long salesCount; //누적 판매 수량
+
+    public ItemSalesDto(Long itemId, Long salesCount){
+        this.itemId = itemId;
+        this.salesCount = salesCount;
+    }
+
+}
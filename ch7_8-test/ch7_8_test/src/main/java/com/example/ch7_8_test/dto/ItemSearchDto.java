@@ -1,18 +1,25 @@
 package com.example.ch7_8_test.dto;
 
 import com.example.ch7_8_test.constant.ItemSellStatus;
+import com.example.ch7_8_test.constant.PriceBand;
 import lombok.Getter;
 import lombok.Setter;
 
 @Getter @Setter
 public class ItemSearchDto {
 
+    public static final String SORT_POPULAR = "popular";
+
     private String searchDateType;
 
     private ItemSellStatus searchSellStatus;
 
+    private PriceBand searchPriceBand;
+
     private String searchBy;
 
     private String searchQuery = "";
 
+    private String sort; //정렬. null 이면 최신순, popular 면 인기순 (검색어가 있으면 정확도순)
+
 }
\ No newline at end of file
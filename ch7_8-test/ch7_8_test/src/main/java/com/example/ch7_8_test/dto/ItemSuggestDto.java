@@ -0,0 +1,18 @@
+package com.example.ch7_8_test.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter @Setter
+public class ItemSuggestDto {
+
+    private Long id;
+
+    private String itemNm;
+
+    public ItemSuggestDto(Long id, String itemNm){
+        this.id = id;
+        this.itemNm = itemNm;
+    }
+
+}
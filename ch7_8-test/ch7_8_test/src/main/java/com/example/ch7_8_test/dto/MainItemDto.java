@@ -2,20 +2,20 @@ package com.example.ch7_8_test.dto;
 
 import com.querydsl.core.annotations.QueryProjection;
 import lombok.Getter;
-import lombok.Setter;
 
-@Getter @Setter
+// 목록 캐시(ItemPageCache)에 그대로 담기므로 값을 바꿀 수 없게 만듦.
+@Getter
 public class MainItemDto {
 
-    private Long id;
+    private final Long id;
 
-    private String itemNm;
+    private final String itemNm;
 
-    private String itemDetail;
+    private final String itemDetail;
 
-    private String imgUrl;
+    private final String imgUrl;
 
-    private Integer price;
+    private final Integer price;
 
     @QueryProjection
     public MainItemDto(Long id, String itemNm, String itemDetail, String imgUrl,Integer price){
@@ -26,4 +26,4 @@ public class MainItemDto {
         this.price = price;
     }
 
-}
\ No newline at end of file
+}
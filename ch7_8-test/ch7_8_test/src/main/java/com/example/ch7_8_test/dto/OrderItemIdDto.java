@@ -0,0 +1,18 @@
+package com.example.ch7_8_test.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter @Setter
+public class OrderItemIdDto {
+
+    private Long orderId; //주문 아이디
+
+    private Long itemId; //상품 아이디
+
+    public OrderItemIdDto(Long orderId, Long itemId){
+        this.orderId = orderId;
+        this.itemId = itemId;
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.example.ch7_8_test.dto;
+
+import lombok.Getter;
+
+// 트랜잭션 밖에서 디스크에 먼저 저장한 업로드 이미지. 트랜잭션 안에서는 이 값으로 item_img 행만 씀.
+@Getter
+public class StoredImgDto {
+
+    private final String oriImgName; //원본 이미지 파일명
+
+    private final String imgName; //저장 파일명 (파일을 올리지 않았으면 "")
+
+    private final long size; //저장 파일 크기
+
+    public StoredImgDto(String oriImgName, String imgName, long size){
+        this.oriImgName = oriImgName;
+        this.imgName = imgName;
+        this.size = size;
+    }
+
+    public static StoredImgDto empty(String oriImgName){
+        return new StoredImgDto(oriImgName, "", 0);
+    }
+
+    public boolean isStored(){
+        return !imgName.isEmpty();
+    }
+
+}
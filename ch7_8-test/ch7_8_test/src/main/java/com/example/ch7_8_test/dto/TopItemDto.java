@@ -0,0 +1,21 @@
+package com.example.ch7_8_test.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter @Setter
+public class TopItemDto {
+
+    private Long itemId; //상품 아이디
+
+    private String itemNm; //상품명
+
+    private Long salesCount; //최근 판매 수량 추정치
+
+    public TopItemDto(Long itemId, String itemNm, Long salesCount){
+        this.itemId = itemId;
+        this.itemNm = itemNm;
+        this.salesCount = salesCount;
+    }
+
+}
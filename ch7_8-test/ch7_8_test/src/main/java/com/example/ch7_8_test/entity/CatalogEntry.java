@@ -0,0 +1,72 @@
+package com.example.ch7_8_test.entity;
+
+import com.example.ch7_8_test.constant.ItemSellStatus;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+// 메인/장바구니 목록 전용 읽기 테이블.
+// 목록에 필요한 값(상품명, 가격, 요약, 대표 이미지 경로)을 상품 한 건당 한 행으로 들고 있어서
+// 목록 조회 때 item(@Lob) 과 item_img 를 조인하지 않음. item, item_img 를 저장하는 트랜잭션 안에서 같이 갱신됨.
+@Entity
+@Table(name="catalog_entry",
+        indexes = {@Index(name = "idx_catalog_entry_status_id", columnList = "item_sell_status, item_id"),
+                @Index(name = "idx_catalog_entry_popularity", columnList = "popularity, item_id")})
+@Getter
+@Setter
+@ToString
+public class CatalogEntry {
+
+    public static final int SUMMARY_LENGTH = 100;
+
+    @Id
+    @Column(name="item_id")
+    private Long itemId; //상품 코드 (item 과 같은 값)
+
+    @Column(nullable = false, length = 50)
+    private String itemNm; //상품명
+
+    @Column(nullable = false)
+    private int price; //가격
+
+    @Column(length = SUMMARY_LENGTH)
+    private String summary; //상품 상세 설명 앞부분
+
+    private String imgUrl; //대표 이미지 조회 경로
+
+    @Enumerated(EnumType.STRING)
+    @Column(name="item_sell_status")
+    private ItemSellStatus itemSellStatus; //상품 판매 상태
+
+    private LocalDateTime regTime; //상품 등록 시간
+
+    // 인기순 정렬용 점수. 조회/장바구니/주문 점수에 시간 가중치를 곱해 더한 값 (ItemPopularityTracker 가 주기적으로 더함)
+    @Column(nullable = false)
+    private double popularity;
+
+    public static CatalogEntry of(Item item){
+        CatalogEntry catalogEntry = new CatalogEntry();
+        catalogEntry.setItemId(item.getId());
+        catalogEntry.setRegTime(item.getRegTime());
+        catalogEntry.updateItem(item);
+        return catalogEntry;
+    }
+
+    public void updateItem(Item item){
+        this.itemNm = item.getItemNm();
+        this.price = item.getPrice();
+        this.summary = summarize(item.getItemDetail());
+        this.itemSellStatus = item.getItemSellStatus();
+    }
+
+    private static String summarize(String itemDetail){
+        if(itemDetail == null || itemDetail.length() <= SUMMARY_LENGTH){
+            return itemDetail;
+        }
+        return itemDetail.substring(0, SUMMARY_LENGTH);
+    }
+
+}
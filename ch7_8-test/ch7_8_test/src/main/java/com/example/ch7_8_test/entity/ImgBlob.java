@@ -0,0 +1,39 @@
+package com.example.ch7_8_test.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+// 내용 해시로 저장한 이미지 파일 하나. 같은 파일을 여러 상품 이미지가 쓰면 refCount 로 세고,
+// 0 이 될 때만 실제 파일을 지움. 0 이 된 행은 파일을 지울 때 같이 지움. (그 전까지 지우는 쪽과 다시 올리는 쪽이 이 행 잠금으로 순서를 맞춤)
+@Entity
+@Table(name="img_blob")
+@Getter
+@Setter
+@ToString
+public class ImgBlob {
+
+    @Id
+    @Column(name="blob_name", length = 80)
+    private String blobName; //저장 파일명 (sha-256 16진수 + 확장자, item_img.img_name 과 같은 값)
+
+    @Column(name="ref_count", nullable = false)
+    private long refCount; //이 파일을 쓰는 item_img 수
+
+    @Column(name="size", nullable = false)
+    private long size; //파일 크기(byte)
+
+    @Column(name="reserved_at")
+    private LocalDateTime reservedAt; //같은 내용을 다시 올린 요청이 이 파일을 쓰기로 한 마지막 시각
+
+    public static ImgBlob of(String blobName, long size){
+        ImgBlob imgBlob = new ImgBlob();
+        imgBlob.setBlobName(blobName);
+        imgBlob.setSize(size);
+        return imgBlob;
+    }
+
+}
@@ -6,7 +6,8 @@ import lombok.Setter;
 import javax.persistence.*;
 
 @Entity
-@Table(name="item_img")
+@Table(name="item_img",
+        indexes = @Index(name = "idx_item_img_img_name", columnList = "imgName"))
 @Getter @Setter
 public class ItemImg extends BaseEntity{
 
@@ -21,6 +22,8 @@ public class ItemImg extends BaseEntity{
 
     private String imgUrl; //이미지 조회 경로
 
+    private String thumbImgUrl; //목록용 썸네일 조회 경로 (생성 전이면 null)
+
     private String repimgYn; //대표 이미지 여부
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -31,6 +34,12 @@ public class ItemImg extends BaseEntity{
         this.oriImgName = oriImgName;
         this.imgName = imgName;
         this.imgUrl = imgUrl;
+        this.thumbImgUrl = null; //새 원본의 썸네일은 비동기로 다시 만듦
+    }
+
+    // 목록(메인, 장바구니, 주문 이력)에 쓸 경로. 썸네일이 아직 없으면 원본.
+    public String getListImgUrl(){
+        return thumbImgUrl != null ? thumbImgUrl : imgUrl;
     }
 
 }
\ No newline at end of file
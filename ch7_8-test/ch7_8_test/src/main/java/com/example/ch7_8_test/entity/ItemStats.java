@@ -0,0 +1,24 @@
+package com.example.ch7_8_test.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import javax.persistence.*;
+
+// 상품별 누적 통계. 조회수는 메모리에 모았다가 ItemViewCounter 가 주기적으로 더함. (JPA 로는 읽기만 함)
+@Entity
+@Table(name="item_stats")
+@Getter
+@Setter
+@ToString
+public class ItemStats {
+
+    @Id
+    @Column(name="item_id")
+    private Long itemId; //상품 코드 (item 과 같은 값)
+
+    @Column(name="view_count", nullable = false)
+    private long viewCount; //누적 조회수
+
+}
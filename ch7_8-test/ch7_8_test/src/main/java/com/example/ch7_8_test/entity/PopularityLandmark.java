@@ -0,0 +1,24 @@
+package com.example.ch7_8_test.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import javax.persistence.*;
+
+// 인기도 점수(catalog_entry.popularity)의 기준 시각. 행은 하나뿐이고 CatalogEntryJdbcRepository 가 잠그고 읽음. (JPA 로는 테이블만 만듦)
+@Entity
+@Table(name="popularity_landmark")
+@Getter
+@Setter
+@ToString
+public class PopularityLandmark {
+
+    @Id
+    @Column(name="id")
+    private Long id; //항상 1
+
+    @Column(name="landmark_millis", nullable = false)
+    private long landmarkMillis; //점수 가중치 2^((반영 시각 - 기준 시각) / 반감기) 의 기준 시각
+
+}
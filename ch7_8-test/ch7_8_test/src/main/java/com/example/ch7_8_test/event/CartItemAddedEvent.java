@@ -0,0 +1,18 @@
+package com.example.ch7_8_test.event;
+
+import lombok.Getter;
+
+// 장바구니 담기가 커밋된 뒤 인기도 점수를 갱신하기 위한 이벤트.
+@Getter
+public class CartItemAddedEvent {
+
+    private final Long itemId;
+
+    private final int count; //담은 수량
+
+    public CartItemAddedEvent(Long itemId, int count){
+        this.itemId = itemId;
+        this.count = count;
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.example.ch7_8_test.event;
+
+import lombok.Getter;
+
+// 이미지 파일의 참조 수가 0 이 되어 커밋된 뒤에 실제 파일을 지우기 위한 이벤트.
+// 커밋 전에 지우면 롤백될 때 참조는 남고 파일만 사라지므로 커밋 이후에 지움.
+@Getter
+public class ImgBlobReleasedEvent {
+
+    private final String blobName;
+
+    public ImgBlobReleasedEvent(String blobName){
+        this.blobName = blobName;
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.example.ch7_8_test.event;
+
+import com.example.ch7_8_test.constant.ItemSellStatus;
+import com.example.ch7_8_test.entity.Item;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+// 상품 등록/수정이 커밋된 뒤에 메모리 색인들을 갱신하기 위한 이벤트.
+// 리스너가 커밋 이후 엔티티를 다시 조회하지 않도록 필요한 값만 복사해서 담음.
+@Getter
+public class ItemChangedEvent {
+
+    private final Long itemId;
+
+    private final String itemNm;
+
+    private final String itemDetail;
+
+    private final int price;
+
+    private final ItemSellStatus itemSellStatus;
+
+    private final LocalDateTime regTime;
+
+    private final boolean created; //신규 등록 여부
+
+    public ItemChangedEvent(Item item, boolean created){
+        this.itemId = item.getId();
+        this.itemNm = item.getItemNm();
+        this.itemDetail = item.getItemDetail();
+        this.price = item.getPrice();
+        this.itemSellStatus = item.getItemSellStatus();
+        this.regTime = item.getRegTime();
+        this.created = created;
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.example.ch7_8_test.event;
+
+import com.example.ch7_8_test.entity.ItemImg;
+import lombok.Getter;
+
+// 상품 이미지 원본이 저장(커밋)된 뒤에 썸네일을 만들기 위한 이벤트.
+@Getter
+public class ItemImgStoredEvent {
+
+    private final Long itemImgId;
+
+    private final String imgName; //이 파일명 기준으로 만든 썸네일만 반영 (그사이 이미지가 바뀌면 버림)
+
+    public ItemImgStoredEvent(ItemImg itemImg){
+        this.itemImgId = itemImg.getId();
+        this.imgName = itemImg.getImgName();
+    }
+
+}
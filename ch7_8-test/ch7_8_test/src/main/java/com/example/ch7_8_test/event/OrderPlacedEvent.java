@@ -0,0 +1,28 @@
+package com.example.ch7_8_test.event;
+
+import com.example.ch7_8_test.entity.Order;
+import com.example.ch7_8_test.entity.OrderItem;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// 주문이 커밋된 뒤 판매량 기반 집계(추천, 인기 상품 등)를 갱신하기 위한 이벤트.
+@Getter
+public class OrderPlacedEvent {
+
+    private final Long orderId;
+
+    private final Map<Long, Integer> itemCounts; //상품 아이디 -> 주문 수량
+
+    public OrderPlacedEvent(Order order){
+        Map<Long, Integer> itemCounts = new LinkedHashMap<>();
+        for (OrderItem orderItem : order.getOrderItems()) {
+            itemCounts.merge(orderItem.getItem().getId(), orderItem.getCount(), Integer::sum);
+        }
+        this.orderId = order.getId();
+        this.itemCounts = Collections.unmodifiableMap(itemCounts);
+    }
+
+}
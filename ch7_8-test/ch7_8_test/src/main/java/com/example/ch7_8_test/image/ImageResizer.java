@@ -0,0 +1,113 @@
+package com.example.ch7_8_test.image;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+
+// javax.imageio 로 이미지를 지정한 상자 크기 안으로 줄여서 저장. 원본보다 키우지는 않음.
+// png 는 투명도를 유지하기 위해 png 로, 나머지는 jpg 로 저장.
+public class ImageResizer {
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private ImageResizer(){
+    }
+
+    // 읽을 수 없는 형식이면 null.
+    public static BufferedImage read(Path source) throws IOException{
+        return ImageIO.read(source.toFile());
+    }
+
+    public static BufferedImage read(InputStream in) throws IOException{
+        return ImageIO.read(in);
+    }
+
+    // 헤더만 읽어서 가로/세로를 확인. (픽셀을 디코딩하지 않음) 읽을 수 없는 형식이면 null.
+    public static Dimension sizeOf(InputStream in) throws IOException{
+        try (ImageInputStream imageIn = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = imageIn == null ? null : ImageIO.getImageReaders(imageIn);
+            if(readers == null || !readers.hasNext()){
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageIn, true, true);
+                return new Dimension(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    public static boolean fits(BufferedImage image, int maxWidth, int maxHeight){
+        return image.getWidth() <= maxWidth && image.getHeight() <= maxHeight;
+    }
+
+    public static BufferedImage resize(BufferedImage image, int maxWidth, int maxHeight, boolean keepAlpha){
+        double scale = Math.min(1.0, Math.min((double) maxWidth / image.getWidth(), (double) maxHeight / image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+        BufferedImage resized = new BufferedImage(width, height,
+                keepAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return resized;
+    }
+
+    // 임시 파일에 쓴 뒤 이름을 바꿔서, 읽는 쪽이 쓰다 만 파일을 보지 않게 함.
+    public static void write(BufferedImage image, String format, Path target) throws IOException{
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(tmp.toFile())) {
+            Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+            if(!writers.hasNext()){
+                throw new IOException("이미지 형식을 저장할 수 없습니다 : " + format);
+            }
+            ImageWriter writer = writers.next();
+            try {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                if("jpg".equals(format)){
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    param.setCompressionQuality(JPEG_QUALITY);
+                }
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static String formatOf(String fileName){
+        return fileName.toLowerCase().endsWith(".png") ? "png" : "jpg";
+    }
+
+    // 파일 확장자와 저장 형식이 같을 때만 줄인 이미지로 바꿀 수 있음. (gif, bmp 같은 파일에 jpg 를 쓰지 않도록)
+    public static boolean isWritableAs(String fileName, String format){
+        String lower = fileName.toLowerCase();
+        return "png".equals(format) ? lower.endsWith(".png") : lower.endsWith(".jpg") || lower.endsWith(".jpeg");
+    }
+
+}
@@ -0,0 +1,275 @@
+package com.example.ch7_8_test.image;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+
+// 업로드 이미지(/images/**) 전용 서블릿. 디스패처 서블릿과 시큐리티 필터 체인을 거치지 않고 바로 파일을 내려줌.
+// - ETag(크기 + 수정 시각), Last-Modified 로 조건부 요청이면 304
+// - 내용 해시 파일명(업로드 원본, 썸네일)은 내용이 바뀌면 이름이 바뀌므로 1년 immutable 캐시
+// - Range 요청(단일 구간)은 206 으로 일부만 전송
+// - 요청 경로에 파일이 없으면 fallbackPath 가 알려 주는 다른 경로도 찾아봄 (폴더 배치를 옮기는 중 예전/새 경로 모두 서빙)
+// - 자주 요청되는 작은 파일은 힙 밖 캐시(OffHeapImageCache)에서 바로 씀 (파일을 열고 읽지 않음)
+// - 톰캣 NIO 커넥터면 sendfile 로 커널이 파일을 바로 소켓에 보냄(힙 복사 없음), 아니면 파일 채널에서 나눠서 복사
+public class ImageServlet extends HttpServlet {
+
+    public static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    public static final String DEFAULT_CACHE_CONTROL = "public, max-age=86400";
+
+    // sha-256 16진수 이름 (썸네일은 thumb_ 접두어)
+    private static final Pattern CONTENT_HASH_NAME = Pattern.compile("^(thumb_)?[0-9a-f]{64}\\.[a-z0-9]+$");
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private static final long[] UNSATISFIABLE = new long[0];
+
+    private final Path root;
+
+    private final UnaryOperator<String> fallbackPath;
+
+    private final OffHeapImageCache imageCache; //null 이면 캐시 없이 서빙
+
+    public ImageServlet(Path root){
+        this(root, path -> null, null);
+    }
+
+    public ImageServlet(Path root, UnaryOperator<String> fallbackPath, OffHeapImageCache imageCache){
+        this.root = root.toAbsolutePath().normalize();
+        this.fallbackPath = fallbackPath;
+        this.imageCache = imageCache;
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException{
+        serve(request, response, true);
+    }
+
+    @Override
+    protected void doHead(HttpServletRequest request, HttpServletResponse response) throws IOException{
+        serve(request, response, false);
+    }
+
+    private void serve(HttpServletRequest request, HttpServletResponse response, boolean sendBody) throws IOException{
+        String pathInfo = request.getPathInfo();
+        Path file = resolve(pathInfo);
+        BasicFileAttributes attributes = attributesOf(file);
+        if(attributes == null && file != null){
+            String fallback = fallbackPath.apply(pathInfo);
+            file = fallback == null ? null : resolve(fallback);
+            attributes = attributesOf(file);
+        }
+        if(attributes == null){
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String etag = etagOf(length, lastModified);
+        String fileName = file.getFileName().toString();
+
+        response.setHeader("ETag", etag);
+        response.setDateHeader("Last-Modified", lastModified);
+        response.setHeader("Accept-Ranges", "bytes");
+        response.setHeader("Cache-Control",
+                CONTENT_HASH_NAME.matcher(fileName).matches() ? IMMUTABLE_CACHE_CONTROL : DEFAULT_CACHE_CONTROL);
+
+        if(notModified(request, etag, lastModified)){
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        String contentType = getServletContext().getMimeType(fileName);
+        response.setContentType(contentType != null ? contentType : "application/octet-stream");
+
+        long start = 0;
+        long end = length - 1;
+        long[] range = rangeOf(request, etag, lastModified, length);
+        if(range == UNSATISFIABLE){
+            response.setHeader("Content-Range", "bytes */" + length);
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+        if(range != null){
+            start = range[0];
+            end = range[1];
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader("Content-Range", "bytes " + start + "-" + end + "/" + length);
+        }
+        long contentLength = end - start + 1;
+        response.setContentLengthLong(contentLength);
+
+        if(!sendBody || contentLength == 0){
+            return;
+        }
+        OffHeapImageCache.Entry cached = imageCache == null ? null : imageCache.get(file, length, lastModified);
+        if(cached != null){
+            try {
+                cached.writeTo(response.getOutputStream(), start, contentLength);
+            } finally {
+                imageCache.release(cached);
+            }
+            return;
+        }
+        if(Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))){
+            request.setAttribute("org.apache.tomcat.sendfile.filename", file.toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", start);
+            request.setAttribute("org.apache.tomcat.sendfile.end", end + 1);
+            return;
+        }
+        copy(file, start, contentLength, response.getOutputStream());
+    }
+
+    // 루트 밖(../) 경로는 null.
+    // 점으로 시작하는 파일/폴더(.orphan 격리 폴더 등)와 .tmp 파일(쓰는 중인 썸네일, 체크포인트)도 내려주지 않음.
+    private Path resolve(String pathInfo){
+        if(pathInfo == null || pathInfo.length() <= 1){
+            return null;
+        }
+        Path file = root.resolve(pathInfo.substring(1)).normalize();
+        if(!file.startsWith(root) || file.equals(root)){
+            return null;
+        }
+        for (Path name : root.relativize(file)) {
+            if(isHidden(name.toString())){
+                return null;
+            }
+        }
+        return file;
+    }
+
+    static boolean isHidden(String name){
+        return name.startsWith(".") || name.toLowerCase().endsWith(".tmp");
+    }
+
+    // 일반 파일이 아니거나 없으면 null.
+    private static BasicFileAttributes attributesOf(Path file) throws IOException{
+        if(file == null){
+            return null;
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return attributes.isRegularFile() ? attributes : null;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    static String etagOf(long length, long lastModified){
+        return "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    // If-None-Match 가 있으면 그것만 보고, 없을 때 If-Modified-Since 를 봄. (초 단위로 비교)
+    private static boolean notModified(HttpServletRequest request, String etag, long lastModified){
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if(ifNoneMatch != null){
+            return matchesEtag(ifNoneMatch, etag);
+        }
+        long ifModifiedSince = dateHeader(request, "If-Modified-Since");
+        return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    private static boolean matchesEtag(String header, String etag){
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if("*".equals(value) || etag.equals(value) || ("W/" + etag).equals(value)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 단일 구간 "bytes=a-b", "bytes=a-", "bytes=-n" 만 처리. 여러 구간이거나 형식이 틀리면 null(전체 전송).
+    // If-Range 가 현재 파일과 다르면 파일이 바뀐 것이므로 전체 전송.
+    static long[] rangeOf(HttpServletRequest request, String etag, long lastModified, long length){
+        String header = request.getHeader("Range");
+        if(header == null || !header.startsWith("bytes=") || header.indexOf(',') >= 0){
+            return null;
+        }
+        String ifRange = request.getHeader("If-Range");
+        if(ifRange != null){
+            if(ifRange.startsWith("\"")){
+                if(!ifRange.equals(etag)){
+                    return null;
+                }
+            } else if(lastModified / 1000 != dateHeader(request, "If-Range") / 1000){
+                return null;
+            }
+        }
+
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if(dash < 0){
+            return null;
+        }
+        try {
+            long start;
+            long end;
+            if(dash == 0){
+                long suffix = Long.parseLong(spec.substring(1));
+                if(suffix <= 0){
+                    return UNSATISFIABLE;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                end = dash == spec.length() - 1 ? length - 1 : Math.min(length - 1, Long.parseLong(spec.substring(dash + 1)));
+                if(end < start){
+                    return start < length ? null : UNSATISFIABLE;
+                }
+            }
+            return start >= length ? UNSATISFIABLE : new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static long dateHeader(HttpServletRequest request, String name){
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private static void copy(Path file, long start, long count, OutputStream out) throws IOException{
+        try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(COPY_BUFFER_SIZE, count));
+            long position = start;
+            long remaining = count;
+            while(remaining > 0){
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), remaining));
+                int read = source.read(buffer, position);
+                if(read < 0){
+                    break;
+                }
+                buffer.flip();
+                while(buffer.hasRemaining()){
+                    target.write(buffer);
+                }
+                position += read;
+                remaining -= read;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.example.ch7_8_test.image;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// 이미지 파일 폴더 나누기. 한 폴더에 파일이 수백만 개 쌓이면 파일 찾기와 백업이 느려지므로
+// 파일명 앞 4글자로 두 단계 하위 폴더(ab/cd/파일명)를 만들어 폴더당 파일 수를 줄임.
+// 저장 파일명이 sha-256(예전 파일은 uuid) 16진수라 고르게 나뉨. 썸네일은 원본과 같은 폴더에 둠.
+public class ImgShard {
+
+    public static final String THUMB_PREFIX = "thumb_";
+
+    private ImgShard(){
+    }
+
+    // 저장 폴더 기준 경로. ("ab/cd/abcd....jpg") 4글자보다 짧은 이름은 나누지 않음.
+    public static String relativePath(String fileName){
+        String key = fileName.startsWith(THUMB_PREFIX) ? fileName.substring(THUMB_PREFIX.length()) : fileName;
+        if(key.length() < 4 || (key.indexOf('.') >= 0 && key.indexOf('.') < 4)){
+            return fileName;
+        }
+        String lower = key.toLowerCase();
+        return lower.substring(0, 2) + "/" + lower.substring(2, 4) + "/" + fileName;
+    }
+
+    public static Path pathOf(Path root, String fileName){
+        return root.resolve(relativePath(fileName));
+    }
+
+    // 나뉜 위치에 없으면 예전(나누기 전) 위치. 옮기는 중에도 두 곳 모두에서 찾을 수 있도록 함.
+    public static Path locate(Path root, String fileName){
+        Path sharded = pathOf(root, fileName);
+        if(Files.exists(sharded)){
+            return sharded;
+        }
+        Path flat = root.resolve(fileName);
+        return Files.exists(flat) ? flat : sharded;
+    }
+
+    // 요청 경로의 다른 배치 쪽 경로. ".../ab/cd/파일명" <-> ".../파일명" (해당하지 않으면 null)
+    public static String alternate(String path){
+        int slash = path.lastIndexOf('/');
+        String dir = slash < 0 ? "" : path.substring(0, slash + 1);
+        String fileName = path.substring(slash + 1);
+        String relativePath = relativePath(fileName);
+        if(relativePath.equals(fileName)){
+            return null;
+        }
+        String shardDir = relativePath.substring(0, relativePath.length() - fileName.length());
+        if(dir.endsWith(shardDir)){
+            return dir.substring(0, dir.length() - shardDir.length()) + fileName;
+        }
+        return dir + relativePath;
+    }
+
+}
@@ -0,0 +1,301 @@
+package com.example.ch7_8_test.image;
+
+import com.example.ch7_8_test.stats.CountMinSketch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.catalina.connector.CoyoteOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// 자주 요청되는 이미지 파일 내용을 힙 밖(direct ByteBuffer) 메모리에 두는 캐시.
+// 메모리는 imageCacheMaxBytes 크기의 슬랩 하나를 PAGE_SIZE 페이지로 나눠 쓰고, 파일 하나는 여러 페이지에 나눠 담음.
+// (크기가 제각각인 파일을 넣고 빼도 조각나지 않고 GC 대상도 아님)
+// - 교체 : LRU. 꽉 차면 가장 오래 안 쓴 항목부터 내보냄.
+// - 받아들이기 : count-min sketch 로 센 최근 요청 빈도가 ADMIT_MIN_HITS 이상이고, 내보낼 항목들보다 자주 요청된 파일만 넣음.
+//   (한 번 보고 마는 이미지가 인기 이미지를 밀어내지 않도록)
+// - 파일 크기/수정 시각이 다르면 바뀐 파일로 보고 버림. 응답에 쓰는 동안에는 고정(pin)해서 페이지가 재사용되지 않게 함.
+@Component
+public class OffHeapImageCache {
+
+    public static final int PAGE_SIZE = 64 * 1024;
+
+    private static final int ADMIT_MIN_HITS = 2;
+
+    private static final int SKETCH_WIDTH = 1 << 16;
+
+    private final ByteBuffer slab;
+
+    private final int[] freePages;
+
+    private int freeCount;
+
+    private final int maxEntryBytes;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long residentBytes;
+
+    private final CountMinSketch frequency = new CountMinSketch(SKETCH_WIDTH);
+
+    private final AtomicLong accesses = new AtomicLong();
+
+    private final long resetInterval; //이만큼 요청이 쌓일 때마다 빈도를 반으로 줄임 (오래전 인기가 계속 남지 않도록)
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
+
+    private final Counter rejectedCounter;
+
+    public OffHeapImageCache(@Value("${imageCacheMaxBytes:67108864}") long maxBytes,
+                             @Value("${imageCacheMaxEntryBytes:1048576}") int maxEntryBytes,
+                             MeterRegistry meterRegistry){
+        if(maxBytes < 0){
+            throw new IllegalArgumentException("imageCacheMaxBytes 는 0 이상이어야 합니다. (0 이면 캐시 사용 안 함) : " + maxBytes);
+        }
+        int pageCount = (int) Math.min(Integer.MAX_VALUE / PAGE_SIZE, maxBytes / PAGE_SIZE);
+        this.slab = pageCount == 0 ? null : ByteBuffer.allocateDirect(pageCount * PAGE_SIZE);
+        this.freePages = new int[pageCount];
+        for(int i=0;i<pageCount;i++){
+            freePages[i] = pageCount - 1 - i;
+        }
+        this.freeCount = pageCount;
+        this.maxEntryBytes = maxEntryBytes;
+        this.resetInterval = Math.max(10000, pageCount * 10L);
+
+        this.hitCounter = meterRegistry.counter("image.cache.requests", "result", "hit");
+        this.missCounter = meterRegistry.counter("image.cache.requests", "result", "miss");
+        this.rejectedCounter = meterRegistry.counter("image.cache.requests", "result", "rejected");
+        meterRegistry.gauge("image.cache.resident.bytes", this, OffHeapImageCache::getResidentBytes);
+        meterRegistry.gauge("image.cache.hit.ratio", this, OffHeapImageCache::getHitRatio);
+    }
+
+    // 캐시에 있으면 고정해서 반환하고, 없으면 받아들일 만한 파일일 때만 읽어서 넣은 뒤 반환. 그 외에는 null.
+    // 반환된 항목은 다 쓴 뒤 반드시 release.
+    public Entry get(Path file, long length, long lastModified) throws IOException{
+        if(slab == null || length <= 0 || length > maxEntryBytes){
+            return null;
+        }
+        String key = keyOf(file);
+        long hash = hashOf(key);
+        recordAccess(hash);
+
+        int pageCount = (int) ((length + PAGE_SIZE - 1) / PAGE_SIZE);
+        int[] pages;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if(entry != null){
+                if(entry.length == length && entry.lastModified == lastModified){
+                    entry.pins++;
+                    hits.increment();
+                    hitCounter.increment();
+                    return entry;
+                }
+                removeLocked(key);
+            }
+            misses.increment();
+            missCounter.increment();
+            if(!admitLocked(hash, pageCount)){
+                rejectedCounter.increment();
+                return null;
+            }
+            pages = new int[pageCount];
+            for(int i=0;i<pageCount;i++){
+                pages[i] = freePages[--freeCount];
+            }
+        }
+
+        // 파일 읽기는 잠금 밖에서. (이 페이지들은 아직 아무도 모름)
+        Entry entry = new Entry(key, pages, (int) length, lastModified);
+        try {
+            entry.readFrom(file);
+        } catch (IOException e) {
+            synchronized (this) {
+                freePagesLocked(pages);
+            }
+            throw e;
+        }
+        synchronized (this) {
+            entry.pins = 2; //캐시 + 호출한 쪽
+            Entry old = entries.put(key, entry);
+            if(old != null){
+                unpinLocked(old);
+                residentBytes -= old.length;
+            }
+            residentBytes += entry.length;
+        }
+        return entry;
+    }
+
+    public synchronized void release(Entry entry){
+        unpinLocked(entry);
+    }
+
+    // 파일을 지우거나 덮어쓸 때 호출. 상대 경로나 ".." 가 섞인 경로도 서블릿이 조회한 키와 같아짐.
+    public synchronized void invalidate(Path file){
+        removeLocked(keyOf(file));
+    }
+
+    public synchronized long getResidentBytes(){
+        return residentBytes;
+    }
+
+    public double getHitRatio(){
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    // 빈 페이지가 모자라면 LRU 순으로 내보낼 항목을 고르되, 그 항목들이 새 파일보다 자주 요청되었으면 넣지 않음.
+    private boolean admitLocked(long hash, int pageCount){
+        long candidateFrequency = frequency.estimate(hash);
+        if(candidateFrequency < ADMIT_MIN_HITS || pageCount > freePages.length){
+            return false;
+        }
+        int available = freeCount;
+        List<String> victims = new ArrayList<>();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while(available < pageCount && iterator.hasNext()){
+            Entry victim = iterator.next();
+            if(frequency.estimate(hashOf(victim.key)) >= candidateFrequency){
+                return false;
+            }
+            victims.add(victim.key);
+            if(victim.pins == 1){
+                available += victim.pages.length; //쓰는 중인 항목은 내보내도 바로 페이지가 비지 않음
+            }
+        }
+        if(available < pageCount){
+            return false;
+        }
+        for (String victim : victims) {
+            removeLocked(victim);
+        }
+        return true;
+    }
+
+    private void removeLocked(String key){
+        Entry entry = entries.remove(key);
+        if(entry != null){
+            residentBytes -= entry.length;
+            unpinLocked(entry);
+        }
+    }
+
+    private void unpinLocked(Entry entry){
+        if(--entry.pins == 0){
+            freePagesLocked(entry.pages);
+        }
+    }
+
+    private void freePagesLocked(int[] pages){
+        for (int page : pages) {
+            freePages[freeCount++] = page;
+        }
+    }
+
+    // 주기마다 정확히 한 요청만 노화를 실행함. (TinyLFU 방식, 최근 빈도의 상대 순서는 유지)
+    private void recordAccess(long hash){
+        if(accesses.incrementAndGet() % resetInterval == 0){
+            frequency.halve();
+        }
+        frequency.add(hash, 1);
+    }
+
+    private static String keyOf(Path file){
+        return file.toAbsolutePath().normalize().toString();
+    }
+
+    private static long hashOf(String key){
+        long hash = 1125899906842597L;
+        for(int i=0;i<key.length();i++){
+            hash = 31 * hash + key.charAt(i);
+        }
+        return hash;
+    }
+
+    public class Entry {
+
+        private final String key;
+
+        private final int[] pages;
+
+        private final int length;
+
+        private final long lastModified;
+
+        private int pins; //캐시 자신 + 응답에 쓰는 중인 요청 수 (OffHeapImageCache 잠금 안에서만 변경)
+
+        private Entry(String key, int[] pages, int length, long lastModified){
+            this.key = key;
+            this.pages = pages;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        private void readFrom(Path file) throws IOException{
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long position = 0;
+                for (int page : pages) {
+                    ByteBuffer buffer = pageBuffer(page, (int) Math.min(PAGE_SIZE, length - position));
+                    while(buffer.hasRemaining()){
+                        if(channel.read(buffer, position + buffer.position()) < 0){
+                            throw new IOException("이미지 파일이 읽는 도중 바뀌었습니다 : " + file);
+                        }
+                    }
+                    position += PAGE_SIZE;
+                }
+            }
+        }
+
+        // start 부터 count 바이트를 응답에 씀. 톰캣 응답 스트림이면 direct 버퍼를 그대로 넘겨 힙 복사 없이 씀.
+        public void writeTo(OutputStream out, long start, long count) throws IOException{
+            byte[] heapBuffer = null;
+            long position = start;
+            long end = start + count;
+            while(position < end){
+                int page = pages[(int) (position / PAGE_SIZE)];
+                int offset = (int) (position % PAGE_SIZE);
+                int size = (int) Math.min(PAGE_SIZE - offset, end - position);
+                ByteBuffer buffer = pageBuffer(page, offset + size);
+                buffer.position(buffer.position() + offset);
+                if(out instanceof CoyoteOutputStream){
+                    ((CoyoteOutputStream) out).write(buffer);
+                } else {
+                    if(heapBuffer == null){
+                        heapBuffer = new byte[PAGE_SIZE];
+                    }
+                    buffer.get(heapBuffer, 0, size);
+                    out.write(heapBuffer, 0, size);
+                }
+                position += size;
+            }
+        }
+
+        private ByteBuffer pageBuffer(int page, int size){
+            ByteBuffer buffer = slab.duplicate();
+            buffer.limit(page * PAGE_SIZE + size);
+            buffer.position(page * PAGE_SIZE);
+            return buffer.slice();
+        }
+
+    }
+
+}
@@ -17,12 +17,12 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     // 하나의 파일에 2개의 용도가 겹쳐서, 불편함.
     // JPQL jpa 에서 사용이되는 기술. 표준 SQL를 작성시 이용됨.
     // 이용해서 DTO ->  Entity 클래스, 바로 반환하는 방법.
-    @Query("select new com.example.ch7_8_test.dto.CartDetailDto(ci.id, i.itemNm, i.price, ci.count, im.imgUrl) " +
-            "from CartItem ci, ItemImg im " +
-            "join ci.item i " +
+    // 상품명, 가격, 대표 이미지는 catalog_entry 한 테이블에서 가져옴. (item, item_img 조인 없음)
+    // 연관관계가 없는 엔티티라 on 절로 item_id 끼리 명시적으로 조인.
+    @Query("select new com.example.ch7_8_test.dto.CartDetailDto(ci.id, ce.itemNm, ce.price, ci.count, ce.imgUrl) " +
+            "from CartItem ci " +
+            "join CatalogEntry ce on ce.itemId = ci.item.id " +
             "where ci.cart.id = :cartId " +
-            "and im.item.id = ci.item.id " +
-            "and im.repimgYn = 'Y' " +
             "order by ci.regTime desc"
             )
     List<CartDetailDto> findCartDetailDtoList(Long cartId);
@@ -0,0 +1,81 @@
+package com.example.ch7_8_test.repository;
+
+import com.example.ch7_8_test.entity.CatalogEntry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+// catalog_entry 일괄 갱신. 엔티티를 읽지 않고 JDBC batch 로 점수 증가분을 더하거나 새 행을 넣음.
+@Repository
+@RequiredArgsConstructor
+public class CatalogEntryJdbcRepository {
+
+    private static final String ADD_POPULARITY_SQL =
+            "update catalog_entry set popularity = popularity + ? where item_id = ?";
+
+    private static final String DIVIDE_POPULARITY_SQL =
+            "update catalog_entry set popularity = popularity / ?";
+
+    private static final String LOCK_LANDMARK_SQL =
+            "select landmark_millis from popularity_landmark where id = 1 for update";
+
+    private static final String INSERT_SQL =
+            "insert into catalog_entry (item_id, item_nm, price, summary, img_url, item_sell_status, reg_time, popularity) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // 없는 행만 넣는 용도. (이미 있는지는 호출하는 쪽에서 확인)
+    @Transactional
+    public void insertAll(List<CatalogEntry> catalogEntries){
+        List<Object[]> args = new ArrayList<>(catalogEntries.size());
+        for (CatalogEntry catalogEntry : catalogEntries) {
+            args.add(new Object[]{catalogEntry.getItemId(), catalogEntry.getItemNm(), catalogEntry.getPrice(),
+                    catalogEntry.getSummary(), catalogEntry.getImgUrl(),
+                    catalogEntry.getItemSellStatus() == null ? null : catalogEntry.getItemSellStatus().name(),
+                    catalogEntry.getRegTime() == null ? null : Timestamp.valueOf(catalogEntry.getRegTime()),
+                    catalogEntry.getPopularity()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+    }
+
+    @Transactional
+    public void addPopularity(long[] itemIds, double[] deltas, int size){
+        List<Object[]> args = new ArrayList<>(size);
+        for(int i=0;i<size;i++){
+            args.add(new Object[]{deltas[i], itemIds[i]});
+        }
+        jdbcTemplate.batchUpdate(ADD_POPULARITY_SQL, args);
+    }
+
+    // 인기도 기준 시각을 잠그고 읽음. 점수를 더하거나 나누는 동안 다른 서버가 기준 시각을 옮기지 못하게 같은 트랜잭션에서 호출.
+    // 행이 없으면 initialMillis 로 만듦. (동시에 만들면 한쪽은 중복 키로 실패하므로 다시 읽음)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long lockPopularityLandmark(long initialMillis){
+        List<Long> landmarks = jdbcTemplate.queryForList(LOCK_LANDMARK_SQL, Long.class);
+        if(!landmarks.isEmpty()){
+            return landmarks.get(0);
+        }
+        try {
+            jdbcTemplate.update("insert into popularity_landmark (id, landmark_millis) values (1, ?)", initialMillis);
+            return initialMillis;
+        } catch (DuplicateKeyException e) {
+            return jdbcTemplate.queryForObject(LOCK_LANDMARK_SQL, Long.class);
+        }
+    }
+
+    // 기준 시각을 옮기면서 모든 점수를 같은 비율로 나눔. 상대 순서는 그대로.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void rescalePopularity(long landmarkMillis, double divisor){
+        jdbcTemplate.update(DIVIDE_POPULARITY_SQL, divisor);
+        jdbcTemplate.update("update popularity_landmark set landmark_millis = ? where id = 1", landmarkMillis);
+    }
+
+}
@@ -0,0 +1,8 @@
+package com.example.ch7_8_test.repository;
+
+import com.example.ch7_8_test.entity.CatalogEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface CatalogEntryRepository extends JpaRepository<CatalogEntry, Long> {
+
+}
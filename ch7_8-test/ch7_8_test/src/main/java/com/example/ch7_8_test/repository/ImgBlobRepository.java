@@ -0,0 +1,16 @@
+package com.example.ch7_8_test.repository;
+
+import com.example.ch7_8_test.entity.ImgBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+
+import javax.persistence.LockModeType;
+import java.util.Optional;
+
+public interface ImgBlobRepository extends JpaRepository<ImgBlob, String> {
+
+    // 같은 파일을 동시에 올리거나 지울 때 참조 수가 어긋나지 않도록 행 잠금을 잡고 조회.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<ImgBlob> findWithLockByBlobName(String blobName);
+
+}
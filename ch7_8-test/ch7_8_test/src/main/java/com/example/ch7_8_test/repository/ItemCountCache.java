@@ -0,0 +1,65 @@
+package com.example.ch7_8_test.repository;
+
+import com.example.ch7_8_test.event.ItemChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+// 검색 조건별 전체 건수 캐시. 페이지 링크(maxPage=5) 를 그리는 데는 몇 초 지난 건수로도 충분함.
+@Component
+public class ItemCountCache {
+
+    private static final int MAX_ENTRIES = 10000;
+
+    private final Map<String, CachedCount> counts = new ConcurrentHashMap<>();
+
+    private final long ttlMillis;
+
+    public ItemCountCache(@Value("${itemCountCacheTtlSeconds:30}") long ttlSeconds){
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    public long get(String key, LongSupplier countQuery){
+        long now = System.currentTimeMillis();
+        CachedCount cached = counts.get(key);
+        if(cached != null && cached.expireAt > now){
+            return cached.count;
+        }
+
+        long count = countQuery.getAsLong();
+        if(counts.size() >= MAX_ENTRIES){
+            counts.values().removeIf(value -> value.expireAt <= now);
+            if(counts.size() >= MAX_ENTRIES){
+                counts.clear();
+            }
+        }
+        counts.put(key, new CachedCount(count, now + ttlMillis));
+        return count;
+    }
+
+    // 상품 등록/수정(판매 상태, 상품명 변경)은 여러 검색 조건의 건수를 바꾸므로 전체를 비움.
+    @Order(0) //ItemPageCache 참고
+    @TransactionalEventListener
+    public void onItemChanged(ItemChangedEvent event){
+        counts.clear();
+    }
+
+    private static class CachedCount {
+
+        private final long count;
+
+        private final long expireAt;
+
+        private CachedCount(long count, long expireAt){
+            this.count = count;
+            this.expireAt = expireAt;
+        }
+
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.example.ch7_8_test.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// 이미지 폴더 나누기(ImgShard) 로 파일 위치가 바뀐 만큼 조회 경로를 JDBC batch 로 일괄 변경.
+// 파일명(img_name, 인덱스) 으로 행을 찾고, 예전 경로인 행만 바꾸므로 여러 번 실행해도 결과가 같음.
+@Repository
+@RequiredArgsConstructor
+public class ItemImgJdbcRepository {
+
+    private static final String IMG_URL_SQL =
+            "update item_img set img_url = ? where img_name = ? and img_url = ?";
+
+    private static final String THUMB_IMG_URL_SQL =
+            "update item_img set thumb_img_url = ? where img_name = ? and thumb_img_url = ?";
+
+    // 목록용 읽기 테이블은 대표 이미지 경로(원본 또는 썸네일)를 복사해 두고 있음.
+    private static final String CATALOG_IMG_URL_SQL =
+            "update catalog_entry set img_url = ? where img_url = ? and item_id in " +
+                    "(select ii.item_id from item_img ii where ii.img_name = ? and ii.repimg_yn = 'Y')";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // urls : {img_name, 예전 원본 경로, 새 원본 경로, 예전 썸네일 경로, 새 썸네일 경로}
+    @Transactional
+    public void moveImgUrls(List<String[]> urls){
+        List<Object[]> imgArgs = new ArrayList<>(urls.size());
+        List<Object[]> thumbArgs = new ArrayList<>(urls.size());
+        List<Object[]> catalogArgs = new ArrayList<>(urls.size() * 2);
+        for (String[] url : urls) {
+            imgArgs.add(new Object[]{url[2], url[0], url[1]});
+            thumbArgs.add(new Object[]{url[4], url[0], url[3]});
+            catalogArgs.add(new Object[]{url[2], url[1], url[0]});
+            catalogArgs.add(new Object[]{url[4], url[3], url[0]});
+        }
+        jdbcTemplate.batchUpdate(IMG_URL_SQL, imgArgs);
+        jdbcTemplate.batchUpdate(THUMB_IMG_URL_SQL, thumbArgs);
+        jdbcTemplate.batchUpdate(CATALOG_IMG_URL_SQL, catalogArgs);
+    }
+
+}
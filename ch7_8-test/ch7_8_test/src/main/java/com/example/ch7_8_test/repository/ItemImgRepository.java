@@ -1,8 +1,12 @@
 package com.example.ch7_8_test.repository;
 
 import com.example.ch7_8_test.entity.ItemImg;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemImgRepository extends JpaRepository<ItemImg, Long> {
@@ -11,4 +15,16 @@ public interface ItemImgRepository extends JpaRepository<ItemImg, Long> {
 
     ItemImg findByItemIdAndRepimgYn(Long itemId, String repimgYn);
 
-}
\ No newline at end of file
+    List<ItemImg> findByItemIdInAndRepimgYn(List<Long> itemIds, String repimgYn);
+
+    // 썸네일이 없는 이미지를 아이디 순으로 나눠서 조회. (썸네일 기능 이전에 올라온 이미지 채우기용)
+    List<ItemImg> findByIdGreaterThanAndThumbImgUrlIsNullOrderByIdAsc(Long id, Pageable pageable);
+
+    // 업로드 폴더 정리용. 주어진 파일명 중 item_img 가 원본 또는 썸네일로 쓰고 있는 것.
+    @Query("select i.imgName from ItemImg i where i.imgName in :names")
+    List<String> findImgNamesIn(@Param("names") Collection<String> names);
+
+    @Query("select i.thumbImgUrl from ItemImg i where i.thumbImgUrl in :urls")
+    List<String> findThumbImgUrlsIn(@Param("urls") Collection<String> urls);
+
+}
@@ -1,6 +1,7 @@
 package com.example.ch7_8_test.repository;
 
 import com.example.ch7_8_test.entity.Item;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
@@ -27,4 +28,7 @@ public interface ItemRepository extends JpaRepository<Item, Long>,
             "%:itemDetail% order by i.price desc", nativeQuery = true)
     List<Item> findByItemDetailByNative(@Param("itemDetail") String itemDetail);
 
+    // 메모리 색인 생성용. 아이디 순으로 끊어서 읽음.
+    List<Item> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
 }
\ No newline at end of file
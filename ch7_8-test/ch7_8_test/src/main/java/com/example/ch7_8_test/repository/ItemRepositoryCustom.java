@@ -1,15 +1,28 @@
 package com.example.ch7_8_test.repository;
 
+import com.example.ch7_8_test.constant.CountMode;
+import com.example.ch7_8_test.dto.AdminItemDto;
 import com.example.ch7_8_test.dto.ItemSearchDto;
 import com.example.ch7_8_test.dto.MainItemDto;
-import com.example.ch7_8_test.entity.Item;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
 
 public interface ItemRepositoryCustom {
 
-    Page<Item> getAdminItemPage(ItemSearchDto itemSearchDto, Pageable pageable);
+    Page<AdminItemDto> getAdminItemPage(ItemSearchDto itemSearchDto, Pageable pageable, CountMode countMode);
+
+    Slice<MainItemDto> getMainItemPage(ItemSearchDto itemSearchDto, Pageable pageable, CountMode countMode);
+
+    // 커서(마지막으로 본 상품 아이디) 기준 조회. offset, count 쿼리 없이 다음 묶음만 가져옴.
+    Slice<MainItemDto> getMainItemSlice(ItemSearchDto itemSearchDto, Long afterId, int size);
+
+    // 검색 색인에서 찾은 아이디 순서 그대로 메인 상품 목록을 조회.
+    List<MainItemDto> getMainItemsByIds(List<Long> itemIds);
 
-    Page<MainItemDto> getMainItemPage(ItemSearchDto itemSearchDto, Pageable pageable);
+    // 비트맵 색인에서 구한 아이디 순서 그대로 관리자 상품 목록을 조회.
+    List<AdminItemDto> getAdminItemsByIds(List<Long> itemIds);
 
 }
\ No newline at end of file
@@ -1,53 +1,72 @@
 package com.example.ch7_8_test.repository;
 
+import com.example.ch7_8_test.constant.CountMode;
 import com.example.ch7_8_test.constant.ItemSellStatus;
+import com.example.ch7_8_test.constant.PriceBand;
+import com.example.ch7_8_test.dto.AdminItemDto;
 import com.example.ch7_8_test.dto.ItemSearchDto;
 import com.example.ch7_8_test.dto.MainItemDto;
+import com.example.ch7_8_test.dto.QAdminItemDto;
 import com.example.ch7_8_test.dto.QMainItemDto;
-import com.example.ch7_8_test.entity.Item;
+import com.example.ch7_8_test.entity.QCatalogEntry;
 import com.example.ch7_8_test.entity.QItem;
-import com.example.ch7_8_test.entity.QItemImg;
-import com.querydsl.core.QueryResults;
+import com.example.ch7_8_test.search.RegDayBuckets;
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.thymeleaf.util.StringUtils;
 
 import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 public class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
 
     private JPAQueryFactory queryFactory;
 
-    public ItemRepositoryCustomImpl(EntityManager em){
+    private ItemCountCache itemCountCache;
+
+    private Executor countQueryExecutor;
+
+    private MeterRegistry meterRegistry;
+
+    public ItemRepositoryCustomImpl(EntityManager em, ItemCountCache itemCountCache,
+                                    @Qualifier("countQueryExecutor") Executor countQueryExecutor,
+                                    MeterRegistry meterRegistry){
         this.queryFactory = new JPAQueryFactory(em);
+        this.itemCountCache = itemCountCache;
+        this.countQueryExecutor = countQueryExecutor;
+        this.meterRegistry = meterRegistry;
     }
 
     private BooleanExpression searchSellStatusEq(ItemSellStatus searchSellStatus){
         return searchSellStatus == null ? null : QItem.item.itemSellStatus.eq(searchSellStatus);
     }
 
+    // 등록일 조건은 날짜 경계(0시)에 맞춤. 같은 날에는 조건이 바뀌지 않아서 건수 캐시 키에 그대로 쓸 수 있음.
     private BooleanExpression regDtsAfter(String searchDateType){
-
-        LocalDateTime dateTime = LocalDateTime.now();
-
-        if(StringUtils.equals("all", searchDateType) || searchDateType == null){
-            return null;
-        } else if(StringUtils.equals("1d", searchDateType)){
-            dateTime = dateTime.minusDays(1);
-        } else if(StringUtils.equals("1w", searchDateType)){
-            dateTime = dateTime.minusWeeks(1);
-        } else if(StringUtils.equals("1m", searchDateType)){
-            dateTime = dateTime.minusMonths(1);
-        } else if(StringUtils.equals("6m", searchDateType)){
-            dateTime = dateTime.minusMonths(6);
-        }
-
-        return QItem.item.regTime.after(dateTime);
+        LocalDateTime cutoffTime = RegDayBuckets.cutoffTime(searchDateType);
+        return cutoffTime == null ? null : QItem.item.regTime.goe(cutoffTime);
     }
 
     private BooleanExpression searchByLike(String searchBy, String searchQuery){
@@ -61,56 +80,271 @@ public class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
         return null;
     }
 
+    // 관리 화면은 전체 페이지 수를 보여주므로 건수를 구하지 않는 HAS_NEXT 는 받지 않음.
     @Override
-    public Page<Item> getAdminItemPage(ItemSearchDto itemSearchDto, Pageable pageable) {
-
-        QueryResults<Item> results = queryFactory
-                .selectFrom(QItem.item)
-                .where(regDtsAfter(itemSearchDto.getSearchDateType()),
-                        searchSellStatusEq(itemSearchDto.getSearchSellStatus()),
-                        searchByLike(itemSearchDto.getSearchBy(),
-                                itemSearchDto.getSearchQuery()))
+    public Page<AdminItemDto> getAdminItemPage(ItemSearchDto itemSearchDto, Pageable pageable, CountMode countMode) {
+        if(countMode == CountMode.HAS_NEXT){
+            throw new IllegalArgumentException("관리자 상품 목록은 HAS_NEXT 로 조회할 수 없습니다.");
+        }
+        BooleanExpression[] conditions = {
+                regDtsAfter(itemSearchDto.getSearchDateType()),
+                searchSellStatusEq(itemSearchDto.getSearchSellStatus()),
+                searchByLike(itemSearchDto.getSearchBy(), itemSearchDto.getSearchQuery())};
+
+        String countKey = "admin|" + RegDayBuckets.cutoffDay(itemSearchDto.getSearchDateType()) + "|" + itemSearchDto.getSearchSellStatus()
+                + "|" + itemSearchDto.getSearchBy() + "|" + itemSearchDto.getSearchQuery();
+
+        return toPage("admin", pageable, countMode, countKey, () -> queryFactory
+                .select(adminItemDto())
+                .from(QItem.item)
+                .where(conditions)
                 .orderBy(QItem.item.id.desc())
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
-                .fetchResults();
-
-        List<Item> content = results.getResults();
-        long total = results.getTotal();
+                .fetch(), () -> queryFactory
+                .select(QItem.item.count())
+                .from(QItem.item)
+                .where(conditions)
+                .fetchOne());
+    }
 
-        return new PageImpl<>(content, pageable, total);
+    private static QAdminItemDto adminItemDto(){
+        QItem item = QItem.item;
+        return new QAdminItemDto(item.id, item.itemNm, item.itemSellStatus, item.createdBy, item.regTime);
     }
 
     private BooleanExpression itemNmLike(String searchQuery){
-        return StringUtils.isEmpty(searchQuery) ? null : QItem.item.itemNm.like("%" + searchQuery + "%");
+        return StringUtils.isEmpty(searchQuery) ? null : QCatalogEntry.catalogEntry.itemNm.like("%" + searchQuery + "%");
+    }
+
+    // 메인 목록 필터. 보통은 메모리 색인(ItemFacetIndex)이 먼저 처리하고, 인기순이나 색인이 준비되지 않았을 때만 디비에서 거름.
+    private BooleanExpression[] mainConditions(ItemSearchDto itemSearchDto){
+        QCatalogEntry catalogEntry = QCatalogEntry.catalogEntry;
+        PriceBand priceBand = itemSearchDto.getSearchPriceBand();
+        LocalDateTime cutoffTime = RegDayBuckets.cutoffTime(itemSearchDto.getSearchDateType());
+        return new BooleanExpression[]{
+                itemNmLike(itemSearchDto.getSearchQuery()),
+                itemSearchDto.getSearchSellStatus() == null ? null
+                        : catalogEntry.itemSellStatus.eq(itemSearchDto.getSearchSellStatus()),
+                priceBand == null ? null
+                        : catalogEntry.price.goe(priceBand.getMinPrice()).and(catalogEntry.price.lt(priceBand.getMaxPrice())),
+                cutoffTime == null ? null : catalogEntry.regTime.goe(cutoffTime)};
     }
 
+    // 인기순은 (popularity, item_id) 색인 순서 그대로 읽음. 점수가 같으면 최신 상품 먼저.
+    private OrderSpecifier<?>[] mainOrder(ItemSearchDto itemSearchDto){
+        QCatalogEntry catalogEntry = QCatalogEntry.catalogEntry;
+        if(ItemSearchDto.SORT_POPULAR.equals(itemSearchDto.getSort())){
+            return new OrderSpecifier<?>[]{catalogEntry.popularity.desc(), catalogEntry.itemId.desc()};
+        }
+        return new OrderSpecifier<?>[]{catalogEntry.itemId.desc()};
+    }
+
+    // HAS_NEXT 면 전체 건수 없이 다음 페이지 존재 여부만 담은 Slice, 나머지는 Page.
     @Override
-    public Page<MainItemDto> getMainItemPage(ItemSearchDto itemSearchDto, Pageable pageable) {
-        QItem item = QItem.item;
-        QItemImg itemImg = QItemImg.itemImg;
+    public Slice<MainItemDto> getMainItemPage(ItemSearchDto itemSearchDto, Pageable pageable, CountMode countMode) {
+        QCatalogEntry catalogEntry = QCatalogEntry.catalogEntry;
+        BooleanExpression[] conditions = mainConditions(itemSearchDto);
 
-        QueryResults<MainItemDto> results = queryFactory
+        String countKey = "main|" + RegDayBuckets.cutoffDay(itemSearchDto.getSearchDateType()) + "|" + itemSearchDto.getSearchSellStatus()
+                + "|" + itemSearchDto.getSearchPriceBand() + "|" + itemSearchDto.getSearchQuery();
+
+        Supplier<List<MainItemDto>> contentQuery = () -> queryFactory
                 .select(
                         new QMainItemDto(
-                                item.id,
-                                item.itemNm,
-                                item.itemDetail,
-                                itemImg.imgUrl,
-                                item.price)
+                                catalogEntry.itemId,
+                                catalogEntry.itemNm,
+                                catalogEntry.summary,
+                                catalogEntry.imgUrl,
+                                catalogEntry.price)
                 )
-                .from(itemImg)
-                .join(itemImg.item, item)
-                .where(itemImg.repimgYn.eq("Y"))
-                .where(itemNmLike(itemSearchDto.getSearchQuery()))
-                .orderBy(item.id.desc())
+                .from(catalogEntry)
+                .where(conditions)
+                .orderBy(mainOrder(itemSearchDto))
                 .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetchResults();
+                // HAS_NEXT 는 다음 페이지 존재 여부를 알기 위해 한 건 더 조회.
+                .limit(countMode == CountMode.HAS_NEXT ? pageable.getPageSize() + 1 : pageable.getPageSize())
+                .fetch();
+
+        if(countMode == CountMode.HAS_NEXT){
+            return toSlice("main", pageable, contentQuery);
+        }
+        return toPage("main", pageable, countMode, countKey, contentQuery, () -> queryFactory
+                .select(catalogEntry.count())
+                .from(catalogEntry)
+                .where(conditions)
+                .fetchOne());
+    }
+
+    // 한 건 더 조회한 결과로 다음 페이지 존재 여부만 판단. 전체 건수를 모르므로 Page 가 아닌 Slice 로 돌려줌.
+    private <T> Slice<T> toSlice(String queryName, Pageable pageable, Supplier<List<T>> contentQuery){
+        Timer.Sample total = Timer.start(meterRegistry);
+        try {
+            List<T> content = timer(queryName, "content").record(contentQuery);
+            boolean hasNext = content.size() > pageable.getPageSize();
+            return new SliceImpl<>(new ArrayList<>(hasNext ? content.subList(0, pageable.getPageSize()) : content),
+                    pageable, hasNext);
+        } finally {
+            total.stop(timer(queryName, "total"));
+        }
+    }
+
+    private <T> Page<T> toPage(String queryName, Pageable pageable, CountMode countMode, String countKey,
+                               Supplier<List<T>> contentQuery, LongSupplier countQuery){
+        Timer.Sample total = Timer.start(meterRegistry);
+        try {
+            if(countMode == CountMode.PARALLEL){
+                return toPageParallel(queryName, pageable, contentQuery, countQuery);
+            }
+
+            List<T> content = timer(queryName, "content").record(contentQuery);
+
+            // 첫 페이지가 덜 찼거나 마지막 페이지면 PageableExecutionUtils 가 count 없이 건수를 계산함.
+            LongSupplier timedCount = () -> timer(queryName, "count").record(() -> countQuery.getAsLong());
+            return PageableExecutionUtils.getPage(content, pageable, countMode == CountMode.CACHED
+                    ? () -> itemCountCache.get(countKey, timedCount)
+                    : timedCount);
+        } finally {
+            total.stop(timer(queryName, "total"));
+        }
+    }
+
+    // count 쿼리를 먼저 다른 스레드에 넘기고 목록 쿼리를 실행.
+    // 목록만으로 건수가 정해지면(첫 페이지가 덜 찼거나 마지막 페이지) 또는 목록 쿼리가 실패하면 countSkipped 를 세우고,
+    // count 스레드는 커넥션을 빌리기 직전에 이 값을 봐서 아직 시작 전이면 count 를 건너뜀.
+    // 이미 시작한 count 는 중간에 멈출 수 없어서 끝까지 돌고 결과만 버려짐.
+    // count 스레드에는 트랜잭션이 없으므로 공유 EntityManager 가 쿼리마다 새 EntityManager(커넥션)를 열고 닫음.
+    // 목록과 count 가 같은 스냅샷이 아니므로 건수는 근사치. (CountMode.PARALLEL 참고)
+    private <T> Page<T> toPageParallel(String queryName, Pageable pageable,
+                                       Supplier<List<T>> contentQuery, LongSupplier countQuery){
+        AtomicBoolean countSkipped = new AtomicBoolean();
+        CompletableFuture<Long> countFuture = CompletableFuture.supplyAsync(() -> {
+            if(countSkipped.get()){
+                return null;
+            }
+            return timer(queryName, "count").record(() -> countQuery.getAsLong());
+        }, countQueryExecutor);
+
+        List<T> content;
+        try {
+            content = timer(queryName, "content").record(contentQuery);
+        } catch (RuntimeException e) {
+            countSkipped.set(true);
+            throw e;
+        }
+        if(totalFromContent(pageable, content)){
+            countSkipped.set(true);
+        }
 
-        List<MainItemDto> content = results.getResults();
-        long total = results.getTotal();
-        return new PageImpl<>(content, pageable, total);
+        return PageableExecutionUtils.getPage(content, pageable, () -> {
+            try {
+                return countFuture.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        });
+    }
+
+    // PageableExecutionUtils 가 count 없이 건수를 계산하는 경우와 같은 조건.
+    static boolean totalFromContent(Pageable pageable, List<?> content){
+        if(pageable.isUnpaged() || pageable.getOffset() == 0){
+            return pageable.isUnpaged() || pageable.getPageSize() > content.size();
+        }
+        return !content.isEmpty() && pageable.getPageSize() > content.size();
+    }
+
+    private Timer timer(String queryName, String part){
+        return Timer.builder("item.page.query")
+                .description("상품 목록 페이지 조회 구간별 소요 시간")
+                .tag("query", queryName)
+                .tag("part", part)
+                .register(meterRegistry);
+    }
+
+    private BooleanExpression itemIdLt(Long afterId){
+        return afterId == null ? null : QCatalogEntry.catalogEntry.itemId.lt(afterId);
+    }
+
+    @Override
+    public Slice<MainItemDto> getMainItemSlice(ItemSearchDto itemSearchDto, Long afterId, int size) {
+        QCatalogEntry catalogEntry = QCatalogEntry.catalogEntry;
+
+        // 기본키 내림차순 인덱스를 그대로 타도록 id < 커서 조건으로 건너뜀.
+        // 다음 묶음 존재 여부는 한 건 더 조회해서 판단하므로 count 쿼리가 필요 없음.
+        List<MainItemDto> results = queryFactory
+                .select(
+                        new QMainItemDto(
+                                catalogEntry.itemId,
+                                catalogEntry.itemNm,
+                                catalogEntry.summary,
+                                catalogEntry.imgUrl,
+                                catalogEntry.price)
+                )
+                .from(catalogEntry)
+                .where(itemNmLike(itemSearchDto.getSearchQuery()))
+                .where(itemIdLt(afterId))
+                .orderBy(catalogEntry.itemId.desc())
+                .limit(size + 1)
+                .fetch();
+
+        boolean hasNext = results.size() > size;
+        List<MainItemDto> content = new ArrayList<>(hasNext ? results.subList(0, size) : results);
+        return new SliceImpl<>(content, PageRequest.of(0, size), hasNext);
+    }
+
+    @Override
+    public List<MainItemDto> getMainItemsByIds(List<Long> itemIds) {
+        if(itemIds.isEmpty()){
+            return Collections.emptyList();
+        }
+
+        QCatalogEntry catalogEntry = QCatalogEntry.catalogEntry;
+
+        List<MainItemDto> results = queryFactory
+                .select(
+                        new QMainItemDto(
+                                catalogEntry.itemId,
+                                catalogEntry.itemNm,
+                                catalogEntry.summary,
+                                catalogEntry.imgUrl,
+                                catalogEntry.price)
+                )
+                .from(catalogEntry)
+                .where(catalogEntry.itemId.in(itemIds))
+                .fetch();
+
+        return inOrder(itemIds, results, MainItemDto::getId);
+    }
+
+    @Override
+    public List<AdminItemDto> getAdminItemsByIds(List<Long> itemIds) {
+        if(itemIds.isEmpty()){
+            return Collections.emptyList();
+        }
+
+        List<AdminItemDto> results = queryFactory
+                .select(adminItemDto())
+                .from(QItem.item)
+                .where(QItem.item.id.in(itemIds))
+                .fetch();
+
+        return inOrder(itemIds, results, AdminItemDto::getId);
+    }
+
+    // in 조회는 순서를 보장하지 않으므로 전달받은 아이디 순서로 다시 정렬. 디비에 없는 아이디는 빠짐.
+    private static <T> List<T> inOrder(List<Long> itemIds, List<T> results, Function<T, Long> idOf){
+        Map<Long, T> resultMap = new HashMap<>();
+        for (T result : results) {
+            resultMap.put(idOf.apply(result), result);
+        }
+        List<T> content = new ArrayList<>();
+        for (Long itemId : itemIds) {
+            T result = resultMap.get(itemId);
+            if(result != null){
+                content.add(result);
+            }
+        }
+        return content;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package com.example.ch7_8_test.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+// item_stats 일괄 갱신. 상품마다 엔티티를 읽어 더티 체킹하는 대신 JDBC batch 로 "view_count + 증가분" 만 보냄.
+@Repository
+@RequiredArgsConstructor
+public class ItemStatsJdbcRepository {
+
+    private static final String UPDATE_SQL =
+            "update item_stats set view_count = view_count + ? where item_id = ?";
+
+    private static final String INSERT_SQL =
+            "insert into item_stats (item_id, view_count) values (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // 있는 행은 update 로 더하고, 없는 상품만 모아서 insert. (MySQL, H2 공통 문법)
+    @Transactional
+    public void addViewCounts(long[] itemIds, long[] deltas, int size){
+        List<Object[]> updateArgs = new ArrayList<>(size);
+        for(int i=0;i<size;i++){
+            updateArgs.add(new Object[]{deltas[i], itemIds[i]});
+        }
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, updateArgs);
+
+        List<Object[]> insertArgs = new ArrayList<>();
+        for(int i=0;i<size;i++){
+            if(updated[i] == 0){
+                insertArgs.add(new Object[]{itemIds[i], deltas[i]});
+            } else if(updated[i] != Statement.SUCCESS_NO_INFO && updated[i] < 0){
+                throw new IllegalStateException("item_stats 갱신 실패 : " + itemIds[i]);
+            }
+        }
+        if(!insertArgs.isEmpty()){
+            jdbcTemplate.batchUpdate(INSERT_SQL, insertArgs);
+        }
+    }
+
+}
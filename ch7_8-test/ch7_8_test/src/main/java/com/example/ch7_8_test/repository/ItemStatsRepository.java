@@ -0,0 +1,8 @@
+package com.example.ch7_8_test.repository;
+
+import com.example.ch7_8_test.entity.ItemStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ItemStatsRepository extends JpaRepository<ItemStats, Long> {
+
+}
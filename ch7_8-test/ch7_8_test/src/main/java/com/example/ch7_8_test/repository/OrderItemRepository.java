@@ -1,8 +1,38 @@
 package com.example.ch7_8_test.repository;
 
+import com.example.ch7_8_test.dto.ItemSalesDto;
+import com.example.ch7_8_test.dto.OrderItemIdDto;
 import com.example.ch7_8_test.entity.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
-}
\ No newline at end of file
+    // 취소되지 않은 주문 기준 상품별 누적 판매 수량.
+    @Query("select new com.example.ch7_8_test.dto.ItemSalesDto(oi.item.id, sum(oi.count)) " +
+            "from OrderItem oi " +
+            "where oi.order.orderStatus = com.example.ch7_8_test.constant.OrderStatus.ORDER " +
+            "group by oi.item.id")
+    List<ItemSalesDto> findItemSalesList();
+
+    // 동시 구매 행렬 재생성용. 취소되지 않은 주문 아이디를 오름차순으로 끊어서 읽음.
+    @Query("select o.id from Order o " +
+            "where o.id > :lastOrderId " +
+            "and o.orderStatus = com.example.ch7_8_test.constant.OrderStatus.ORDER " +
+            "order by o.id asc")
+    List<Long> findOrderIdsAfter(@Param("lastOrderId") Long lastOrderId, Pageable pageable);
+
+    // 주문 아이디 구간(from < id <= to) 의 주문별 상품 아이디. 주문 단위로 묶을 수 있게 주문 아이디 순.
+    @Query("select new com.example.ch7_8_test.dto.OrderItemIdDto(oi.order.id, oi.item.id) " +
+            "from OrderItem oi " +
+            "where oi.order.id > :fromOrderId and oi.order.id <= :toOrderId " +
+            "and oi.order.orderStatus = com.example.ch7_8_test.constant.OrderStatus.ORDER " +
+            "order by oi.order.id asc")
+    List<OrderItemIdDto> findOrderItemIds(@Param("fromOrderId") Long fromOrderId,
+                                          @Param("toOrderId") Long toOrderId);
+
+}
@@ -0,0 +1,160 @@
+package com.example.ch7_8_test.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// 상품 x 상품 동시 구매 횟수 희소 행렬. 행마다 (상대 상품 아이디 -> 횟수) 를 기본형 배열의 개방 주소 해시로 들고 있고,
+// 횟수 상위 K개는 따로 정렬된 배열로 유지해서 조회는 배열 복사 한 번으로 끝남.
+// 횟수는 증가만 하므로 값이 바뀐 상품을 상위 목록에 다시 제안하는 것만으로 상위 K개가 정확하게 유지됨.
+// 스레드 안전하지 않으므로 사용하는 쪽에서 잠금을 잡아야 함.
+public class CoPurchaseMatrix {
+
+    // 한 주문의 상품이 너무 많으면 쌍의 수가 제곱으로 늘어나므로 앞에서부터 이 개수만 반영.
+    public static final int MAX_ITEMS_PER_ORDER = 50;
+
+    private static final long[] NO_IDS = new long[0];
+
+    private static final int[] NO_COUNTS = new int[0];
+
+    private final int topSize;
+
+    private final Map<Long, Row> rows = new HashMap<>();
+
+    public CoPurchaseMatrix(int topSize){
+        this.topSize = topSize;
+    }
+
+    // 한 주문에 같이 담긴 상품들. 중복 아이디는 한 번만 셈.
+    public void addOrder(long[] itemIds){
+        long[] distinct = Arrays.stream(itemIds).distinct().limit(MAX_ITEMS_PER_ORDER).toArray();
+        if(distinct.length < 2){
+            return;
+        }
+        for(int i=0;i<distinct.length;i++){
+            Row row = rows.computeIfAbsent(distinct[i], id -> new Row());
+            for(int j=0;j<distinct.length;j++){
+                if(i != j){
+                    row.increment(distinct[j], topSize);
+                }
+            }
+        }
+    }
+
+    public long[] neighbours(long itemId, int size){
+        Row row = rows.get(itemId);
+        if(row == null){
+            return NO_IDS;
+        }
+        return Arrays.copyOf(row.topIds, Math.min(size, row.topIds.length));
+    }
+
+    public int count(long itemId, long otherItemId){
+        Row row = rows.get(itemId);
+        return row == null ? 0 : row.count(otherItemId);
+    }
+
+    public int size(){
+        return rows.size();
+    }
+
+    private static class Row {
+
+        private static final long EMPTY = 0L; // 상품 아이디는 1부터 시작하므로 0 을 빈 칸으로 씀.
+
+        private long[] keys = new long[8];
+
+        private int[] counts = new int[8];
+
+        private int size;
+
+        private long[] topIds = NO_IDS;
+
+        private int[] topCounts = NO_COUNTS;
+
+        private int count(long key){
+            int slot = slotOf(keys, key);
+            return keys[slot] == key ? counts[slot] : 0;
+        }
+
+        private void increment(long key, int topSize){
+            int slot = slotOf(keys, key);
+            if(keys[slot] == EMPTY){
+                // 75% 가 차면 두 배로 늘림.
+                if((size + 1) * 4 > keys.length * 3){
+                    grow();
+                    slot = slotOf(keys, key);
+                }
+                keys[slot] = key;
+                size++;
+            }
+            offer(key, ++counts[slot], topSize);
+        }
+
+        private void grow(){
+            long[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = new long[oldKeys.length * 2];
+            counts = new int[oldKeys.length * 2];
+            for(int i=0;i<oldKeys.length;i++){
+                if(oldKeys[i] != EMPTY){
+                    int slot = slotOf(keys, oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+
+        private void offer(long key, int count, int topSize){
+            int pos = -1;
+            for(int i=0;i<topIds.length;i++){
+                if(topIds[i] == key){
+                    pos = i;
+                    break;
+                }
+            }
+            if(pos < 0){
+                if(topIds.length < topSize){
+                    topIds = Arrays.copyOf(topIds, topIds.length + 1);
+                    topCounts = Arrays.copyOf(topCounts, topCounts.length + 1);
+                    pos = topIds.length - 1;
+                } else if(topIds.length > 0 && compare(key, count, topIds[topIds.length - 1], topCounts[topCounts.length - 1]) < 0){
+                    pos = topIds.length - 1;
+                } else {
+                    return;
+                }
+                topIds[pos] = key;
+            }
+            topCounts[pos] = count;
+
+            // 바뀐 자리에서 앞쪽으로 삽입 정렬.
+            while(pos > 0 && compare(topIds[pos], topCounts[pos], topIds[pos - 1], topCounts[pos - 1]) < 0){
+                long tmpId = topIds[pos - 1];
+                int tmpCount = topCounts[pos - 1];
+                topIds[pos - 1] = topIds[pos];
+                topCounts[pos - 1] = topCounts[pos];
+                topIds[pos] = tmpId;
+                topCounts[pos] = tmpCount;
+                pos--;
+            }
+        }
+
+        // 횟수 내림차순, 같으면 최신 상품 먼저.
+        private static int compare(long idA, int countA, long idB, int countB){
+            int result = Integer.compare(countB, countA);
+            return result != 0 ? result : Long.compare(idB, idA);
+        }
+
+        // 선형 탐사. key 가 있는 칸 또는 처음 만나는 빈 칸.
+        private static int slotOf(long[] keys, long key){
+            int mask = keys.length - 1;
+            int slot = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+            while(keys[slot] != EMPTY && keys[slot] != key){
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.example.ch7_8_test.search;
+
+import java.util.Locale;
+
+// 한글 음절을 자모 단위로 풀어씀. "셔츠" -> "ㅅㅕㅊㅡ"
+// 입력 중인 "셔ㅊ", "셯" 같은 미완성 음절도 접두어 비교가 되도록 겹받침, 겹모음까지 모두 분리함.
+public final class HangulJamo {
+
+    private static final char SYLLABLE_BASE = 0xAC00;
+
+    private static final char SYLLABLE_LAST = 0xD7A3;
+
+    private static final String[] CHOSEONG = {
+            "ㄱ", "ㄱㄱ", "ㄴ", "ㄷ", "ㄷㄷ", "ㄹ", "ㅁ", "ㅂ", "ㅂㅂ", "ㅅ", "ㅅㅅ",
+            "ㅇ", "ㅈ", "ㅈㅈ", "ㅊ", "ㅋ", "ㅌ", "ㅍ", "ㅎ"};
+
+    private static final String[] JUNGSEONG = {
+            "ㅏ", "ㅐ", "ㅑ", "ㅒ", "ㅓ", "ㅔ", "ㅕ", "ㅖ", "ㅗ", "ㅗㅏ", "ㅗㅐ",
+            "ㅗㅣ", "ㅛ", "ㅜ", "ㅜㅓ", "ㅜㅔ", "ㅜㅣ", "ㅠ", "ㅡ", "ㅡㅣ", "ㅣ"};
+
+    private static final String[] JONGSEONG = {
+            "", "ㄱ", "ㄱㄱ", "ㄱㅅ", "ㄴ", "ㄴㅈ", "ㄴㅎ", "ㄷ", "ㄹ", "ㄹㄱ", "ㄹㅁ",
+            "ㄹㅂ", "ㄹㅅ", "ㄹㅌ", "ㄹㅍ", "ㄹㅎ", "ㅁ", "ㅂ", "ㅂㅅ", "ㅅ", "ㅅㅅ",
+            "ㅇ", "ㅈ", "ㅊ", "ㅋ", "ㅌ", "ㅍ", "ㅎ"};
+
+    // 단독으로 입력된 겹자모(ㄲ, ㅘ, ㄳ ...)도 같은 규칙으로 분리하기 위한 표. (호환 자모 0x3131 ~ 0x3163)
+    private static final String[] COMPAT_JAMO = {
+            "ㄱ", "ㄱㄱ", "ㄱㅅ", "ㄴ", "ㄴㅈ", "ㄴㅎ", "ㄷ", "ㄷㄷ", "ㄹ", "ㄹㄱ", "ㄹㅁ",
+            "ㄹㅂ", "ㄹㅅ", "ㄹㅌ", "ㄹㅍ", "ㄹㅎ", "ㅁ", "ㅂ", "ㅂㅂ", "ㅂㅅ", "ㅅ",
+            "ㅅㅅ", "ㅇ", "ㅈ", "ㅈㅈ", "ㅊ", "ㅋ", "ㅌ", "ㅍ", "ㅎ",
+            "ㅏ", "ㅐ", "ㅑ", "ㅒ", "ㅓ", "ㅔ", "ㅕ", "ㅖ", "ㅗ", "ㅗㅏ", "ㅗㅐ",
+            "ㅗㅣ", "ㅛ", "ㅜ", "ㅜㅓ", "ㅜㅔ", "ㅜㅣ", "ㅠ", "ㅡ", "ㅡㅣ", "ㅣ"};
+
+    private HangulJamo(){
+    }
+
+    public static String decompose(String text){
+        if(text == null){
+            return "";
+        }
+
+        String normalized = text.toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(normalized.length() * 3);
+
+        for(int i=0;i<normalized.length();i++){
+            char c = normalized.charAt(i);
+            if(c >= SYLLABLE_BASE && c <= SYLLABLE_LAST){
+                int offset = c - SYLLABLE_BASE;
+                sb.append(CHOSEONG[offset / (21 * 28)]);
+                sb.append(JUNGSEONG[(offset % (21 * 28)) / 28]);
+                sb.append(JONGSEONG[offset % 28]);
+            } else if(c >= 0x3131 && c <= 0x3163){
+                sb.append(COMPAT_JAMO[c - 0x3131]);
+            } else {
+                sb.append(c);
+            }
+        }
+
+        return sb.toString();
+    }
+
+}
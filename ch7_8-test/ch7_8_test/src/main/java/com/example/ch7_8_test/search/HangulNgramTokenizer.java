@@ -0,0 +1,90 @@
+package com.example.ch7_8_test.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// 한글은 형태소 분석 없이 음절 bigram 으로 자르면 조사/어미가 붙어도 부분 일치가 됨.
+// 영문, 숫자도 같은 규칙으로 잘라서 like '%q%' 와 비슷한 부분 문자열 검색이 되도록 함.
+public final class HangulNgramTokenizer {
+
+    private HangulNgramTokenizer(){
+    }
+
+    // withUnigrams : 한 글자 검색어도 찾을 수 있도록 unigram 도 같이 만듦. (상품명처럼 짧은 필드에만 사용)
+    public static List<String> tokenize(String text, boolean withUnigrams){
+        List<String> tokens = new ArrayList<>();
+        if(text == null || text.isEmpty()){
+            return tokens;
+        }
+
+        String normalized = text.toLowerCase(Locale.ROOT);
+        int length = normalized.length();
+        int start = -1;
+
+        for(int i=0;i<=length;i++){
+            boolean tokenChar = i < length && isTokenChar(normalized.charAt(i));
+            if(tokenChar && start < 0){
+                start = i;
+            } else if(!tokenChar && start >= 0){
+                addNgrams(normalized, start, i, withUnigrams, tokens);
+                start = -1;
+            }
+        }
+
+        return tokens;
+    }
+
+    // 검색어는 한 글자일 때만 unigram, 그 외에는 bigram 으로 자름.
+    public static List<String> tokenizeQuery(String query){
+        List<String> tokens = tokenize(query, false);
+        if(tokens.isEmpty()){
+            tokens = tokenize(query, true);
+        }
+        return tokens;
+    }
+
+    // 글자/숫자가 이어진 단어 단위로 자름. (오타 교정 사전용)
+    public static List<String> words(String text){
+        List<String> words = new ArrayList<>();
+        if(text == null || text.isEmpty()){
+            return words;
+        }
+
+        String normalized = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for(int i=0;i<=normalized.length();i++){
+            boolean tokenChar = i < normalized.length() && isTokenChar(normalized.charAt(i));
+            if(tokenChar && start < 0){
+                start = i;
+            } else if(!tokenChar && start >= 0){
+                words.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static void addNgrams(String text, int start, int end, boolean withUnigrams, List<String> tokens){
+        if(end - start == 1){
+            if(withUnigrams){
+                tokens.add(text.substring(start, end));
+            }
+            return;
+        }
+
+        for(int i=start;i<end;i++){
+            if(withUnigrams){
+                tokens.add(text.substring(i, i + 1));
+            }
+            if(i + 1 < end){
+                tokens.add(text.substring(i, i + 2));
+            }
+        }
+    }
+
+    private static boolean isTokenChar(char c){
+        return Character.isLetterOrDigit(c);
+    }
+
+}
@@ -0,0 +1,240 @@
+package com.example.ch7_8_test.search;
+
+import com.example.ch7_8_test.constant.ItemSellStatus;
+import com.example.ch7_8_test.constant.PriceBand;
+import com.example.ch7_8_test.dto.ItemFacetDto;
+import com.example.ch7_8_test.dto.ItemSearchDto;
+import com.example.ch7_8_test.entity.Item;
+import com.example.ch7_8_test.event.ItemChangedEvent;
+import com.example.ch7_8_test.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// 판매상태, 가격대, 등록일(일 단위, RegDayBuckets) 별 상품 아이디 비트맵.
+// 필터 조합은 비트맵 AND 로, 필터별 건수는 교집합 크기로 바로 계산하므로 여러 조건 스캔 쿼리가 필요 없음.
+@Component
+@RequiredArgsConstructor
+@Log
+public class ItemFacetIndex {
+
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final RoaringBitmap allItems = new RoaringBitmap();
+
+    private final Map<ItemSellStatus, RoaringBitmap> bySellStatus = new EnumMap<>(ItemSellStatus.class);
+
+    private final Map<PriceBand, RoaringBitmap> byPriceBand = new EnumMap<>(PriceBand.class);
+
+    private final RegDayBuckets regDayBuckets = new RegDayBuckets();
+
+    private final Map<Integer, FacetKey> facetKeys = new HashMap<>(); //수정 시 이전 위치를 지우기 위한 값
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild(){
+        Long lastId = 0L;
+
+        while(true){
+            List<Item> items = itemRepository.findByIdGreaterThanOrderByIdAsc(lastId,
+                    PageRequest.of(0, REBUILD_CHUNK_SIZE));
+            for (Item item : items) {
+                put(item.getId(), item.getItemSellStatus(), item.getPrice(), item.getRegTime());
+            }
+            if(items.size() < REBUILD_CHUNK_SIZE){
+                break;
+            }
+            lastId = items.get(items.size() - 1).getId();
+        }
+
+        ready = true;
+        log.info("상품 필터 비트맵 생성 완료 : " + allItems.getCardinality() + "건");
+    }
+
+    @TransactionalEventListener
+    public void onItemChanged(ItemChangedEvent event){
+        put(event.getItemId(), event.getItemSellStatus(), event.getPrice(), event.getRegTime());
+    }
+
+    public boolean isReady(){
+        return ready;
+    }
+
+    public static boolean hasFilter(ItemSearchDto itemSearchDto){
+        return itemSearchDto.getSearchSellStatus() != null
+                || itemSearchDto.getSearchPriceBand() != null
+                || RegDayBuckets.cutoffDay(itemSearchDto.getSearchDateType()) != null;
+    }
+
+    public void put(Long itemId, ItemSellStatus itemSellStatus, int price, LocalDateTime regTime){
+        int id = Math.toIntExact(itemId);
+        FacetKey facetKey = new FacetKey(itemSellStatus, PriceBand.of(price),
+                regTime == null ? null : regTime.toLocalDate().toEpochDay());
+
+        lock.writeLock().lock();
+        try {
+            FacetKey oldKey = facetKeys.put(id, facetKey);
+            if(oldKey != null){
+                removeFrom(bySellStatus, oldKey.itemSellStatus, id);
+                removeFrom(byPriceBand, oldKey.priceBand, id);
+                if(oldKey.regDay != null){
+                    regDayBuckets.remove(oldKey.regDay, id);
+                }
+            }
+
+            allItems.add(id);
+            if(facetKey.itemSellStatus != null){
+                bySellStatus.computeIfAbsent(facetKey.itemSellStatus, key -> new RoaringBitmap()).add(id);
+            }
+            byPriceBand.computeIfAbsent(facetKey.priceBand, key -> new RoaringBitmap()).add(id);
+            if(facetKey.regDay != null){
+                regDayBuckets.add(facetKey.regDay, id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 검색 조건의 판매상태, 가격대, 등록일 필터를 모두 만족하는 상품 아이디.
+    public RoaringBitmap filter(ItemSearchDto itemSearchDto){
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = allItems.clone();
+            if(itemSearchDto.getSearchSellStatus() != null){
+                result.and(bitmapOf(bySellStatus, itemSearchDto.getSearchSellStatus()));
+            }
+            if(itemSearchDto.getSearchPriceBand() != null){
+                result.and(bitmapOf(byPriceBand, itemSearchDto.getSearchPriceBand()));
+            }
+            Long cutoffDay = RegDayBuckets.cutoffDay(itemSearchDto.getSearchDateType());
+            if(cutoffDay != null){
+                result.and(regDayBuckets.registeredSince(cutoffDay));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // base : 검색어 일치 상품 등 추가로 좁힐 대상. null 이면 전체 상품 기준.
+    public ItemFacetDto facetCounts(ItemSearchDto itemSearchDto, RoaringBitmap base){
+        ItemFacetDto itemFacetDto = new ItemFacetDto();
+
+        lock.readLock().lock();
+        try {
+            RoaringBitmap universe = base == null ? allItems : base;
+            RoaringBitmap statusBitmap = itemSearchDto.getSearchSellStatus() == null
+                    ? null : bitmapOf(bySellStatus, itemSearchDto.getSearchSellStatus());
+            RoaringBitmap priceBitmap = itemSearchDto.getSearchPriceBand() == null
+                    ? null : bitmapOf(byPriceBand, itemSearchDto.getSearchPriceBand());
+            Long cutoffDay = RegDayBuckets.cutoffDay(itemSearchDto.getSearchDateType());
+            RoaringBitmap dateBitmap = cutoffDay == null ? null : regDayBuckets.registeredSince(cutoffDay);
+
+            // 각 필터의 건수는 자기 자신을 뺀 나머지 필터를 적용한 집합 기준.
+            RoaringBitmap withoutStatus = intersect(universe, priceBitmap, dateBitmap);
+            for (ItemSellStatus itemSellStatus : ItemSellStatus.values()) {
+                itemFacetDto.getSellStatusCounts().put(itemSellStatus,
+                        RoaringBitmap.andCardinality(withoutStatus, bitmapOf(bySellStatus, itemSellStatus)));
+            }
+
+            RoaringBitmap withoutPrice = intersect(universe, statusBitmap, dateBitmap);
+            for (PriceBand priceBand : PriceBand.values()) {
+                itemFacetDto.getPriceBandCounts().put(priceBand,
+                        RoaringBitmap.andCardinality(withoutPrice, bitmapOf(byPriceBand, priceBand)));
+            }
+
+            RoaringBitmap withoutDate = intersect(universe, statusBitmap, priceBitmap);
+            for (String dateType : RegDayBuckets.DATE_TYPES) {
+                itemFacetDto.getDateTypeCounts().put(dateType,
+                        RoaringBitmap.andCardinality(withoutDate, regDayBuckets.registeredSince(RegDayBuckets.cutoffDay(dateType))));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return itemFacetDto;
+    }
+
+    // 아이디 내림차순(최신순) 으로 offset 부터 size 개.
+    public static List<Long> page(RoaringBitmap bitmap, long offset, int size){
+        List<Long> itemIds = new ArrayList<>();
+        int cardinality = bitmap.getCardinality();
+        for(long rank=cardinality-1-offset;rank>=0 && itemIds.size()<size;rank--){
+            itemIds.add((long) bitmap.select((int) rank));
+        }
+        return itemIds;
+    }
+
+    // 등록일 필터별 전체 상품 수. (다른 필터 없이 등록일 버킷만으로 계산)
+    public Map<String, Long> regDateCounts(){
+        Map<String, Long> counts = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            for (String dateType : RegDayBuckets.DATE_TYPES) {
+                counts.put(dateType, regDayBuckets.countSince(RegDayBuckets.cutoffDay(dateType)));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return counts;
+    }
+
+    private static RoaringBitmap intersect(RoaringBitmap universe, RoaringBitmap first, RoaringBitmap second){
+        RoaringBitmap result = first == null ? universe.clone() : RoaringBitmap.and(universe, first);
+        if(second != null){
+            result.and(second);
+        }
+        return result;
+    }
+
+    private static <K> RoaringBitmap bitmapOf(Map<K, RoaringBitmap> bitmaps, K key){
+        RoaringBitmap bitmap = bitmaps.get(key);
+        return bitmap == null ? new RoaringBitmap() : bitmap;
+    }
+
+    private static <K> void removeFrom(Map<K, RoaringBitmap> bitmaps, K key, int id){
+        if(key == null){
+            return;
+        }
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if(bitmap != null){
+            bitmap.remove(id);
+        }
+    }
+
+    private static class FacetKey {
+
+        private final ItemSellStatus itemSellStatus;
+
+        private final PriceBand priceBand;
+
+        private final Long regDay;
+
+        private FacetKey(ItemSellStatus itemSellStatus, PriceBand priceBand, Long regDay){
+            this.itemSellStatus = itemSellStatus;
+            this.priceBand = priceBand;
+            this.regDay = regDay;
+        }
+
+    }
+
+}
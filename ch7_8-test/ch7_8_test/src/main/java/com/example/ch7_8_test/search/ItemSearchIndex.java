@@ -0,0 +1,413 @@
+package com.example.ch7_8_test.search;
+
+import com.example.ch7_8_test.entity.Item;
+import com.example.ch7_8_test.event.ItemChangedEvent;
+import com.example.ch7_8_test.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+// 상품명(itemNm) + 상품 상세(itemDetail) 에 대한 메모리 역색인.
+// like '%q%' 는 item 테이블(@Lob 포함) 전체를 읽어야 하므로, 검색어가 있을 때는 이 색인으로 상품 아이디를 찾고
+// 디비에서는 해당 페이지의 아이디만 조회함. 순위는 BM25 점수.
+@Component
+@RequiredArgsConstructor
+@Log
+public class ItemSearchIndex {
+
+    private static final double K1 = 1.2;
+
+    private static final double B = 0.75;
+
+    // 상품명에 나온 단어는 상세 설명보다 중요하므로 빈도를 더 크게 반영.
+    private static final int NAME_BOOST = 2;
+
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Postings> postingsByTerm = new HashMap<>();
+
+    private final Map<Long, IndexedDoc> docs = new HashMap<>();
+
+    private long totalDocLength;
+
+    private List<ItemChangedEvent> pendingEvents; //색인을 채우는 도중 들어온 상품 변경. 다 채운 뒤 다시 반영.
+
+    private volatile boolean ready;
+
+    // 색인에 바로 채워 넣으므로, 청크를 읽은 뒤 커밋된 변경을 그 청크의 예전 값이 덮어쓸 수 있음.
+    // 그래서 채우는 동안 들어온 변경을 모아 두었다가 끝난 뒤 순서대로 다시 반영함. (변경 이벤트는 최종 값을 들고 있음)
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild(){
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pendingEvents = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            Long lastId = 0L;
+            while(true){
+                List<Item> items = itemRepository.findByIdGreaterThanOrderByIdAsc(lastId,
+                        PageRequest.of(0, REBUILD_CHUNK_SIZE));
+                for (Item item : items) {
+                    index(item.getId(), item.getItemNm(), item.getItemDetail());
+                }
+                if(items.size() < REBUILD_CHUNK_SIZE){
+                    break;
+                }
+                lastId = items.get(items.size() - 1).getId();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                for (ItemChangedEvent event : pendingEvents) {
+                    index(event.getItemId(), event.getItemNm(), event.getItemDetail());
+                }
+                pendingEvents = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        ready = true;
+        log.info("상품 검색 색인 생성 완료 : " + size() + "건, " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    @TransactionalEventListener
+    public void onItemChanged(ItemChangedEvent event){
+        lock.writeLock().lock();
+        try {
+            index(event.getItemId(), event.getItemNm(), event.getItemDetail());
+            if(pendingEvents != null){
+                pendingEvents.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady(){
+        return ready;
+    }
+
+    public int size(){
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void index(Long itemId, String itemNm, String itemDetail){
+        Map<String, Integer> termFreqs = new LinkedHashMap<>();
+        for (String token : HangulNgramTokenizer.tokenize(itemNm, true)) {
+            termFreqs.merge(token, NAME_BOOST, Integer::sum);
+        }
+        for (String token : HangulNgramTokenizer.tokenize(itemDetail, false)) {
+            termFreqs.merge(token, 1, Integer::sum);
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(itemId);
+
+            String[] terms = new String[termFreqs.size()];
+            int docLength = 0;
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : termFreqs.entrySet()) {
+                Postings postings = postingsByTerm.get(entry.getKey());
+                if(postings == null){
+                    postings = new Postings(entry.getKey());
+                    postingsByTerm.put(entry.getKey(), postings);
+                }
+                postings.add(itemId, entry.getValue());
+                // 문서가 가진 단어 목록은 색인의 키 문자열을 그대로 참조해서 중복 메모리를 줄임.
+                terms[i++] = postings.term;
+                docLength += entry.getValue();
+            }
+
+            docs.put(itemId, new IndexedDoc(terms, docLength));
+            totalDocLength += docLength;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long itemId){
+        lock.writeLock().lock();
+        try {
+            removeLocked(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(Long itemId){
+        IndexedDoc doc = docs.remove(itemId);
+        if(doc == null){
+            return;
+        }
+        for (String term : doc.terms) {
+            Postings postings = postingsByTerm.get(term);
+            if(postings != null){
+                postings.remove(itemId);
+                if(postings.size == 0){
+                    postingsByTerm.remove(term);
+                }
+            }
+        }
+        totalDocLength -= doc.length;
+    }
+
+    public SearchResult search(String query, int offset, int limit){
+        return search(query, offset, limit, null);
+    }
+
+    // 검색어의 모든 n-gram 을 포함하는 상품만 후보로 보고(AND), BM25 점수 순으로 offset ~ offset+limit 구간을 반환.
+    // filter : 판매상태, 가격대 같은 다른 조건으로 후보를 먼저 거를 때 사용. (null 이면 전체)
+    public SearchResult search(String query, int offset, int limit, LongPredicate filter){
+        lock.readLock().lock();
+        try {
+            Postings[] termPostings = findPostings(query);
+            if(termPostings == null){
+                return new SearchResult(Collections.emptyList(), 0);
+            }
+
+            int docCount = docs.size();
+            double avgDocLength = docCount == 0 ? 1 : (double) totalDocLength / docCount;
+            double[] idfs = new double[termPostings.length];
+            for(int i=0;i<termPostings.length;i++){
+                int df = termPostings[i].size;
+                idfs[i] = Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+            }
+
+            int topSize = offset + limit;
+            PriorityQueue<ScoredDoc> top = new PriorityQueue<>();
+            int total = 0;
+
+            Postings base = termPostings[0];
+            for(int d=0;d<base.size;d++){
+                long docId = base.docIds[d];
+                if(filter != null && !filter.test(docId)){
+                    continue;
+                }
+                double lengthNorm = K1 * (1 - B + B * docs.get(docId).length / avgDocLength);
+                double score = 0;
+                boolean matched = true;
+
+                for(int t=0;t<termPostings.length;t++){
+                    int tf;
+                    if(t == 0){
+                        tf = base.freqs[d];
+                    } else {
+                        int pos = termPostings[t].indexOf(docId);
+                        if(pos < 0){
+                            matched = false;
+                            break;
+                        }
+                        tf = termPostings[t].freqs[pos];
+                    }
+                    score += idfs[t] * (tf * (K1 + 1)) / (tf + lengthNorm);
+                }
+
+                if(!matched){
+                    continue;
+                }
+                total++;
+                if(topSize <= 0){
+                    continue;
+                }
+                ScoredDoc scored = new ScoredDoc(docId, score);
+                if(top.size() < topSize){
+                    top.add(scored);
+                } else if(top.peek().compareTo(scored) < 0){
+                    top.poll();
+                    top.add(scored);
+                }
+            }
+
+            List<ScoredDoc> sorted = new ArrayList<>(top);
+            sorted.sort(Collections.reverseOrder());
+            List<Long> itemIds = new ArrayList<>();
+            for(int i=offset;i<sorted.size();i++){
+                itemIds.add(sorted.get(i).itemId);
+            }
+            return new SearchResult(itemIds, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 검색어에 일치하는 전체 상품 아이디(오름차순). 필터별 건수 집계용.
+    public long[] matchingIds(String query){
+        lock.readLock().lock();
+        try {
+            Postings[] termPostings = findPostings(query);
+            if(termPostings == null){
+                return new long[0];
+            }
+
+            Postings base = termPostings[0];
+            long[] itemIds = new long[base.size];
+            int count = 0;
+            for(int d=0;d<base.size;d++){
+                boolean matched = true;
+                for(int t=1;t<termPostings.length && matched;t++){
+                    matched = termPostings[t].indexOf(base.docIds[d]) >= 0;
+                }
+                if(matched){
+                    itemIds[count++] = base.docIds[d];
+                }
+            }
+            return Arrays.copyOf(itemIds, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 검색어 단어별 posting 목록을 짧은 순으로 반환. 하나라도 없는 단어가 있으면 null. (읽기 잠금 안에서 호출)
+    private Postings[] findPostings(String query){
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(HangulNgramTokenizer.tokenizeQuery(query)));
+        if(queryTerms.isEmpty()){
+            return null;
+        }
+
+        Postings[] termPostings = new Postings[queryTerms.size()];
+        for(int i=0;i<queryTerms.size();i++){
+            termPostings[i] = postingsByTerm.get(queryTerms.get(i));
+            if(termPostings[i] == null){
+                return null;
+            }
+        }
+        // 가장 짧은 posting 목록을 기준으로 나머지는 이진 탐색으로 교집합을 구함.
+        Arrays.sort(termPostings, (a, b) -> Integer.compare(a.size, b.size));
+        return termPostings;
+    }
+
+    public static class SearchResult {
+
+        private final List<Long> itemIds;
+
+        private final long total;
+
+        public SearchResult(List<Long> itemIds, long total){
+            this.itemIds = itemIds;
+            this.total = total;
+        }
+
+        public List<Long> getItemIds(){
+            return itemIds;
+        }
+
+        public long getTotal(){
+            return total;
+        }
+
+    }
+
+    private static class IndexedDoc {
+
+        private final String[] terms;
+
+        private final int length;
+
+        private IndexedDoc(String[] terms, int length){
+            this.terms = terms;
+            this.length = length;
+        }
+
+    }
+
+    // 점수가 같으면 최신 상품(아이디가 큰 쪽)을 앞에 둠.
+    private static class ScoredDoc implements Comparable<ScoredDoc> {
+
+        private final long itemId;
+
+        private final double score;
+
+        private ScoredDoc(long itemId, double score){
+            this.itemId = itemId;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(ScoredDoc other){
+            int result = Double.compare(score, other.score);
+            return result != 0 ? result : Long.compare(itemId, other.itemId);
+        }
+
+    }
+
+    // 단어 하나의 posting 목록. 상품 아이디 오름차순의 기본형 배열로 보관해서 박싱 없이 이진 탐색.
+    private static class Postings {
+
+        private final String term;
+
+        private long[] docIds = new long[4];
+
+        private int[] freqs = new int[4];
+
+        private int size;
+
+        private Postings(String term){
+            this.term = term;
+        }
+
+        private void add(long docId, int freq){
+            int pos = indexOf(docId);
+            if(pos >= 0){
+                freqs[pos] = freq;
+                return;
+            }
+            int insertAt = -(pos + 1);
+            if(size == docIds.length){
+                docIds = Arrays.copyOf(docIds, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            System.arraycopy(docIds, insertAt, docIds, insertAt + 1, size - insertAt);
+            System.arraycopy(freqs, insertAt, freqs, insertAt + 1, size - insertAt);
+            docIds[insertAt] = docId;
+            freqs[insertAt] = freq;
+            size++;
+        }
+
+        private void remove(long docId){
+            int pos = indexOf(docId);
+            if(pos < 0){
+                return;
+            }
+            System.arraycopy(docIds, pos + 1, docIds, pos, size - pos - 1);
+            System.arraycopy(freqs, pos + 1, freqs, pos, size - pos - 1);
+            size--;
+        }
+
+        private int indexOf(long docId){
+            return Arrays.binarySearch(docIds, 0, size, docId);
+        }
+
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.example.ch7_8_test.search;
+
+import com.example.ch7_8_test.entity.Item;
+import com.example.ch7_8_test.event.ItemChangedEvent;
+import com.example.ch7_8_test.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// 상품명 단어 오타 교정. 검색 결과가 0건일 때만 호출해서 교정된 검색어로 한 번 더 찾음.
+@Component
+@RequiredArgsConstructor
+@Log
+public class ItemSpellCorrector {
+
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final SymSpellDictionary dictionary = new SymSpellDictionary();
+
+    private final Map<Long, List<String>> wordsByItem = new HashMap<>(); //수정 시 이전 단어를 빼기 위한 값
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild(){
+        Long lastId = 0L;
+
+        while(true){
+            List<Item> items = itemRepository.findByIdGreaterThanOrderByIdAsc(lastId,
+                    PageRequest.of(0, REBUILD_CHUNK_SIZE));
+            for (Item item : items) {
+                put(item.getId(), item.getItemNm());
+            }
+            if(items.size() < REBUILD_CHUNK_SIZE){
+                break;
+            }
+            lastId = items.get(items.size() - 1).getId();
+        }
+
+        log.info("오타 교정 사전 생성 완료 : " + dictionary.size() + "단어");
+    }
+
+    @TransactionalEventListener
+    public void onItemChanged(ItemChangedEvent event){
+        put(event.getItemId(), event.getItemNm());
+    }
+
+    public void put(Long itemId, String itemNm){
+        List<String> words = HangulNgramTokenizer.words(itemNm);
+
+        lock.writeLock().lock();
+        try {
+            List<String> oldWords = wordsByItem.put(itemId, words);
+            if(oldWords != null){
+                for (String word : oldWords) {
+                    dictionary.remove(word);
+                }
+            }
+            for (String word : words) {
+                dictionary.add(word);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 사전에 없는 단어를 가장 가까운 단어로 바꾼 검색어. 바꿀 단어가 없으면 null.
+    public String correct(String query){
+        List<String> words = HangulNgramTokenizer.words(query);
+        if(words.isEmpty()){
+            return null;
+        }
+
+        StringBuilder corrected = new StringBuilder();
+        boolean changed = false;
+
+        lock.readLock().lock();
+        try {
+            for (String word : words) {
+                String replacement = dictionary.contains(word) ? word : dictionary.lookup(word, maxDistance(word));
+                if(replacement == null){
+                    replacement = word;
+                } else if(!replacement.equals(word)){
+                    changed = true;
+                }
+                if(corrected.length() > 0){
+                    corrected.append(' ');
+                }
+                corrected.append(replacement);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return changed ? corrected.toString() : null;
+    }
+
+    // 짧은 단어는 거리 2 면 전혀 다른 단어가 되므로 자모 길이에 따라 허용 거리를 줄임.
+    private static int maxDistance(String word){
+        int length = HangulJamo.decompose(word).length();
+        if(length <= 3){
+            return 0;
+        }
+        return length <= 6 ? 1 : SymSpellDictionary.MAX_EDIT_DISTANCE;
+    }
+
+}
@@ -0,0 +1,307 @@
+package com.example.ch7_8_test.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongUnaryOperator;
+
+// 자모 단위 접두어 트라이. 각 노드는 자기 아래에 있는 상품 중 가중치(판매량) 상위 N개를 미리 들고 있어서
+// 조회는 접두어 길이만큼 내려가서 배열을 그대로 돌려주면 끝남. (하위 노드 순회 없음)
+// 갈라지지 않는 자모 연결(자식 하나, 끝나는 상품 없음)은 노드 하나로 합쳐서 간선에 문자열(label)로 들고 있음. (radix 트리)
+// 상품명 뒷부분은 대부분 다른 상품과 갈라진 뒤라 자모마다 노드를 만들면 노드와 상위 N 배열이 자모 수만큼 생김.
+// 합쳐진 노드 안의 접두어는 모두 같은 상품 집합이므로 상위 N 배열 하나를 같이 씀.
+// 자식은 label 첫 글자의 정렬된 char 배열 + 노드 배열로 들고 있어 HashMap 노드보다 메모리를 적게 씀.
+// 스레드 안전하지 않으므로 사용하는 쪽에서 잠금을 잡아야 함.
+public class JamoPrefixTrie {
+
+    private static final char[] NO_KEYS = new char[0];
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private static final long[] NO_IDS = new long[0];
+
+    private final int topSize;
+
+    private final LongUnaryOperator weightOf;
+
+    private final Node root = new Node("");
+
+    public JamoPrefixTrie(int topSize, LongUnaryOperator weightOf){
+        this.topSize = topSize;
+        this.weightOf = weightOf;
+    }
+
+    public void insert(long itemId, String key){
+        Node node = root;
+        int i = 0;
+        while(i < key.length()){
+            Node child = node.child(key.charAt(i));
+            if(child == null){
+                child = new Node(key.substring(i));
+                node.addChild(child);
+                offer(child, itemId);
+                child.terminals = addId(child.terminals, itemId);
+                return;
+            }
+            int matched = matchLength(child.label, key, i);
+            if(matched < child.label.length()){
+                child = node.split(child, matched);
+            }
+            offer(child, itemId);
+            i += matched;
+            node = child;
+        }
+        node.terminals = addId(node.terminals, itemId);
+    }
+
+    public void remove(long itemId, String key){
+        List<Node> path = pathOf(key);
+        if(path == null){
+            return;
+        }
+
+        Node last = path.get(path.size() - 1);
+        last.terminals = removeId(last.terminals, itemId);
+
+        // 아래에서 위로 올라가며 상위 N 목록을 자식들 목록으로 다시 계산하고, 빈 노드는 떼고 외길이 된 노드는 합침.
+        for(int i=path.size()-1;i>=1;i--){
+            Node node = path.get(i);
+            if(indexOf(node.top, itemId) >= 0){
+                recomputeTop(node);
+            }
+            if(node.isEmpty()){
+                path.get(i - 1).removeChild(node.label.charAt(0));
+            } else if(node.terminals.length == 0 && node.children.length == 1){
+                node.mergeChild();
+            }
+        }
+    }
+
+    // 가중치가 커졌을 때 호출. 가중치는 증가만 하므로 경로의 노드에 다시 제안하면 됨.
+    public void promote(long itemId, String key){
+        List<Node> path = pathOf(key);
+        if(path == null){
+            return;
+        }
+        for(int i=1;i<path.size();i++){
+            offer(path.get(i), itemId);
+        }
+    }
+
+    public long[] search(String prefix, int size){
+        if(prefix.isEmpty()){
+            return NO_IDS;
+        }
+        Node node = root;
+        int i = 0;
+        while(true){
+            node = node.child(prefix.charAt(i));
+            if(node == null){
+                return NO_IDS;
+            }
+            int matched = matchLength(node.label, prefix, i);
+            i += matched;
+            // 접두어가 label 중간에서 끝나도 그 노드의 상품 집합과 같음.
+            if(i == prefix.length()){
+                return Arrays.copyOf(node.top, Math.min(size, node.top.length));
+            }
+            if(matched < node.label.length()){
+                return NO_IDS;
+            }
+        }
+    }
+
+    // 테스트 확인용. 루트를 뺀 노드 수.
+    int nodeCount(){
+        return countNodes(root) - 1;
+    }
+
+    // key 로 끝나는 노드까지의 경로(루트 포함). key 가 노드 경계에서 끝나지 않으면 null.
+    private List<Node> pathOf(String key){
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int i = 0;
+        while(i < key.length()){
+            node = node.child(key.charAt(i));
+            if(node == null || matchLength(node.label, key, i) < node.label.length()){
+                return null;
+            }
+            i += node.label.length();
+            path.add(node);
+        }
+        return path;
+    }
+
+    // label 과 key[from..] 이 앞에서부터 같은 길이.
+    private static int matchLength(String label, String key, int from){
+        int max = Math.min(label.length(), key.length() - from);
+        int i = 0;
+        while(i < max && label.charAt(i) == key.charAt(from + i)){
+            i++;
+        }
+        return i;
+    }
+
+    private static int countNodes(Node node){
+        int count = 1;
+        for (Node child : node.children) {
+            count += countNodes(child);
+        }
+        return count;
+    }
+
+    private void offer(Node node, long itemId){
+        long[] top = node.top;
+        int pos = indexOf(top, itemId);
+        if(pos < 0){
+            if(top.length < topSize){
+                top = Arrays.copyOf(top, top.length + 1);
+                pos = top.length - 1;
+            } else if(compare(itemId, top[top.length - 1]) < 0){
+                top = top.clone();
+                pos = top.length - 1;
+            } else {
+                return;
+            }
+        } else {
+            top = top.clone();
+        }
+        top[pos] = itemId;
+
+        // 바뀐 자리에서 앞쪽으로 삽입 정렬.
+        while(pos > 0 && compare(top[pos], top[pos - 1]) < 0){
+            long tmp = top[pos - 1];
+            top[pos - 1] = top[pos];
+            top[pos] = tmp;
+            pos--;
+        }
+        node.top = top;
+    }
+
+    private void recomputeTop(Node node){
+        node.top = NO_IDS;
+        for (long terminal : node.terminals) {
+            offer(node, terminal);
+        }
+        for (Node child : node.children) {
+            for (long itemId : child.top) {
+                offer(node, itemId);
+            }
+        }
+    }
+
+    // 가중치 내림차순, 같으면 최신 상품 먼저.
+    private int compare(long a, long b){
+        int result = Long.compare(weightOf.applyAsLong(b), weightOf.applyAsLong(a));
+        return result != 0 ? result : Long.compare(b, a);
+    }
+
+    private static int indexOf(long[] ids, long itemId){
+        for(int i=0;i<ids.length;i++){
+            if(ids[i] == itemId){
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long[] addId(long[] ids, long itemId){
+        if(indexOf(ids, itemId) >= 0){
+            return ids;
+        }
+        long[] result = Arrays.copyOf(ids, ids.length + 1);
+        result[ids.length] = itemId;
+        return result;
+    }
+
+    private static long[] removeId(long[] ids, long itemId){
+        int pos = indexOf(ids, itemId);
+        if(pos < 0){
+            return ids;
+        }
+        long[] result = new long[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, pos);
+        System.arraycopy(ids, pos + 1, result, pos, ids.length - pos - 1);
+        return result;
+    }
+
+    private static class Node {
+
+        private String label; //부모에서 이 노드까지의 자모 (첫 글자가 부모 keys 의 값)
+
+        private char[] keys = NO_KEYS;
+
+        private Node[] children = NO_CHILDREN;
+
+        private long[] terminals = NO_IDS;
+
+        private long[] top = NO_IDS;
+
+        private Node(String label){
+            this.label = label;
+        }
+
+        private Node child(char c){
+            int pos = Arrays.binarySearch(keys, c);
+            return pos >= 0 ? children[pos] : null;
+        }
+
+        private void addChild(Node node){
+            char c = node.label.charAt(0);
+            int insertAt = -(Arrays.binarySearch(keys, c) + 1);
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            newKeys[insertAt] = c;
+            newChildren[insertAt] = node;
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        // child 의 label 을 at 에서 나눠서 앞부분을 새 중간 노드로 끼움. 중간 노드 아래 상품은 child 와 같으므로 상위 N 도 그대로.
+        private Node split(Node child, int at){
+            Node middle = new Node(child.label.substring(0, at));
+            middle.top = child.top;
+            child.label = child.label.substring(at);
+            middle.keys = new char[]{child.label.charAt(0)};
+            middle.children = new Node[]{child};
+            children[Arrays.binarySearch(keys, middle.label.charAt(0))] = middle;
+            return middle;
+        }
+
+        // 하나 남은 자식을 이 노드에 합침. (이 노드에서 끝나는 상품이 없을 때만)
+        private void mergeChild(){
+            Node child = children[0];
+            label = label + child.label;
+            keys = child.keys;
+            children = child.children;
+            terminals = child.terminals;
+            top = child.top;
+        }
+
+        private void removeChild(char c){
+            int pos = Arrays.binarySearch(keys, c);
+            if(pos < 0){
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, pos);
+            System.arraycopy(children, 0, newChildren, 0, pos);
+            System.arraycopy(keys, pos + 1, newKeys, pos, keys.length - pos - 1);
+            System.arraycopy(children, pos + 1, newChildren, pos, children.length - pos - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        private boolean isEmpty(){
+            return keys.length == 0 && terminals.length == 0;
+        }
+
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.example.ch7_8_test.search;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+// 등록일(일 단위) 별 상품 아이디 버킷.
+// "최근 N" 필터는 현재 시각이 아니라 날짜 경계(cutoffDay 0시)부터로 맞춰서, 같은 날에는 같은 조건 = 같은 결과가 되게 함.
+// 그래서 버킷 합집합이 그대로 필터 결과가 되고, 디비로 조회하는 경우에도 결과를 하루 동안 같은 키로 캐시할 수 있음.
+// 스레드 안전하지 않으므로 사용하는 쪽에서 잠금을 잡아야 함.
+public class RegDayBuckets {
+
+    public static final List<String> DATE_TYPES = Arrays.asList("1d", "1w", "1m", "6m");
+
+    private final TreeMap<Long, RoaringBitmap> byRegDay = new TreeMap<>(); //epochDay -> 상품 아이디
+
+    public void add(long regDay, int id){
+        byRegDay.computeIfAbsent(regDay, key -> new RoaringBitmap()).add(id);
+    }
+
+    public void remove(long regDay, int id){
+        RoaringBitmap bitmap = byRegDay.get(regDay);
+        if(bitmap != null){
+            bitmap.remove(id);
+            if(bitmap.isEmpty()){
+                byRegDay.remove(regDay);
+            }
+        }
+    }
+
+    // cutoffDay 이후(포함) 에 등록된 상품 아이디.
+    public RoaringBitmap registeredSince(long cutoffDay){
+        return FastAggregation.or(byRegDay.tailMap(cutoffDay, true).values().iterator());
+    }
+
+    public long countSince(long cutoffDay){
+        long count = 0;
+        for (RoaringBitmap bitmap : byRegDay.tailMap(cutoffDay, true).values()) {
+            count += bitmap.getLongCardinality();
+        }
+        return count;
+    }
+
+    // 등록일 필터의 시작일(epochDay). 필터가 없으면 null.
+    public static Long cutoffDay(String searchDateType){
+        return cutoffDay(searchDateType, LocalDate.now());
+    }
+
+    public static Long cutoffDay(String searchDateType, LocalDate today){
+        if("1d".equals(searchDateType)){
+            return today.minusDays(1).toEpochDay();
+        } else if("1w".equals(searchDateType)){
+            return today.minusWeeks(1).toEpochDay();
+        } else if("1m".equals(searchDateType)){
+            return today.minusMonths(1).toEpochDay();
+        } else if("6m".equals(searchDateType)){
+            return today.minusMonths(6).toEpochDay();
+        }
+        return null;
+    }
+
+    // 디비 조건용. cutoffDay 0시. (regTime >= 이 값)
+    public static LocalDateTime cutoffTime(String searchDateType){
+        Long cutoffDay = cutoffDay(searchDateType);
+        return cutoffDay == null ? null : LocalDate.ofEpochDay(cutoffDay).atStartOfDay();
+    }
+
+}
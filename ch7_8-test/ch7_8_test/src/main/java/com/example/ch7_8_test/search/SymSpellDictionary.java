@@ -0,0 +1,200 @@
+package com.example.ch7_8_test.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// SymSpell 방식 오타 교정 사전.
+// 단어를 넣을 때 글자를 최대 2개까지 지운 모든 변형을 미리 만들어 두고, 검색어도 같은 방식으로 지운 변형만 찾아봄.
+// 그래서 조회는 사전 크기와 상관없이 검색어 길이로 정해지는 몇십 번의 해시 조회로 끝남. (사전 전체 스캔 없음)
+// 한글은 자모 단위로 풀어서 넣으므로 "셔츠" -> "셔흐" 같은 받침/모음 하나 오타가 거리 1 이 됨.
+// 스레드 안전하지 않으므로 사용하는 쪽에서 잠금을 잡아야 함.
+public class SymSpellDictionary {
+
+    public static final int MAX_EDIT_DISTANCE = 2;
+
+    // 긴 단어는 앞부분만 변형을 만들어 메모리를 제한함. (SymSpell 의 prefix length)
+    private static final int PREFIX_LENGTH = 10;
+
+    private static final int[] NO_WORDS = new int[0];
+
+    private final Map<String, Integer> wordIds = new HashMap<>();
+
+    private final Map<String, int[]> deletes = new HashMap<>();
+
+    private String[] words = new String[16];
+
+    private String[] jamos = new String[16];
+
+    private int[] counts = new int[16]; //이 단어가 들어간 상품 수
+
+    private int[] freeIds = new int[16];
+
+    private int freeCount;
+
+    private int nextId;
+
+    public int size(){
+        return wordIds.size();
+    }
+
+    public void add(String word){
+        Integer wordId = wordIds.get(word);
+        if(wordId != null){
+            counts[wordId]++;
+            return;
+        }
+
+        int id = freeCount > 0 ? freeIds[--freeCount] : nextId++;
+        if(id >= words.length){
+            words = Arrays.copyOf(words, words.length * 2);
+            jamos = Arrays.copyOf(jamos, jamos.length * 2);
+            counts = Arrays.copyOf(counts, counts.length * 2);
+        }
+        String jamo = HangulJamo.decompose(word);
+        words[id] = word;
+        jamos[id] = jamo;
+        counts[id] = 1;
+        wordIds.put(word, id);
+
+        for (String delete : deletesOf(prefix(jamo), MAX_EDIT_DISTANCE)) {
+            int[] ids = deletes.getOrDefault(delete, NO_WORDS);
+            int[] newIds = Arrays.copyOf(ids, ids.length + 1);
+            newIds[ids.length] = id;
+            deletes.put(delete, newIds);
+        }
+    }
+
+    public void remove(String word){
+        Integer wordId = wordIds.get(word);
+        if(wordId == null){
+            return;
+        }
+        int id = wordId;
+        if(--counts[id] > 0){
+            return;
+        }
+
+        for (String delete : deletesOf(prefix(jamos[id]), MAX_EDIT_DISTANCE)) {
+            int[] ids = deletes.get(delete);
+            if(ids == null){
+                continue;
+            }
+            int[] newIds = new int[ids.length - 1];
+            int n = 0;
+            for (int other : ids) {
+                if(other != id && n < newIds.length){
+                    newIds[n++] = other;
+                }
+            }
+            if(n == 0){
+                deletes.remove(delete);
+            } else {
+                deletes.put(delete, newIds);
+            }
+        }
+
+        wordIds.remove(word);
+        words[id] = null;
+        jamos[id] = null;
+        if(freeCount == freeIds.length){
+            freeIds = Arrays.copyOf(freeIds, freeIds.length * 2);
+        }
+        freeIds[freeCount++] = id;
+    }
+
+    public boolean contains(String word){
+        return wordIds.containsKey(word);
+    }
+
+    // 편집 거리가 가장 가까운 단어. 거리가 같으면 많이 쓰인 단어. 없으면 null.
+    public String lookup(String word, int maxDistance){
+        if(wordIds.containsKey(word)){
+            return word;
+        }
+
+        String jamo = HangulJamo.decompose(word);
+        String prefix = prefix(jamo);
+        String best = null;
+        int bestDistance = maxDistance + 1;
+        int bestCount = 0;
+        Set<Integer> checked = new HashSet<>();
+
+        for (String delete : deletesOf(prefix, maxDistance)) {
+            for (int id : deletes.getOrDefault(delete, NO_WORDS)) {
+                if(!checked.add(id)){
+                    continue;
+                }
+                int distance = distance(jamo, jamos[id], maxDistance);
+                if(distance < bestDistance || (distance == bestDistance && counts[id] > bestCount)){
+                    best = words[id];
+                    bestDistance = distance;
+                    bestCount = counts[id];
+                }
+            }
+        }
+        return best;
+    }
+
+    private static String prefix(String jamo){
+        return jamo.length() > PREFIX_LENGTH ? jamo.substring(0, PREFIX_LENGTH) : jamo;
+    }
+
+    // 자기 자신 + 글자를 1 ~ maxDistance 개 지운 변형.
+    static Set<String> deletesOf(String text, int maxDistance){
+        Set<String> result = new HashSet<>();
+        result.add(text);
+        Set<String> current = result;
+        for(int d=0;d<maxDistance;d++){
+            Set<String> next = new HashSet<>();
+            for (String s : current) {
+                if(s.length() <= 1){
+                    continue;
+                }
+                for(int i=0;i<s.length();i++){
+                    next.add(s.substring(0, i) + s.substring(i + 1));
+                }
+            }
+            result.addAll(next);
+            current = next;
+        }
+        return result;
+    }
+
+    // 인접 글자 자리바꿈까지 1 로 보는 편집 거리(OSA). maxDistance 를 넘으면 maxDistance + 1.
+    static int distance(String a, String b, int maxDistance){
+        if(Math.abs(a.length() - b.length()) > maxDistance){
+            return maxDistance + 1;
+        }
+        int[] prevPrev = new int[b.length() + 1];
+        int[] prev = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for(int j=0;j<=b.length();j++){
+            prev[j] = j;
+        }
+        for(int i=1;i<=a.length();i++){
+            current[0] = i;
+            int rowMin = current[0];
+            for(int j=1;j<=b.length();j++){
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(prev[j] + 1, current[j - 1] + 1), prev[j - 1] + cost);
+                if(i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)){
+                    value = Math.min(value, prevPrev[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if(rowMin > maxDistance){
+                return maxDistance + 1;
+            }
+            int[] tmp = prevPrev;
+            prevPrev = prev;
+            prev = current;
+            current = tmp;
+        }
+        return Math.min(prev[b.length()], maxDistance + 1);
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.example.ch7_8_test.service;
+
+import com.example.ch7_8_test.dto.MainItemDto;
+import com.example.ch7_8_test.dto.TopItemDto;
+import com.example.ch7_8_test.entity.CatalogEntry;
+import com.example.ch7_8_test.repository.CatalogEntryRepository;
+import com.example.ch7_8_test.stats.TopSellerTracker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// 최근 1시간 판매량 상위 상품. 수량은 TopSellerTracker 의 메모리 요약 추정치, 목록 값은 catalog_entry 에서 아이디로만 조회.
+@Service
+@RequiredArgsConstructor
+public class BestSellerService {
+
+    public static final int MAX_STATS_SIZE = 100;
+
+    private final CatalogEntryRepository catalogEntryRepository;
+
+    private final CatalogService catalogService;
+
+    private final TopSellerTracker topSellerTracker;
+
+    // 판매중인 상품만.
+    public List<MainItemDto> getBestSellerItems(int size){
+        List<Long> ids = new ArrayList<>();
+        for (TopSellerTracker.ItemCount itemCount : topSellerTracker.top(clamp(size))) {
+            ids.add(itemCount.getItemId());
+        }
+        return catalogService.getMainItems(ids);
+    }
+
+    // 관리자 확인용. 판매 상태와 관계없이 추정 수량과 함께 반환.
+    public List<TopItemDto> getBestSellerStats(int size){
+        List<TopSellerTracker.ItemCount> itemCounts = topSellerTracker.top(clamp(size));
+        List<Long> ids = new ArrayList<>();
+        for (TopSellerTracker.ItemCount itemCount : itemCounts) {
+            ids.add(itemCount.getItemId());
+        }
+        Map<Long, String> itemNms = new HashMap<>();
+        for (CatalogEntry catalogEntry : catalogEntryRepository.findAllById(ids)) {
+            itemNms.put(catalogEntry.getItemId(), catalogEntry.getItemNm());
+        }
+
+        List<TopItemDto> topItems = new ArrayList<>();
+        for (TopSellerTracker.ItemCount itemCount : itemCounts) {
+            topItems.add(new TopItemDto(itemCount.getItemId(), itemNms.get(itemCount.getItemId()), itemCount.getCount()));
+        }
+        return topItems;
+    }
+
+    // 0, 음수면 subList 에서 터지므로 1 ~ MAX_STATS_SIZE 로 맞춤.
+    private static int clamp(int size){
+        return Math.max(1, Math.min(size, MAX_STATS_SIZE));
+    }
+
+}
@@ -8,11 +8,13 @@ import com.example.ch7_8_test.entity.Cart;
 import com.example.ch7_8_test.entity.CartItem;
 import com.example.ch7_8_test.entity.Item;
 import com.example.ch7_8_test.entity.Member;
+import com.example.ch7_8_test.event.CartItemAddedEvent;
 import com.example.ch7_8_test.repository.CartItemRepository;
 import com.example.ch7_8_test.repository.CartRepository;
 import com.example.ch7_8_test.repository.ItemRepository;
 import com.example.ch7_8_test.repository.MemberRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.thymeleaf.util.StringUtils;
@@ -31,6 +33,8 @@ public class CartService {
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
     private final OrderService orderService;
+    // 장바구니 담기 커밋 이후 인기도 갱신용.
+    private final ApplicationEventPublisher eventPublisher;
 
     public Long addCart(CartItemDto cartItemDto, String email){
 
@@ -45,6 +49,7 @@ public class CartService {
         }
 
         CartItem savedCartItem = cartItemRepository.findByCartIdAndItemId(cart.getId(), item.getId());
+        eventPublisher.publishEvent(new CartItemAddedEvent(item.getId(), cartItemDto.getCount()));
 
         if(savedCartItem != null){
             savedCartItem.addCount(cartItemDto.getCount());
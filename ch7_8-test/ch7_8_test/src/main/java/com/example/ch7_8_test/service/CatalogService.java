@@ -0,0 +1,151 @@
+package com.example.ch7_8_test.service;
+
+import com.example.ch7_8_test.constant.ItemSellStatus;
+import com.example.ch7_8_test.dto.MainItemDto;
+import com.example.ch7_8_test.entity.CatalogEntry;
+import com.example.ch7_8_test.entity.Item;
+import com.example.ch7_8_test.entity.ItemImg;
+import com.example.ch7_8_test.repository.CatalogEntryJdbcRepository;
+import com.example.ch7_8_test.repository.CatalogEntryRepository;
+import com.example.ch7_8_test.repository.ItemImgRepository;
+import com.example.ch7_8_test.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// catalog_entry 읽기 테이블 갱신.
+// ItemService, ItemImgService 의 트랜잭션에 참여해서 item/item_img 와 항상 같이 커밋됨.
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Log
+public class CatalogService {
+
+    private static final int BACKFILL_CHUNK_SIZE = 1000;
+
+    private final CatalogEntryRepository catalogEntryRepository;
+
+    private final ItemRepository itemRepository;
+
+    private final ItemImgRepository itemImgRepository;
+
+    private final CatalogEntryJdbcRepository catalogEntryJdbcRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public void saveItem(Item item){
+        CatalogEntry catalogEntry = catalogEntryRepository.findById(item.getId()).orElse(null);
+        if(catalogEntry == null){
+            catalogEntryRepository.save(CatalogEntry.of(item));
+        } else {
+            catalogEntry.updateItem(item);
+        }
+    }
+
+    public void updateRepImgUrl(Long itemId, String imgUrl){
+        catalogEntryRepository.findById(itemId)
+                .ifPresent(catalogEntry -> catalogEntry.setImgUrl(imgUrl));
+    }
+
+    // 메모리 집계(추천, 인기 상품)가 고른 아이디 순서대로 판매중인 상품만 목록 값으로 조회.
+    @Transactional(readOnly = true)
+    public List<MainItemDto> getMainItems(List<Long> itemIds){
+        if(itemIds.isEmpty()){
+            return new ArrayList<>();
+        }
+        Map<Long, CatalogEntry> entries = new HashMap<>();
+        for (CatalogEntry catalogEntry : catalogEntryRepository.findAllById(itemIds)) {
+            entries.put(catalogEntry.getItemId(), catalogEntry);
+        }
+
+        List<MainItemDto> items = new ArrayList<>();
+        for (Long itemId : itemIds) {
+            CatalogEntry catalogEntry = entries.get(itemId);
+            if(catalogEntry != null && catalogEntry.getItemSellStatus() == ItemSellStatus.SELL){
+                items.add(new MainItemDto(catalogEntry.getItemId(), catalogEntry.getItemNm(),
+                        catalogEntry.getSummary(), catalogEntry.getImgUrl(), catalogEntry.getPrice()));
+            }
+        }
+        return items;
+    }
+
+    // 읽기 테이블이 생기기 전에 등록된 상품을 채움. 이미 있는 상품은 건너뜀.
+    // 전체를 한 트랜잭션으로 돌리면 모든 item(@Lob 포함)이 끝날 때까지 영속성 컨텍스트와 커넥션에 남으므로
+    // 청크마다 트랜잭션을 따로 열고 닫음. (트랜잭션이 끝날 때 영속성 컨텍스트도 같이 비워짐)
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void backfill(){
+        if(catalogEntryRepository.count() >= itemRepository.count()){
+            return;
+        }
+
+        long lastId = 0L;
+        int created = 0;
+        while(true){
+            long fromId = lastId;
+            BackfillChunk chunk = transactionTemplate.execute(status -> backfillChunk(fromId));
+            created += chunk.created;
+            if(chunk.size < BACKFILL_CHUNK_SIZE){
+                break;
+            }
+            lastId = chunk.lastId;
+        }
+
+        log.info("catalog_entry 채우기 완료 : " + created + "건");
+    }
+
+    // fromId 다음 상품 한 청크 중 catalog_entry 가 없는 상품만 JDBC batch 로 넣음.
+    // (아이디를 직접 넣는 엔티티라 save 는 merge 로 행마다 select 가 한 번 더 나가고, 있는지는 이미 findAllById 로 확인함)
+    private BackfillChunk backfillChunk(long fromId){
+        List<Item> items = itemRepository.findByIdGreaterThanOrderByIdAsc(fromId,
+                PageRequest.of(0, BACKFILL_CHUNK_SIZE));
+        if(items.isEmpty()){
+            return new BackfillChunk(0, fromId, 0);
+        }
+
+        List<Long> itemIds = new ArrayList<>();
+        for (Item item : items) {
+            itemIds.add(item.getId());
+        }
+        Map<Long, String> repImgUrls = new HashMap<>();
+        for (ItemImg itemImg : itemImgRepository.findByItemIdInAndRepimgYn(itemIds, "Y")) {
+            repImgUrls.put(itemImg.getItem().getId(), itemImg.getListImgUrl());
+        }
+        Set<Long> existingIds = new HashSet<>();
+        for (CatalogEntry catalogEntry : catalogEntryRepository.findAllById(itemIds)) {
+            existingIds.add(catalogEntry.getItemId());
+        }
+
+        List<CatalogEntry> catalogEntries = new ArrayList<>();
+        for (Item item : items) {
+            if(!existingIds.contains(item.getId())){
+                CatalogEntry catalogEntry = CatalogEntry.of(item);
+                catalogEntry.setImgUrl(repImgUrls.get(item.getId()));
+                catalogEntries.add(catalogEntry);
+            }
+        }
+        catalogEntryJdbcRepository.insertAll(catalogEntries);
+        return new BackfillChunk(items.size(), items.get(items.size() - 1).getId(), catalogEntries.size());
+    }
+
+    @RequiredArgsConstructor
+    private static class BackfillChunk {
+        private final int size;
+        private final long lastId;
+        private final int created;
+    }
+
+}
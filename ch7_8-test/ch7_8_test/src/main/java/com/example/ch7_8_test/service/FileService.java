@@ -1,25 +1,136 @@
 package com.example.ch7_8_test.service;
 
+import com.example.ch7_8_test.image.ImgShard;
 import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
-import java.io.FileOutputStream;
-import java.util.UUID;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.function.Consumer;
 
 @Service
 @Log
 public class FileService {
 
-    public String uploadFile(String uploadPath, String originalFileName, byte[] fileData) throws Exception{
-        UUID uuid = UUID.randomUUID();
-        String extension = originalFileName.substring(originalFileName.lastIndexOf("."));
-        String savedFileName = uuid.toString() + extension;
-        String fileUploadFullUrl = uploadPath + "/" + savedFileName;
-        FileOutputStream fos = new FileOutputStream(fileUploadFullUrl);
-        fos.write(fileData);
-        fos.close();
-        return savedFileName;
+    private final Path stagingPath;
+
+    public FileService(@Value("${uploadStagingPath}") String stagingPath){
+        this.stagingPath = Paths.get(stagingPath);
+    }
+
+    // 한 번에 옮기는 크기. 파일 전체를 메모리에 올리지 않고 힙 밖 버퍼 하나로 나눠서 옮기면서 해시를 계산함.
+    private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    // 업로드 파일을 byte[] 로 읽지 않고 스트림으로 저장. (fileSizeThreshold 를 넘는 파일은 임시 파일로 받아 둔 상태)
+    public String uploadFile(String uploadPath, String originalFileName, MultipartFile multipartFile) throws Exception{
+        return uploadFile(uploadPath, originalFileName, multipartFile, savedFileName -> {});
+    }
+
+    public String uploadFile(String uploadPath, String originalFileName, MultipartFile multipartFile,
+                             Consumer<String> reserve) throws Exception{
+        try (InputStream in = multipartFile.getInputStream()) {
+            return uploadFile(uploadPath, originalFileName, in, reserve);
+        }
+    }
+
+    public String uploadFile(String uploadPath, String originalFileName, InputStream in) throws Exception{
+        return uploadFile(uploadPath, originalFileName, in, savedFileName -> {});
+    }
+
+    // 쓰는 중인 파일용 임시 파일. /images 로 서빙되는 폴더 밖에 만들어서 다 쓰기 전의 파일이 내려가지 않게 함.
+    // 다 쓴 뒤 ATOMIC_MOVE 로 옮기므로 스테이징 폴더는 이미지 폴더와 같은 디스크에 있어야 함.
+    public Path createStagingFile(String prefix, String suffix) throws IOException{
+        return Files.createTempFile(stagingPath, prefix, suffix);
+    }
+
+    // 내용 주소 저장. 임시 파일에 쓰면서 sha-256 을 계산하고, "해시 + 확장자" 이름으로 나뉜 폴더(ImgShard)에 옮김.
+    // 같은 내용의 파일이 이미 있으면 새로 쓴 임시 파일은 버리고 기존 파일명을 돌려줌. (참조 수는 호출하는 쪽에서 관리)
+    // reserve : 저장 파일명이 정해진 뒤, 기존 파일이 있는지 보기 전에 호출. (참조가 0 이 된 파일을 지우는 쪽과 순서를 맞춤)
+    // 기존 파일을 다시 쓰면 수정 시각을 지금으로 바꿔서 고아 이미지 정리의 유예 시간이 다시 시작되게 함.
+    public String uploadFile(String uploadPath, String originalFileName, InputStream in,
+                             Consumer<String> reserve) throws Exception{
+        String extension = originalFileName.substring(originalFileName.lastIndexOf(".")).toLowerCase();
+        Path root = Paths.get(uploadPath);
+        // 하위 폴더는 만들어 주지만 저장 폴더 자체가 없으면 설정 오류로 보고 저장하지 않음.
+        if(!Files.isDirectory(root)){
+            throw new NoSuchFileException(uploadPath);
+        }
+        Path tmp = createStagingFile(".upload-", ".tmp");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                transfer(in, out, digest);
+            }
+
+            String savedFileName = toHex(digest.digest()) + extension;
+            reserve.accept(savedFileName);
+            if(!touch(ImgShard.locate(root, savedFileName))){
+                Path target = ImgShard.pathOf(root, savedFileName);
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // 같은 내용을 동시에 올린 다른 요청이 먼저 옮김.
+                }
+            }
+            return savedFileName;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // 파일이 있으면 수정 시각을 지금으로 바꾸고 true. (확인하는 사이 정리로 옮겨졌으면 false)
+    private static boolean touch(Path file) throws IOException{
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    // 읽은 만큼 해시에 더하고 그대로 파일에 씀. 임시 파일에서 오는 스트림이면 파일 채널로 바로 읽음.
+    private static void transfer(InputStream in, FileChannel out, MessageDigest digest) throws IOException{
+        ReadableByteChannel source = in instanceof FileInputStream
+                ? ((FileInputStream) in).getChannel() : Channels.newChannel(in);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(TRANSFER_BUFFER_SIZE);
+        while(source.read(buffer) >= 0){
+            buffer.flip();
+            digest.update(buffer.duplicate());
+            while(buffer.hasRemaining()){
+                out.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    private static String toHex(byte[] bytes){
+        char[] chars = new char[bytes.length * 2];
+        for(int i=0;i<bytes.length;i++){
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(chars);
     }
 
     public void deleteFile(String filePath) throws Exception{
@@ -32,4 +143,4 @@ public class FileService {
         }
     }
 
-}
\ No newline at end of file
+}
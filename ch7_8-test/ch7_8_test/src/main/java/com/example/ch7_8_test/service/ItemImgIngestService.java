@@ -0,0 +1,142 @@
+package com.example.ch7_8_test.service;
+
+import com.example.ch7_8_test.dto.StoredImgDto;
+import com.example.ch7_8_test.image.ImageResizer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+// 상품 등록/수정 시 이미지 파일을 트랜잭션이 열리기 전에 I/O 스레드에서 동시에 저장.
+// 파일 쓰는 동안 커넥션을 잡고 있지 않도록 하고, 여러 장을 한 장씩 쓰던 시간을 가장 느린 한 장 수준으로 줄임.
+// 뒤 트랜잭션이 롤백되면 저장한 파일은 참조 없이 남지만 고아 이미지 정리(OrphanImgSweeper)가 치움.
+// 최대 크기를 넘는 원본은 해시를 계산하기 전에 줄여서 저장함. 파일명이 내용 해시라서 저장한 뒤에는 내용을 바꾸지 않음.
+// 트랜잭션이 필요 없으므로 @Transactional 을 붙이지 않음.
+@Service
+public class ItemImgIngestService {
+
+    private final FileService fileService;
+
+    private final ItemImgService itemImgService;
+
+    private final Executor imageIoExecutor;
+
+    private final String itemImgLocation;
+
+    private final int originalMaxSize;
+
+    public ItemImgIngestService(FileService fileService,
+                                ItemImgService itemImgService,
+                                @Qualifier("imageIoExecutor") Executor imageIoExecutor,
+                                @Value("${itemImgLocation}") String itemImgLocation,
+                                @Value("${itemImgOriginalMaxSize:2000}") int originalMaxSize){
+        this.fileService = fileService;
+        this.itemImgService = itemImgService;
+        this.imageIoExecutor = imageIoExecutor;
+        this.itemImgLocation = itemImgLocation;
+        this.originalMaxSize = originalMaxSize;
+    }
+
+    // 목록 순서 그대로 반환. 비어 있는(선택하지 않은) 파일은 저장하지 않음.
+    // 하나라도 실패하면 나머지가 끝나기를 기다린 뒤 첫 번째 예외를 던짐.
+    public List<StoredImgDto> ingest(List<MultipartFile> itemImgFileList) throws Exception{
+        List<CompletableFuture<StoredImgDto>> futures = new ArrayList<>();
+        for (MultipartFile itemImgFile : itemImgFileList) {
+            if(itemImgFile.isEmpty()){
+                futures.add(CompletableFuture.completedFuture(StoredImgDto.empty(itemImgFile.getOriginalFilename())));
+            } else {
+                futures.add(CompletableFuture.supplyAsync(() -> store(itemImgFile), imageIoExecutor));
+            }
+        }
+
+        List<StoredImgDto> storedImgs = new ArrayList<>();
+        Exception failure = null;
+        for (CompletableFuture<StoredImgDto> future : futures) {
+            try {
+                storedImgs.add(future.join());
+            } catch (CompletionException e) {
+                if(failure == null){
+                    failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+        }
+        if(failure != null){
+            throw failure;
+        }
+        return storedImgs;
+    }
+
+    private StoredImgDto store(MultipartFile itemImgFile){
+        try {
+            String oriImgName = itemImgFile.getOriginalFilename();
+            Path capped = capOriginal(itemImgFile, oriImgName);
+            if(capped == null){
+                String imgName = fileService.uploadFile(itemImgLocation, oriImgName, itemImgFile, this::reserve);
+                return new StoredImgDto(oriImgName, imgName, itemImgFile.getSize());
+            }
+            try (InputStream in = Files.newInputStream(capped)) {
+                String imgName = fileService.uploadFile(itemImgLocation, oriImgName, in, this::reserve);
+                return new StoredImgDto(oriImgName, imgName, Files.size(capped));
+            } finally {
+                Files.deleteIfExists(capped);
+            }
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    // 같은 새 파일을 동시에 올려서 참조 행을 둘 다 새로 넣으려 했으면 한쪽이 실패하므로 한 번 더 잡음. (그때는 행이 있음)
+    private void reserve(String imgName){
+        try {
+            itemImgService.reserveImg(imgName);
+        } catch (DataIntegrityViolationException e) {
+            itemImgService.reserveImg(imgName);
+        }
+    }
+
+    // 최대 크기를 넘는 jpg, png 는 줄인 이미지를 임시 파일에 써서 돌려줌. 줄일 필요가 없거나 줄일 수 없는 형식이면 null.
+    // 크기는 헤더만 읽어서 확인하므로 대부분의(작은) 이미지는 디코딩하지 않음.
+    private Path capOriginal(MultipartFile itemImgFile, String oriImgName) throws IOException{
+        String format = ImageResizer.formatOf(oriImgName);
+        if(!ImageResizer.isWritableAs(oriImgName, format)){
+            return null;
+        }
+        Dimension size;
+        try (InputStream in = itemImgFile.getInputStream()) {
+            size = ImageResizer.sizeOf(in);
+        }
+        if(size == null || (size.width <= originalMaxSize && size.height <= originalMaxSize)){
+            return null;
+        }
+        BufferedImage image;
+        try (InputStream in = itemImgFile.getInputStream()) {
+            image = ImageResizer.read(in);
+        }
+        if(image == null){
+            return null;
+        }
+
+        Path capped = fileService.createStagingFile(".cap-", "." + format);
+        try {
+            ImageResizer.write(ImageResizer.resize(image, originalMaxSize, originalMaxSize, "png".equals(format)), format, capped);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(capped);
+            throw e;
+        }
+        return capped;
+    }
+
+}
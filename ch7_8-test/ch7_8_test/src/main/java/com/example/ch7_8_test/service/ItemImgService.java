@@ -1,61 +1,156 @@
 package com.example.ch7_8_test.service;
 
+import com.example.ch7_8_test.dto.StoredImgDto;
+import com.example.ch7_8_test.entity.ImgBlob;
 import com.example.ch7_8_test.entity.ItemImg;
+import com.example.ch7_8_test.event.ImgBlobReleasedEvent;
+import com.example.ch7_8_test.event.ItemImgStoredEvent;
+import com.example.ch7_8_test.image.ImgShard;
+import com.example.ch7_8_test.repository.ImgBlobRepository;
 import com.example.ch7_8_test.repository.ItemImgRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 import org.thymeleaf.util.StringUtils;
 
 import javax.persistence.EntityNotFoundException;
+import java.time.LocalDateTime;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class ItemImgService {
 
-    @Value("${itemImgLocation}")
-    private String itemImgLocation;
+    public static final String IMG_URL_PREFIX = "/images/item/";
 
     private final ItemImgRepository itemImgRepository;
 
-    private final FileService fileService;
+    private final ImgBlobRepository imgBlobRepository;
 
-    public void saveItemImg(ItemImg itemImg, MultipartFile itemImgFile) throws Exception{
-        String oriImgName = itemImgFile.getOriginalFilename();
+    private final CatalogService catalogService;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    // 파일은 ItemImgIngestService 가 트랜잭션 전에 저장해 둠. 여기서는 item_img 행과 참조 수만 씀.
+    public void saveItemImg(ItemImg itemImg, StoredImgDto storedImg){
         String imgName = "";
         String imgUrl = "";
 
-        //파일 업로드
-        if(!StringUtils.isEmpty(oriImgName)){
-            imgName = fileService.uploadFile(itemImgLocation, oriImgName,
-                    itemImgFile.getBytes());
-            imgUrl = "/images/item/" + imgName;
+        if(storedImg.isStored()){
+            imgName = storedImg.getImgName();
+            imgUrl = imgUrlOf(imgName);
+            retainImg(imgName, storedImg.getSize());
         }
 
         //상품 이미지 정보 저장
-        itemImg.updateItemImg(oriImgName, imgName, imgUrl);
+        itemImg.updateItemImg(storedImg.getOriImgName(), imgName, imgUrl);
         itemImgRepository.save(itemImg);
+
+        if("Y".equals(itemImg.getRepimgYn())){
+            catalogService.updateRepImgUrl(itemImg.getItem().getId(), imgUrl);
+        }
+        if(storedImg.isStored()){
+            eventPublisher.publishEvent(new ItemImgStoredEvent(itemImg));
+        }
     }
 
-    public void updateItemImg(Long itemImgId, MultipartFile itemImgFile) throws Exception{
-        if(!itemImgFile.isEmpty()){
+    public void updateItemImg(Long itemImgId, StoredImgDto storedImg){
+        if(storedImg.isStored()){
             ItemImg savedItemImg = itemImgRepository.findById(itemImgId)
                     .orElseThrow(EntityNotFoundException::new);
 
-            //기존 이미지 파일 삭제
-            if(!StringUtils.isEmpty(savedItemImg.getImgName())) {
-                fileService.deleteFile(itemImgLocation+"/"+
-                        savedItemImg.getImgName());
+            //새 파일의 참조를 먼저 늘린 뒤 기존 파일 참조를 줄임. (같은 파일을 다시 올린 경우 지워지지 않도록)
+            String oldImgName = savedItemImg.getImgName();
+            String imgName = storedImg.getImgName();
+            String imgUrl = imgUrlOf(imgName);
+            retainImg(imgName, storedImg.getSize());
+            if(!StringUtils.isEmpty(oldImgName)) {
+                releaseImg(oldImgName);
+            }
+            savedItemImg.updateItemImg(storedImg.getOriImgName(), imgName, imgUrl);
+
+            if("Y".equals(savedItemImg.getRepimgYn())){
+                catalogService.updateRepImgUrl(savedItemImg.getItem().getId(), imgUrl);
+            }
+            eventPublisher.publishEvent(new ItemImgStoredEvent(savedItemImg));
+        }
+    }
+
+    // 저장 파일명 -> 조회 경로. ("/images/item/ab/cd/파일명")
+    public static String imgUrlOf(String imgName){
+        return IMG_URL_PREFIX + ImgShard.relativePath(imgName);
+    }
+
+    // 썸네일 생성이 끝난 이미지에 경로를 기록. 대표 이미지면 목록용 읽기 테이블도 썸네일로 바꿈.
+    // 만드는 사이 이미지가 교체되었거나 삭제되었으면(imgName 이 다르면) 반영하지 않고 false.
+    // 커밋 직후 콜백 안에서 불려도 끝난 트랜잭션에 참여하지 않고 따로 커밋되도록 새 트랜잭션으로 실행.
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean updateThumbImgUrl(Long itemImgId, String imgName, String thumbImgUrl){
+        ItemImg itemImg = itemImgRepository.findById(itemImgId).orElse(null);
+        if(itemImg == null || !imgName.equals(itemImg.getImgName())){
+            return false;
+        }
+        itemImg.setThumbImgUrl(thumbImgUrl);
+        if("Y".equals(itemImg.getRepimgYn())){
+            catalogService.updateRepImgUrl(itemImg.getItem().getId(), thumbImgUrl);
+        }
+        return true;
+    }
+
+    // 업로드가 같은 이름의 기존 파일을 다시 쓸지 확인하기 전에 호출. 참조 행을 잠그고(없으면 만들고) 예약 시각을 남김.
+    // 참조 수가 0 이 된 파일을 지우는 쪽(purgeImg)도 같은 행 잠금을 잡으므로, 예약이 먼저면 파일을 지우지 않고
+    // 지운 뒤에 예약하면 업로드는 파일이 없는 것을 보고 새로 씀.
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void reserveImg(String imgName){
+        ImgBlob imgBlob = imgBlobRepository.findWithLockByBlobName(imgName).orElse(null);
+        if(imgBlob == null){
+            imgBlob = ImgBlob.of(imgName, 0);
+            imgBlob = imgBlobRepository.save(imgBlob); //아이디를 직접 정하는 엔티티라 merge 된 사본이 관리 대상
+        }
+        imgBlob.setReservedAt(LocalDateTime.now());
+    }
+
+    // 참조 수가 0 이 되어 커밋된 파일을 행 잠금 안에서 다시 확인하고 deleteFiles 로 지운 뒤 행도 지움.
+    // 그 사이 다시 참조되었거나 reservedAfter 이후에 예약되었으면 남겨 두고 false.
+    // (예약만 하고 등록이 롤백된 파일은 고아 이미지 정리가 치움)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean purgeImg(String imgName, LocalDateTime reservedAfter, Runnable deleteFiles){
+        ImgBlob imgBlob = imgBlobRepository.findWithLockByBlobName(imgName).orElse(null);
+        if(imgBlob != null){
+            if(imgBlob.getRefCount() > 0
+                    || (imgBlob.getReservedAt() != null && imgBlob.getReservedAt().isAfter(reservedAfter))){
+                return false;
             }
+            imgBlobRepository.delete(imgBlob);
+        }
+        deleteFiles.run();
+        return true;
+    }
+
+    // 같은 내용의 파일은 한 번만 저장되므로 item_img 가 참조할 때마다 참조 수를 늘림.
+    private void retainImg(String imgName, long size){
+        ImgBlob imgBlob = imgBlobRepository.findWithLockByBlobName(imgName).orElse(null);
+        if(imgBlob == null){
+            imgBlob = ImgBlob.of(imgName, size);
+            imgBlob = imgBlobRepository.save(imgBlob);
+        }
+        imgBlob.setSize(size);
+        imgBlob.setRefCount(imgBlob.getRefCount() + 1);
+    }
 
-            String oriImgName = itemImgFile.getOriginalFilename();
-            String imgName = fileService.uploadFile(itemImgLocation, oriImgName, itemImgFile.getBytes());
-            String imgUrl = "/images/item/" + imgName;
-            savedItemImg.updateItemImg(oriImgName, imgName, imgUrl);
+    // 참조 수가 0 이 되면 커밋 뒤에 파일(원본, 썸네일)을 지움. 행은 지울 때까지 참조 수 0 으로 남겨 둠.
+    // 참조 행이 없는 파일은 내용 주소 저장 이전에 올라온 단독 파일이므로 바로 0 이 된 것으로 봄.
+    private void releaseImg(String imgName){
+        ImgBlob imgBlob = imgBlobRepository.findWithLockByBlobName(imgName).orElse(null);
+        if(imgBlob != null){
+            imgBlob.setRefCount(Math.max(0, imgBlob.getRefCount() - 1));
+            if(imgBlob.getRefCount() > 0){
+                return;
+            }
         }
+        eventPublisher.publishEvent(new ImgBlobReleasedEvent(imgName));
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,138 @@
+package com.example.ch7_8_test.service;
+
+import com.example.ch7_8_test.image.ImageResizer;
+import com.example.ch7_8_test.image.ImgShard;
+import com.example.ch7_8_test.repository.ItemImgJdbcRepository;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// 상품 이미지 폴더 최상위(나누기 전 배치)에 있는 파일을 나뉜 폴더(ImgShard)로 옮김.
+// BATCH_SIZE 개씩 먼저 디비의 조회 경로를 새 경로로 바꾸고(JDBC batch) 그 다음 파일을 I/O 스레드에서 동시에 옮김.
+// 중간에 멈춰도 다시 실행하면 남은 파일부터 이어서 하고, 그 사이 새 경로 요청은 이미지 서블릿이 예전 위치에서 찾아 줌.
+@Service
+@Log
+public class ItemImgShardMigrator {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final ItemImgJdbcRepository itemImgJdbcRepository;
+
+    private final Executor imageIoExecutor;
+
+    private final Path location;
+
+    private final boolean enabled;
+
+    public ItemImgShardMigrator(ItemImgJdbcRepository itemImgJdbcRepository,
+                                @Qualifier("imageIoExecutor") Executor imageIoExecutor,
+                                @Value("${itemImgLocation}") String itemImgLocation,
+                                @Value("${itemImgShardMigrationEnabled:true}") boolean enabled){
+        this.itemImgJdbcRepository = itemImgJdbcRepository;
+        this.imageIoExecutor = imageIoExecutor;
+        this.location = Paths.get(itemImgLocation);
+        this.enabled = enabled;
+    }
+
+    // 파일이 많으면 오래 걸리므로 시작을 막지 않도록 별도 스레드에서 실행. 옮길 파일이 없으면 바로 끝남.
+    @EventListener(ApplicationReadyEvent.class)
+    public void start(){
+        if(!enabled || !Files.isDirectory(location)){
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                migrate();
+            } catch (IOException | RuntimeException e) {
+                log.warning("이미지 폴더 나누기 실패, 다음 시작 때 이어서 진행 : " + e.getMessage());
+            }
+        }, "item-img-shard-migration");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public int migrate() throws IOException{
+        long start = System.currentTimeMillis();
+        int moved = 0;
+        List<Path> batch = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(location)) {
+            for (Path file : stream) {
+                if(isMovable(file)){
+                    batch.add(file);
+                }
+                if(batch.size() == BATCH_SIZE){
+                    moved += migrateBatch(batch);
+                    batch.clear();
+                }
+            }
+        }
+        moved += migrateBatch(batch);
+        if(moved > 0){
+            log.info("이미지 폴더 나누기 완료 : " + moved + "건, " + (System.currentTimeMillis() - start) + "ms");
+        }
+        return moved;
+    }
+
+    // 일반 파일이고 나뉜 위치가 따로 있는 것만. (업로드 임시 파일, 숨김 파일, 폴더 제외)
+    private static boolean isMovable(Path file){
+        String name = file.getFileName().toString();
+        return Files.isRegularFile(file) && !name.startsWith(".") && !name.endsWith(".tmp")
+                && !ImgShard.relativePath(name).equals(name);
+    }
+
+    private int migrateBatch(List<Path> batch){
+        if(batch.isEmpty()){
+            return 0;
+        }
+        List<String[]> urls = new ArrayList<>();
+        for (Path file : batch) {
+            String name = file.getFileName().toString();
+            if(!name.startsWith(ImgShard.THUMB_PREFIX)){
+                String thumbName = ItemImgVariantService.thumbNameOf(name, ImageResizer.formatOf(name));
+                urls.add(new String[]{name,
+                        ItemImgService.IMG_URL_PREFIX + name, ItemImgService.imgUrlOf(name),
+                        ItemImgService.IMG_URL_PREFIX + thumbName, ItemImgService.imgUrlOf(thumbName)});
+            }
+        }
+        itemImgJdbcRepository.moveImgUrls(urls);
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Path file : batch) {
+            futures.add(CompletableFuture.runAsync(() -> move(file), imageIoExecutor));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        return batch.size();
+    }
+
+    private void move(Path file){
+        Path target = ImgShard.pathOf(location, file.getFileName().toString());
+        try {
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // 같은 이름(같은 내용)이 이미 나뉜 위치에 있음.
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,211 @@
+package com.example.ch7_8_test.service;
+
+import com.example.ch7_8_test.entity.ItemImg;
+import com.example.ch7_8_test.event.ImgBlobReleasedEvent;
+import com.example.ch7_8_test.event.ItemImgStoredEvent;
+import com.example.ch7_8_test.image.ImageResizer;
+import com.example.ch7_8_test.image.ImgShard;
+import com.example.ch7_8_test.image.OffHeapImageCache;
+import com.example.ch7_8_test.repository.ItemImgRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.thymeleaf.util.StringUtils;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// 상품 이미지 원본 저장이 커밋되면 별도 스레드에서 목록용 썸네일을 만들고 item_img.thumbImgUrl 에 기록.
+// 메인, 장바구니, 주문 이력은 작은 카드로 보여주므로 원본 대신 썸네일을 내려서 페이지당 전송량을 줄임.
+// 대기열이 가득 차서 받지 못한 작업은 버리고, thumbnailRetryMillis 마다 썸네일이 없는 이미지를 다시 채움.
+// 원본은 내용 해시 이름으로 immutable 캐시되므로 여기서 고쳐 쓰지 않음. (최대 크기 제한은 저장할 때 ItemImgIngestService 가 적용)
+// 원본은 내용 해시 이름으로 공유되므로 썸네일도 원본 파일 하나당 하나만 만들고, 참조가 모두 없어지면 같이 지움.
+@Service
+@Log
+public class ItemImgVariantService {
+
+    private static final int BACKFILL_CHUNK_SIZE = 500;
+
+    private final ItemImgService itemImgService;
+
+    private final ItemImgRepository itemImgRepository;
+
+    private final OffHeapImageCache imageCache;
+
+    private final Executor thumbnailExecutor;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Path location;
+
+    private final int thumbSize;
+
+    private final Duration reserveGrace; //다시 올리는 중인 파일로 보는 시간 (고아 이미지 유예 시간과 같음)
+
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet(); //대기열에 있거나 만드는 중인 item_img 아이디
+
+    private final AtomicBoolean retryPending = new AtomicBoolean();
+
+    public ItemImgVariantService(ItemImgService itemImgService,
+                                 ItemImgRepository itemImgRepository,
+                                 OffHeapImageCache imageCache,
+                                 @Qualifier("thumbnailExecutor") Executor thumbnailExecutor,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${itemImgLocation}") String itemImgLocation,
+                                 @Value("${itemImgThumbSize:400}") int thumbSize,
+                                 @Value("${orphanImgGraceMinutes:60}") long graceMinutes){
+        this.itemImgService = itemImgService;
+        this.itemImgRepository = itemImgRepository;
+        this.imageCache = imageCache;
+        this.thumbnailExecutor = thumbnailExecutor;
+        this.meterRegistry = meterRegistry;
+        this.location = Paths.get(itemImgLocation);
+        this.thumbSize = thumbSize;
+        this.reserveGrace = Duration.ofMinutes(graceMinutes);
+    }
+
+    @TransactionalEventListener
+    public void onItemImgStored(ItemImgStoredEvent event){
+        submit(event.getItemImgId(), event.getImgName());
+    }
+
+    // 같은 내용이 다시 올라와 참조되었거나 올라오는 중이면(유예 시간 안에 예약) 남겨 둠. (ItemImgService.purgeImg)
+    @TransactionalEventListener
+    public void onImgBlobReleased(ImgBlobReleasedEvent event){
+        String imgName = event.getBlobName();
+        Path[] files = {ImgShard.locate(location, imgName),
+                ImgShard.locate(location, thumbNameOf(imgName, ImageResizer.formatOf(imgName)))};
+        boolean purged = itemImgService.purgeImg(imgName, LocalDateTime.now().minus(reserveGrace), () -> {
+            for (Path file : files) {
+                imageCache.invalidate(file);
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+        count(purged ? "purged" : "kept");
+    }
+
+    // 썸네일 기능 이전에 올라온 이미지도 목록에서 작은 이미지를 쓰도록 채움.
+    // 대기열이 가득 차면 멈추고 다음 재시도 주기에 이어서 채움.
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill(){
+        Long lastId = 0L;
+        while(true){
+            List<ItemImg> itemImgs = itemImgRepository.findByIdGreaterThanAndThumbImgUrlIsNullOrderByIdAsc(lastId,
+                    PageRequest.of(0, BACKFILL_CHUNK_SIZE));
+            for (ItemImg itemImg : itemImgs) {
+                if(!StringUtils.isEmpty(itemImg.getImgName()) && !submit(itemImg.getId(), itemImg.getImgName())){
+                    return;
+                }
+            }
+            if(itemImgs.size() < BACKFILL_CHUNK_SIZE){
+                break;
+            }
+            lastId = itemImgs.get(itemImgs.size() - 1).getId();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${thumbnailRetryMillis:10000}")
+    public void retryRejected(){
+        if(retryPending.compareAndSet(true, false)){
+            backfill();
+        }
+    }
+
+    // 이미 대기 중인 이미지는 다시 넣지 않음. 받지 못했으면 false.
+    private boolean submit(Long itemImgId, String imgName){
+        if(!inFlight.add(itemImgId)){
+            return true;
+        }
+        try {
+            thumbnailExecutor.execute(() -> {
+                try {
+                    createVariants(itemImgId, imgName);
+                } catch (IOException | RuntimeException e) {
+                    count("fail");
+                    log.warning("썸네일 생성 실패 : " + imgName + " : " + e.getMessage());
+                } finally {
+                    inFlight.remove(itemImgId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(itemImgId);
+            retryPending.set(true);
+            count("rejected");
+            return false;
+        }
+    }
+
+    public void createVariants(Long itemImgId, String imgName) throws IOException{
+        Path original = ImgShard.locate(location, imgName);
+        if(!Files.exists(original)){
+            count("missing");
+            return;
+        }
+        String format = ImageResizer.formatOf(imgName);
+        String thumbName = thumbNameOf(imgName, format);
+        Path thumb = ImgShard.locate(location, thumbName);
+        if(Files.exists(thumb)){
+            // 같은 파일을 쓰는 다른 상품 이미지 때문에 이미 만들어져 있음.
+            recordThumb(itemImgId, imgName, thumb);
+            return;
+        }
+
+        BufferedImage image = ImageResizer.read(original);
+        if(image == null){
+            count("unsupported"); //imageio 가 읽지 못하는 형식은 원본을 그대로 씀
+            return;
+        }
+
+        Files.createDirectories(thumb.getParent());
+        ImageResizer.write(ImageResizer.resize(image, thumbSize, thumbSize, "png".equals(format)), format, thumb);
+        recordThumb(itemImgId, imgName, thumb);
+    }
+
+    private void recordThumb(Long itemImgId, String imgName, Path thumb) throws IOException{
+        if(itemImgService.updateThumbImgUrl(itemImgId, imgName, ItemImgService.imgUrlOf(thumb.getFileName().toString()))){
+            count("ok");
+        } else {
+            // 만드는 사이 이미지가 바뀌었고 원본도 지워졌으면 아무도 쓰지 않는 썸네일이므로 지움.
+            if(!Files.exists(ImgShard.locate(location, imgName))){
+                Files.deleteIfExists(thumb);
+            }
+            count("stale");
+        }
+    }
+
+    // thumb_<원본 이름>.jpg (png 는 .png)
+    public static String thumbNameOf(String imgName, String format){
+        int dot = imgName.lastIndexOf('.');
+        String base = dot < 0 ? imgName : imgName.substring(0, dot);
+        return ImgShard.THUMB_PREFIX + base + "." + format;
+    }
+
+    private void count(String result){
+        meterRegistry.counter("item.img.thumbnail", "result", result).increment();
+    }
+
+}
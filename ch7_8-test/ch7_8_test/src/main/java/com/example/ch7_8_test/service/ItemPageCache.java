@@ -0,0 +1,203 @@
+package com.example.ch7_8_test.service;
+
+import com.example.ch7_8_test.event.ItemChangedEvent;
+import com.example.ch7_8_test.event.OrderPlacedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// 같은 검색 조건의 상품 목록 결과 캐시. (LRU + TTL)
+// 같은 키로 동시에 캐시가 비어 있으면 첫 요청만 조회하고 나머지는 그 결과를 기다림. (single-flight)
+// 결과에 들어있는 상품 아이디를 태그로 들고 있다가 해당 상품이 수정되면 그 결과만 지움.
+// 새 상품 등록은 어느 목록에든 들어갈 수 있으므로 전체를 비움. 수정으로 다른 목록에 새로 들어가는 경우는 TTL 안에 반영됨.
+// 주문은 재고/인기순을 바꾸므로 주문된 상품이 든 결과를 지움.
+// 값은 엔티티가 아닌 불변 DTO(AdminItemDto, MainItemDto) 페이지만 담음. (영속성 컨텍스트와 무관하게 여러 요청이 공유)
+// 캐시 계층 : 건수(ItemCountCache) < 목록(ItemPageCache) < 비로그인 메인 html(MainPageCacheFilter).
+// 무효화는 아래 계층부터 해야 위 계층이 지워진 직후 낡은 아래 계층 값으로 다시 채워지지 않으므로 리스너 순서를 @Order 로 고정함.
+@Component
+public class ItemPageCache {
+
+    private final Object lock = new Object();
+
+    private final LinkedHashMap<String, CachedPage> pages = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Map<Long, Set<String>> keysByItem = new HashMap<>();
+
+    private final Map<String, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+
+    private final int maxEntries;
+
+    private final long ttlMillis;
+
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
+
+    private final Counter coalescedCounter;
+
+    private long generation; //무효화 횟수. 조회 도중 무효화되면 그 결과는 저장하지 않음.
+
+    public ItemPageCache(@Value("${itemPageCacheMaxEntries:1000}") int maxEntries,
+                         @Value("${itemPageCacheTtlSeconds:10}") long ttlSeconds,
+                         MeterRegistry meterRegistry){
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.hitCounter = meterRegistry.counter("item.page.cache", "result", "hit");
+        this.missCounter = meterRegistry.counter("item.page.cache", "result", "miss");
+        this.coalescedCounter = meterRegistry.counter("item.page.cache", "result", "coalesced");
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader, Function<T, Collection<Long>> itemIdsOf){
+        long startGeneration;
+        synchronized (lock) {
+            CachedPage cached = pages.get(key);
+            if(cached != null && cached.expireAt > System.currentTimeMillis()){
+                hitCounter.increment();
+                return (T) cached.value;
+            }
+            startGeneration = generation;
+        }
+
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loading.putIfAbsent(key, future);
+        if(inFlight != null){
+            coalescedCounter.increment();
+            try {
+                return (T) inFlight.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        missCounter.increment();
+        try {
+            T value = loader.get();
+            putIfCurrent(key, value, itemIdsOf.apply(value), startGeneration);
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    @Order(1)
+    @TransactionalEventListener
+    public void onItemChanged(ItemChangedEvent event){
+        if(event.isCreated()){
+            clear();
+        } else {
+            invalidateItem(event.getItemId());
+        }
+    }
+
+    @Order(1)
+    @TransactionalEventListener
+    public void onOrderPlaced(OrderPlacedEvent event){
+        for (Long itemId : event.getItemCounts().keySet()) {
+            invalidateItem(itemId);
+        }
+    }
+
+    public void invalidateItem(Long itemId){
+        synchronized (lock) {
+            generation++;
+            Set<String> keys = keysByItem.remove(itemId);
+            if(keys != null){
+                for (String key : keys) {
+                    removeLocked(key);
+                }
+            }
+        }
+    }
+
+    public void clear(){
+        synchronized (lock) {
+            generation++;
+            pages.clear();
+            keysByItem.clear();
+        }
+    }
+
+    public int size(){
+        synchronized (lock) {
+            return pages.size();
+        }
+    }
+
+    private void putIfCurrent(String key, Object value, Collection<Long> itemIds, long startGeneration){
+        synchronized (lock) {
+            if(generation != startGeneration){
+                return;
+            }
+            removeLocked(key);
+            pages.put(key, new CachedPage(value, itemIds, System.currentTimeMillis() + ttlMillis));
+            for (Long itemId : itemIds) {
+                keysByItem.computeIfAbsent(itemId, id -> new HashSet<>()).add(key);
+            }
+
+            // 접근 순서로 정렬되어 있으므로 앞에서부터 가장 오래 안 쓴 결과.
+            Iterator<Map.Entry<String, CachedPage>> eldest = pages.entrySet().iterator();
+            while(pages.size() > maxEntries && eldest.hasNext()){
+                Map.Entry<String, CachedPage> entry = eldest.next();
+                untagLocked(entry.getKey(), entry.getValue());
+                eldest.remove();
+            }
+        }
+    }
+
+    private void removeLocked(String key){
+        CachedPage cached = pages.remove(key);
+        if(cached != null){
+            untagLocked(key, cached);
+        }
+    }
+
+    private void untagLocked(String key, CachedPage cached){
+        for (Long itemId : cached.itemIds) {
+            Set<String> keys = keysByItem.get(itemId);
+            if(keys != null){
+                keys.remove(key);
+                if(keys.isEmpty()){
+                    keysByItem.remove(itemId);
+                }
+            }
+        }
+    }
+
+    private static class CachedPage {
+
+        private final Object value;
+
+        private final Collection<Long> itemIds;
+
+        private final long expireAt;
+
+        private CachedPage(Object value, Collection<Long> itemIds, long expireAt){
+            this.value = value;
+            this.itemIds = itemIds;
+            this.expireAt = expireAt;
+        }
+
+    }
+
+}
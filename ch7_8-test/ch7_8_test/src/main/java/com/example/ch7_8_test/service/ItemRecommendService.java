@@ -0,0 +1,153 @@
+package com.example.ch7_8_test.service;
+
+import com.example.ch7_8_test.dto.MainItemDto;
+import com.example.ch7_8_test.dto.OrderItemIdDto;
+import com.example.ch7_8_test.event.OrderPlacedEvent;
+import com.example.ch7_8_test.repository.OrderItemRepository;
+import com.example.ch7_8_test.search.CoPurchaseMatrix;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// 함께 구매한 상품 추천. 주문 커밋마다 메모리의 동시 구매 행렬을 갱신하고, 상품 상세에서는 상위 K개 배열만 읽음.
+// 주문 취소는 바로 빼지 않고 주기적인 재생성(취소되지 않은 주문만 읽음) 때 반영됨.
+@Service
+@RequiredArgsConstructor
+@Log
+public class ItemRecommendService {
+
+    public static final int TOP_SIZE = 8;
+
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+
+    private final OrderItemRepository orderItemRepository;
+
+    private final CatalogService catalogService;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private CoPurchaseMatrix matrix = new CoPurchaseMatrix(TOP_SIZE);
+
+    private List<OrderPlacedEvent> pendingEvents; //재생성 도중 들어온 주문. 재생성이 끝나면 새 행렬에 다시 반영.
+
+    // 주문 이력을 주문 아이디 순으로 끊어 읽어서 새 행렬을 만든 뒤 한 번에 교체. 만드는 동안에도 기존 행렬로 조회됨.
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${coPurchaseRebuildCron:0 0 4 * * *}")
+    public synchronized void rebuild(){
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pendingEvents = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        CoPurchaseMatrix rebuilt = new CoPurchaseMatrix(TOP_SIZE);
+        Roaring64Bitmap rebuiltOrderIds = new Roaring64Bitmap(); //디비에서 읽어 새 행렬에 반영한 주문
+        Long lastOrderId = 0L;
+        boolean completed = false;
+        try {
+            while(true){
+                List<Long> orderIds = orderItemRepository.findOrderIdsAfter(lastOrderId,
+                        PageRequest.of(0, REBUILD_CHUNK_SIZE));
+                if(orderIds.isEmpty()){
+                    break;
+                }
+                Long toOrderId = orderIds.get(orderIds.size() - 1);
+                addOrders(rebuilt, rebuiltOrderIds, orderItemRepository.findOrderItemIds(lastOrderId, toOrderId));
+                lastOrderId = toOrderId;
+                if(orderIds.size() < REBUILD_CHUNK_SIZE){
+                    break;
+                }
+            }
+            completed = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                List<OrderPlacedEvent> events = pendingEvents;
+                pendingEvents = null;
+                // 중간에 실패하면 기존 행렬을 그대로 씀. (기존 행렬에는 그동안의 주문도 반영되어 있음)
+                if(completed){
+                    // 디비에서 읽지 못한 주문만 다시 반영. 주문 아이디는 커밋 순서가 아니라 insert 때 정해지므로
+                    // 아이디 크기로 나누면 읽은 구간 뒤에 커밋된 작은 아이디는 빠지고, 이미 읽은 큰 아이디는 두 번 더해짐.
+                    for (OrderPlacedEvent event : events) {
+                        if(!rebuiltOrderIds.contains(event.getOrderId())){
+                            rebuilt.addOrder(itemIdsOf(event));
+                        }
+                    }
+                    matrix = rebuilt;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        log.info("동시 구매 행렬 생성 완료 : " + matrix.size() + "건, " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    @TransactionalEventListener
+    public void onOrderPlaced(OrderPlacedEvent event){
+        lock.writeLock().lock();
+        try {
+            matrix.addOrder(itemIdsOf(event));
+            if(pendingEvents != null){
+                pendingEvents.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 함께 구매한 상품 중 판매중인 상품. 추천 아이디는 메모리에서, 목록 값은 catalog_entry 에서 아이디로만 조회.
+    public List<MainItemDto> getAlsoBoughtItems(Long itemId){
+        long[] neighbourIds;
+        lock.readLock().lock();
+        try {
+            neighbourIds = matrix.neighbours(itemId, TOP_SIZE);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Long> ids = new ArrayList<>();
+        for (long neighbourId : neighbourIds) {
+            ids.add(neighbourId);
+        }
+        return catalogService.getMainItems(ids);
+    }
+
+    // 주문 아이디 순으로 정렬된 행을 주문 단위로 묶어서 반영.
+    private static void addOrders(CoPurchaseMatrix target, Roaring64Bitmap orderIds, List<OrderItemIdDto> rows){
+        List<Long> itemIds = new ArrayList<>();
+        Long orderId = null;
+        for (OrderItemIdDto row : rows) {
+            if(!row.getOrderId().equals(orderId)){
+                target.addOrder(toArray(itemIds));
+                itemIds.clear();
+                orderId = row.getOrderId();
+                orderIds.addLong(orderId);
+            }
+            itemIds.add(row.getItemId());
+        }
+        target.addOrder(toArray(itemIds));
+    }
+
+    private static long[] itemIdsOf(OrderPlacedEvent event){
+        return toArray(event.getItemCounts().keySet());
+    }
+
+    private static long[] toArray(Collection<Long> ids){
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+}
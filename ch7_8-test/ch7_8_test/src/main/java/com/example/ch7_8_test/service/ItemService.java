@@ -1,23 +1,39 @@
 package com.example.ch7_8_test.service;
 
+import com.example.ch7_8_test.constant.CountMode;
+import com.example.ch7_8_test.dto.AdminItemDto;
+import com.example.ch7_8_test.dto.ItemFacetDto;
 import com.example.ch7_8_test.dto.ItemFormDto;
 import com.example.ch7_8_test.dto.ItemImgDto;
 import com.example.ch7_8_test.dto.ItemSearchDto;
 import com.example.ch7_8_test.dto.MainItemDto;
+import com.example.ch7_8_test.dto.StoredImgDto;
 import com.example.ch7_8_test.entity.Item;
 import com.example.ch7_8_test.entity.ItemImg;
+import com.example.ch7_8_test.event.ItemChangedEvent;
 import com.example.ch7_8_test.repository.ItemImgRepository;
 import com.example.ch7_8_test.repository.ItemRepository;
+import com.example.ch7_8_test.search.ItemFacetIndex;
+import com.example.ch7_8_test.search.ItemSearchIndex;
+import com.example.ch7_8_test.search.ItemSpellCorrector;
+import com.example.ch7_8_test.search.RegDayBuckets;
 import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
+import org.thymeleaf.util.StringUtils;
 
 import javax.persistence.EntityNotFoundException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 @Service
 @Transactional
@@ -28,16 +44,30 @@ public class ItemService {
 
     private final ItemImgService itemImgService;
 
+    private final CatalogService catalogService;
+
     private final ItemImgRepository itemImgRepository;
 
-    public Long saveItem(ItemFormDto itemFormDto, List<MultipartFile> itemImgFileList) throws Exception{
+    private final ItemSearchIndex itemSearchIndex;
+
+    private final ItemFacetIndex itemFacetIndex;
+
+    private final ItemSpellCorrector itemSpellCorrector;
+
+    private final ItemPageCache itemPageCache;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    // 이미지 파일은 ItemImgIngestService.ingest 로 미리 저장한 결과를 받음. (트랜잭션 안에서는 행만 씀)
+    public Long saveItem(ItemFormDto itemFormDto, List<StoredImgDto> storedImgList){
 
         //상품 등록
         Item item = itemFormDto.createItem();
         itemRepository.save(item);
+        catalogService.saveItem(item);
 
         //이미지 등록
-        for(int i=0;i<itemImgFileList.size();i++){
+        for(int i=0;i<storedImgList.size();i++){
             ItemImg itemImg = new ItemImg();
             itemImg.setItem(item);
 
@@ -46,9 +76,12 @@ public class ItemService {
             else
                 itemImg.setRepimgYn("N");
 
-            itemImgService.saveItemImg(itemImg, itemImgFileList.get(i));
+            itemImgService.saveItemImg(itemImg, storedImgList.get(i));
         }
 
+        //커밋 이후 메모리 색인 갱신
+        eventPublisher.publishEvent(new ItemChangedEvent(item, true));
+
         return item.getId();
     }
 
@@ -68,30 +101,132 @@ public class ItemService {
         return itemFormDto;
     }
 
-    public Long updateItem(ItemFormDto itemFormDto, List<MultipartFile> itemImgFileList) throws Exception{
+    public Long updateItem(ItemFormDto itemFormDto, List<StoredImgDto> storedImgList){
         //상품 수정
         Item item = itemRepository.findById(itemFormDto.getId())
                 .orElseThrow(EntityNotFoundException::new);
         item.updateItem(itemFormDto);
+        catalogService.saveItem(item);
         List<Long> itemImgIds = itemFormDto.getItemImgIds();
 
         //이미지 등록
-        for(int i=0;i<itemImgFileList.size();i++){
+        for(int i=0;i<storedImgList.size();i++){
             itemImgService.updateItemImg(itemImgIds.get(i),
-                    itemImgFileList.get(i));
+                    storedImgList.get(i));
         }
 
+        eventPublisher.publishEvent(new ItemChangedEvent(item, false));
+
         return item.getId();
     }
 
     @Transactional(readOnly = true)
-    public Page<Item> getAdminItemPage(ItemSearchDto itemSearchDto, Pageable pageable){
-        return itemRepository.getAdminItemPage(itemSearchDto, pageable);
+    public Page<AdminItemDto> getAdminItemPage(ItemSearchDto itemSearchDto, Pageable pageable, CountMode countMode){
+        String key = "admin|" + normalize(itemSearchDto.getSearchBy()) + "|" + searchKey(itemSearchDto, pageable, countMode);
+        return itemPageCache.get(key, () -> loadAdminItemPage(itemSearchDto, pageable, countMode),
+                page -> page.map(AdminItemDto::getId).getContent());
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<MainItemDto> getMainItemPage(ItemSearchDto itemSearchDto, Pageable pageable, CountMode countMode){
+        String key = "main|" + searchKey(itemSearchDto, pageable, countMode);
+        return itemPageCache.get(key, () -> loadMainItemPage(itemSearchDto, pageable, countMode),
+                page -> page.map(MainItemDto::getId).getContent());
+    }
+
+    // 검색어는 앞뒤 공백, 연속 공백, 대소문자를 정리하고 등록일은 시작일로 바꿔서 같은 검색이 같은 키가 되게 함.
+    private static String searchKey(ItemSearchDto itemSearchDto, Pageable pageable, CountMode countMode){
+        return normalize(itemSearchDto.getSearchQuery()) + "|" + itemSearchDto.getSearchSellStatus()
+                + "|" + itemSearchDto.getSearchPriceBand() + "|" + RegDayBuckets.cutoffDay(itemSearchDto.getSearchDateType())
+                + "|" + normalize(itemSearchDto.getSort()) + "|" + pageable.getPageNumber() + "|" + pageable.getPageSize() + "|" + countMode;
+    }
+
+    private static String normalize(String value){
+        return value == null ? "" : value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private Page<AdminItemDto> loadAdminItemPage(ItemSearchDto itemSearchDto, Pageable pageable, CountMode countMode){
+        // 검색어 없이 판매상태/등록일을 고른 경우는 비트맵 교집합으로 아이디와 건수를 구하고 해당 페이지만 조회.
+        // (건수는 메모리에서 정확히 나오므로 countMode 가 필요 없음) 필터가 없으면 countMode 대로 디비에서 조회.
+        if(StringUtils.isEmpty(itemSearchDto.getSearchQuery()) && ItemFacetIndex.hasFilter(itemSearchDto)
+                && itemFacetIndex.isReady()){
+            RoaringBitmap filtered = itemFacetIndex.filter(itemSearchDto);
+            List<Long> itemIds = ItemFacetIndex.page(filtered, pageable.getOffset(), pageable.getPageSize());
+            List<AdminItemDto> content = itemRepository.getAdminItemsByIds(itemIds);
+            // 색인과 디비가 어긋나 빠진 상품이 있으면 건수와 목록이 맞지 않으므로 디비 조회로 넘김.
+            if(content.size() == itemIds.size()){
+                return new PageImpl<>(content, pageable, filtered.getCardinality());
+            }
+        }
+
+        return itemRepository.getAdminItemPage(itemSearchDto, pageable, countMode);
+    }
+
+    private Slice<MainItemDto> loadMainItemPage(ItemSearchDto itemSearchDto, Pageable pageable, CountMode countMode){
+        RoaringBitmap filtered = ItemFacetIndex.hasFilter(itemSearchDto) && itemFacetIndex.isReady()
+                ? itemFacetIndex.filter(itemSearchDto) : null;
+
+        // 검색어가 있으면 like 스캔 대신 메모리 색인에서 순위대로 아이디를 찾고, 해당 페이지만 디비에서 조회.
+        if(!StringUtils.isEmpty(itemSearchDto.getSearchQuery()) && itemSearchIndex.isReady()){
+            ItemSearchIndex.SearchResult result = itemSearchIndex.search(itemSearchDto.getSearchQuery(),
+                    (int) pageable.getOffset(), pageable.getPageSize(),
+                    filtered == null ? null : itemId -> filtered.contains((int) itemId));
+            List<MainItemDto> content = itemRepository.getMainItemsByIds(result.getItemIds());
+            // catalog_entry 가 아직 없는 상품처럼 빠진 아이디가 있으면 건수와 목록이 맞지 않으므로 디비 조회로 넘김.
+            if(content.size() == result.getItemIds().size()){
+                return new PageImpl<>(content, pageable, result.getTotal());
+            }
+        }
+
+        // 인기순은 popularity 색인 순서로 디비에서 바로 조회. (필터도 디비에서 거름)
+        if(ItemSearchDto.SORT_POPULAR.equals(itemSearchDto.getSort())){
+            return itemRepository.getMainItemPage(itemSearchDto, pageable, countMode);
+        }
+
+        if(filtered != null){
+            List<Long> itemIds = ItemFacetIndex.page(filtered, pageable.getOffset(), pageable.getPageSize());
+            List<MainItemDto> content = itemRepository.getMainItemsByIds(itemIds);
+            // 색인과 디비가 어긋나 빠진 상품이 있으면 디비 조회로 넘김. (관리 목록과 같음)
+            if(content.size() == itemIds.size()){
+                return new PageImpl<>(content, pageable, filtered.getCardinality());
+            }
+        }
+
+        return itemRepository.getMainItemPage(itemSearchDto, pageable, countMode);
+    }
+
+    // 관리 화면 등록일 선택지 옆에 보여줄 기간별 상품 수. 색인이 준비되기 전에는 null.
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Map<String, Long> getRegDateCounts(){
+        return itemFacetIndex.isReady() ? itemFacetIndex.regDateCounts() : null;
+    }
+
+    // 필터별 건수는 메모리 비트맵으로만 계산하므로 트랜잭션(커넥션)을 열지 않음.
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public ItemFacetDto getMainItemFacets(ItemSearchDto itemSearchDto){
+        if(!itemFacetIndex.isReady()){
+            return null;
+        }
+
+        RoaringBitmap base = null;
+        if(!StringUtils.isEmpty(itemSearchDto.getSearchQuery()) && itemSearchIndex.isReady()){
+            base = new RoaringBitmap();
+            for (long itemId : itemSearchIndex.matchingIds(itemSearchDto.getSearchQuery())) {
+                base.add((int) itemId);
+            }
+        }
+        return itemFacetIndex.facetCounts(itemSearchDto, base);
+    }
+
+    // 오타 교정된 검색어. 교정할 단어가 없으면 null. (메모리 사전만 조회하므로 트랜잭션을 열지 않음)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public String correctSearchQuery(String searchQuery){
+        return itemSpellCorrector.correct(searchQuery);
     }
 
     @Transactional(readOnly = true)
-    public Page<MainItemDto> getMainItemPage(ItemSearchDto itemSearchDto, Pageable pageable){
-        return itemRepository.getMainItemPage(itemSearchDto, pageable);
+    public Slice<MainItemDto> getMainItemSlice(ItemSearchDto itemSearchDto, Long afterId, int size){
+        return itemRepository.getMainItemSlice(itemSearchDto, afterId, size);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,198 @@
+package com.example.ch7_8_test.service;
+
+import com.example.ch7_8_test.dto.ItemSalesDto;
+import com.example.ch7_8_test.dto.ItemSuggestDto;
+import com.example.ch7_8_test.entity.Item;
+import com.example.ch7_8_test.event.ItemChangedEvent;
+import com.example.ch7_8_test.event.OrderPlacedEvent;
+import com.example.ch7_8_test.repository.ItemRepository;
+import com.example.ch7_8_test.repository.OrderItemRepository;
+import com.example.ch7_8_test.search.HangulJamo;
+import com.example.ch7_8_test.search.JamoPrefixTrie;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// 검색창 자동완성. 키 입력마다 디비를 조회하지 않도록 상품명 자모 트라이를 메모리에 두고 판매량 순으로 돌려줌.
+// 조회는 트랜잭션(커넥션)이 필요 없으므로 @Transactional 을 붙이지 않음.
+@Service
+@RequiredArgsConstructor
+@Log
+public class ItemSuggestService {
+
+    public static final int MAX_SUGGEST_SIZE = 10;
+
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+
+    private final OrderItemRepository orderItemRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private SuggestIndex index = new SuggestIndex();
+
+    private List<Object> pendingEvents; //재생성 도중 들어온 상품 변경/주문. 재생성이 끝나면 새 트라이에 다시 반영.
+
+    // 새 트라이를 잠금 밖에서 만든 뒤 한 번에 교체. 만드는 동안에도 기존 트라이로 조회됨.
+    // 판매량 집계 직전에 커밋된 주문은 두 번 더해질 수 있으나 순위에만 쓰는 값이라 무시함.
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild(){
+        lock.writeLock().lock();
+        try {
+            pendingEvents = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        SuggestIndex rebuilt = new SuggestIndex();
+        boolean completed = false;
+        try {
+            for (ItemSalesDto itemSalesDto : orderItemRepository.findItemSalesList()) {
+                rebuilt.salesCounts.put(itemSalesDto.getItemId(), itemSalesDto.getSalesCount());
+            }
+
+            Long lastId = 0L;
+            while(true){
+                List<Item> items = itemRepository.findByIdGreaterThanOrderByIdAsc(lastId,
+                        PageRequest.of(0, REBUILD_CHUNK_SIZE));
+                for (Item item : items) {
+                    rebuilt.putItem(item.getId(), item.getItemNm());
+                }
+                if(items.size() < REBUILD_CHUNK_SIZE){
+                    break;
+                }
+                lastId = items.get(items.size() - 1).getId();
+            }
+            completed = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                List<Object> events = pendingEvents;
+                pendingEvents = null;
+                // 중간에 실패하면 기존 트라이를 그대로 씀. (기존 트라이에는 그동안의 변경도 반영되어 있음)
+                if(completed){
+                    for (Object event : events) {
+                        rebuilt.apply(event);
+                    }
+                    index = rebuilt;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        log.info("자동완성 트라이 생성 완료 : " + index.itemNms.size() + "건");
+    }
+
+    @TransactionalEventListener
+    public void onItemChanged(ItemChangedEvent event){
+        applyLocked(event);
+    }
+
+    @TransactionalEventListener
+    public void onOrderPlaced(OrderPlacedEvent event){
+        applyLocked(event);
+    }
+
+    private void applyLocked(Object event){
+        lock.writeLock().lock();
+        try {
+            index.apply(event);
+            if(pendingEvents != null){
+                pendingEvents.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ItemSuggestDto> suggest(String query, int size){
+        String prefix = HangulJamo.decompose(query.trim());
+        List<ItemSuggestDto> suggestions = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            for (long itemId : index.trie.search(prefix, Math.max(1, Math.min(size, MAX_SUGGEST_SIZE)))) {
+                suggestions.add(new ItemSuggestDto(itemId, index.itemNms.get(itemId)));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return suggestions;
+    }
+
+    // "블랙 스웨터" 는 "블랙 스웨터", "스웨터" 두 키로 넣어서 중간 단어부터 입력해도 찾을 수 있게 함.
+    private static Set<String> keysOf(String itemNm){
+        Set<String> keys = new LinkedHashSet<>();
+        String trimmed = itemNm.trim();
+        for(int i=0;i<trimmed.length();i++){
+            if(i == 0 || (trimmed.charAt(i - 1) == ' ' && trimmed.charAt(i) != ' ')){
+                keys.add(HangulJamo.decompose(trimmed.substring(i)));
+            }
+        }
+        return keys;
+    }
+
+    // 상품명, 판매량, 트라이 묶음. 잠금 없이 만들 수 있도록 서비스와 분리. (만든 뒤에는 lock 안에서만 사용)
+    private static class SuggestIndex {
+
+        private final Map<Long, String> itemNms = new HashMap<>();
+
+        private final Map<Long, Long> salesCounts = new HashMap<>();
+
+        private final JamoPrefixTrie trie = new JamoPrefixTrie(MAX_SUGGEST_SIZE,
+                itemId -> salesCounts.getOrDefault(itemId, 0L));
+
+        private void apply(Object event){
+            if(event instanceof ItemChangedEvent){
+                ItemChangedEvent itemChangedEvent = (ItemChangedEvent) event;
+                putItem(itemChangedEvent.getItemId(), itemChangedEvent.getItemNm());
+            } else if(event instanceof OrderPlacedEvent){
+                addSales((OrderPlacedEvent) event);
+            }
+        }
+
+        private void putItem(Long itemId, String itemNm){
+            String oldItemNm = itemNms.put(itemId, itemNm);
+            if(oldItemNm != null){
+                if(oldItemNm.equals(itemNm)){
+                    return;
+                }
+                for (String key : keysOf(oldItemNm)) {
+                    trie.remove(itemId, key);
+                }
+            }
+            for (String key : keysOf(itemNm)) {
+                trie.insert(itemId, key);
+            }
+        }
+
+        private void addSales(OrderPlacedEvent event){
+            for (Map.Entry<Long, Integer> entry : event.getItemCounts().entrySet()) {
+                salesCounts.merge(entry.getKey(), (long) entry.getValue(), Long::sum);
+                String itemNm = itemNms.get(entry.getKey());
+                if(itemNm != null){
+                    for (String key : keysOf(itemNm)) {
+                        trie.promote(entry.getKey(), key);
+                    }
+                }
+            }
+        }
+
+    }
+
+}
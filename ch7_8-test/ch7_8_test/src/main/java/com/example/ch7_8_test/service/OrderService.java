@@ -4,11 +4,13 @@ import com.example.ch7_8_test.dto.OrderDto;
 import com.example.ch7_8_test.dto.OrderHistDto;
 import com.example.ch7_8_test.dto.OrderItemDto;
 import com.example.ch7_8_test.entity.*;
+import com.example.ch7_8_test.event.OrderPlacedEvent;
 import com.example.ch7_8_test.repository.ItemImgRepository;
 import com.example.ch7_8_test.repository.ItemRepository;
 import com.example.ch7_8_test.repository.MemberRepository;
 import com.example.ch7_8_test.repository.OrderRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -37,6 +39,9 @@ public class OrderService {
 
     private final ItemImgRepository itemImgRepository;
 
+    // 주문 커밋 이후 판매량 집계 갱신용.
+    private final ApplicationEventPublisher eventPublisher;
+
     // order : orderDto : 주문의 내용들, email : 구매자(로그인 유저)
     public Long order(OrderDto orderDto, String email){
     // orderDto -> 상품의 아이디를 이용해서, 해당 디비의 내용을 조회.
@@ -56,6 +61,7 @@ public class OrderService {
         Order order = Order.createOrder(member, orderItemList);
         // 중간 테이블에 저장(영속화), -> 실제 테이블에 반영할 때는, 트랜잭션이 커밋이 되는 시점.
         orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderPlacedEvent(order));
         // 주문이 되었다면, 주문 번호를 반환.
         return order.getId();
     }
@@ -88,7 +94,7 @@ public class OrderService {
                         (orderItem.getItem().getId(), "Y");
                 // 대표 사진의 URL 주소 경로를 , DTO 재담기.
                 OrderItemDto orderItemDto =
-                        new OrderItemDto(orderItem, itemImg.getImgUrl());
+                        new OrderItemDto(orderItem, itemImg.getListImgUrl());
                 // 주문 이력
                 // 준비물) 1) 주문 2) 대표 이미지
                 orderHistDto.addOrderItemDto(orderItemDto);
@@ -145,6 +151,7 @@ public class OrderService {
 
         Order order = Order.createOrder(member, orderItemList);
         orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderPlacedEvent(order));
 
         return order.getId();
     }
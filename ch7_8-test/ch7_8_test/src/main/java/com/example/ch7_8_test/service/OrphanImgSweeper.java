@@ -0,0 +1,220 @@
+package com.example.ch7_8_test.service;
+
+import com.example.ch7_8_test.image.ImgShard;
+import com.example.ch7_8_test.repository.ItemImgRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// 상품 이미지 폴더에서 item_img 가 참조하지 않는 파일(고아 파일) 정리.
+// 파일은 item_img 행이 커밋되기 전에 쓰이므로 등록이 롤백되거나 삭제에 실패하면 파일만 남음.
+// 폴더를 DirectoryStream 으로 (나뉜 하위 폴더 두 단계까지) 한 건씩 읽어 BATCH_SIZE 개씩 in 조회로 참조 여부를 확인하고,
+// 고아 파일은 바로 지우지 않고 격리 폴더(.orphan)로 옮긴 뒤 격리 기간이 지나면 지움. (그 사이 다시 참조되면 되돌림)
+// 이미지 서빙과 디스크를 나눠 쓰므로 배치마다 쉬면서 천천히 진행함.
+@Service
+@Log
+public class OrphanImgSweeper {
+
+    public static final String QUARANTINE_DIR = ".orphan";
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final int SHARD_DEPTH = 2; //ImgShard 의 하위 폴더 단계
+
+    private final ItemImgRepository itemImgRepository;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Path location;
+
+    private final long graceMillis;
+
+    private final long quarantineMillis;
+
+    private final long batchPauseMillis;
+
+    public OrphanImgSweeper(ItemImgRepository itemImgRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${itemImgLocation}") String itemImgLocation,
+                            @Value("${orphanImgGraceMinutes:60}") long graceMinutes,
+                            @Value("${orphanImgQuarantineHours:72}") long quarantineHours,
+                            @Value("${orphanImgBatchPauseMillis:200}") long batchPauseMillis){
+        this.itemImgRepository = itemImgRepository;
+        this.meterRegistry = meterRegistry;
+        this.location = Paths.get(itemImgLocation);
+        this.graceMillis = graceMinutes * 60 * 1000;
+        this.quarantineMillis = quarantineHours * 60 * 60 * 1000;
+        this.batchPauseMillis = batchPauseMillis;
+    }
+
+    @Scheduled(cron = "${orphanImgSweepCron:0 30 3 * * *}")
+    public void sweep() throws IOException, InterruptedException{
+        if(!Files.isDirectory(location)){
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Path quarantine = location.resolve(QUARANTINE_DIR);
+        Files.createDirectories(quarantine);
+
+        int[] purged = expireQuarantine(quarantine, start);
+        int quarantined = quarantineOrphans(quarantine, start);
+
+        log.info("고아 이미지 정리 완료 : 격리 " + quarantined + "건, 삭제 " + purged[0] + "건, 복구 " + purged[1] + "건, "
+                + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    // 격리 기간이 지난 파일은 다시 한 번 참조 여부를 보고 지움. 그 사이 참조가 생겼으면 되돌림.
+    private int[] expireQuarantine(Path quarantine, long now) throws IOException, InterruptedException{
+        int[] result = new int[2]; //삭제, 복구
+        List<Path> batch = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(quarantine)) {
+            for (Path file : stream) {
+                if(olderThan(file, now - quarantineMillis)){
+                    batch.add(file);
+                }
+                if(batch.size() == BATCH_SIZE){
+                    expireBatch(batch, result);
+                    batch.clear();
+                    pause();
+                }
+            }
+        }
+        expireBatch(batch, result);
+        return result;
+    }
+
+    private void expireBatch(List<Path> batch, int[] result) throws IOException{
+        if(batch.isEmpty()){
+            return;
+        }
+        Set<String> referenced = findReferenced(batch);
+        for (Path file : batch) {
+            String name = file.getFileName().toString();
+            if(referenced.contains(name)){
+                Path target = ImgShard.pathOf(location, name);
+                Files.createDirectories(target.getParent());
+                Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+                count("restored");
+                result[1]++;
+            } else if(Files.deleteIfExists(file)){
+                count("deleted");
+                result[0]++;
+            }
+        }
+    }
+
+    // 유예 시간보다 오래된 파일 중 참조되지 않는 것을 격리 폴더로 옮김. (업로드 중인 트랜잭션의 파일은 유예 시간 안에 있음)
+    private int quarantineOrphans(Path quarantine, long now) throws IOException, InterruptedException{
+        List<Path> batch = new ArrayList<>();
+        int quarantined = scan(location, 0, batch, quarantine, now);
+        return quarantined + quarantineBatch(batch, quarantine, now);
+    }
+
+    // 나뉜 하위 폴더(ab/cd)까지 내려가며 파일을 모음. 나누기 전에 올라온 파일은 최상위에 있음.
+    private int scan(Path dir, int depth, List<Path> batch, Path quarantine, long now) throws IOException, InterruptedException{
+        int quarantined = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path file : stream) {
+                if(Files.isDirectory(file)){
+                    if(depth < SHARD_DEPTH && !file.equals(quarantine)){
+                        quarantined += scan(file, depth + 1, batch, quarantine, now);
+                    }
+                    continue;
+                }
+                if(olderThan(file, now - graceMillis)){
+                    batch.add(file);
+                }
+                if(batch.size() == BATCH_SIZE){
+                    quarantined += quarantineBatch(batch, quarantine, now);
+                    batch.clear();
+                    pause();
+                }
+            }
+        }
+        return quarantined;
+    }
+
+    private int quarantineBatch(List<Path> batch, Path quarantine, long now) throws IOException{
+        if(batch.isEmpty()){
+            return 0;
+        }
+        Set<String> referenced = findReferenced(batch);
+        int quarantined = 0;
+        for (Path file : batch) {
+            String name = file.getFileName().toString();
+            // 조회하는 사이 같은 내용이 다시 올라와 수정 시각이 바뀐 파일은 건너뜀. (FileService.uploadFile)
+            if(!referenced.contains(name) && olderThan(file, now - graceMillis)){
+                Path target = quarantine.resolve(name);
+                Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+                // 격리 기간은 옮긴 시각부터 셈.
+                Files.setLastModifiedTime(target, FileTime.fromMillis(now));
+                count("quarantined");
+                quarantined++;
+            }
+        }
+        return quarantined;
+    }
+
+    // 파일명 중 item_img 의 원본(img_name) 또는 썸네일(thumb_img_url) 로 쓰이는 것.
+    // 썸네일 경로는 폴더를 옮기는 중일 수 있으므로 나누기 전/후 경로를 모두 확인함.
+    private Set<String> findReferenced(List<Path> batch){
+        List<String> names = new ArrayList<>();
+        List<String> thumbUrls = new ArrayList<>();
+        for (Path file : batch) {
+            String name = file.getFileName().toString();
+            if(name.startsWith(ImgShard.THUMB_PREFIX)){
+                thumbUrls.add(ItemImgService.IMG_URL_PREFIX + name);
+                thumbUrls.add(ItemImgService.imgUrlOf(name));
+            } else {
+                names.add(name);
+            }
+        }
+
+        Set<String> referenced = new HashSet<>();
+        if(!names.isEmpty()){
+            referenced.addAll(itemImgRepository.findImgNamesIn(names));
+        }
+        if(!thumbUrls.isEmpty()){
+            for (String thumbUrl : itemImgRepository.findThumbImgUrlsIn(thumbUrls)) {
+                referenced.add(thumbUrl.substring(thumbUrl.lastIndexOf('/') + 1));
+            }
+        }
+        return referenced;
+    }
+
+    // 일반 파일이고 수정 시각이 기준보다 이전인지. (폴더, 읽는 사이 지워진 파일은 제외)
+    private static boolean olderThan(Path file, long threshold){
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return attributes.isRegularFile() && attributes.lastModifiedTime().toMillis() < threshold;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void pause() throws InterruptedException{
+        if(batchPauseMillis > 0){
+            Thread.sleep(batchPauseMillis);
+        }
+    }
+
+    private void count(String result){
+        meterRegistry.counter("item.img.orphan", "result", result).increment();
+    }
+
+}
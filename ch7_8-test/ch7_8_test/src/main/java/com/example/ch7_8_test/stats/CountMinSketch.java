@@ -0,0 +1,56 @@
+package com.example.ch7_8_test.stats;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// count-min sketch. 고정 크기 카운터 배열에 행마다 다른 해시로 더하고, 조회는 행들 중 최솟값. (실제 값 이상으로만 틀림)
+// 카운터는 AtomicLongArray 라서 여러 스레드가 잠금 없이 더할 수 있음.
+public class CountMinSketch {
+
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+    };
+
+    private final int width;
+
+    private final int mask;
+
+    private final AtomicLongArray counts;
+
+    // width 는 2의 거듭제곱.
+    public CountMinSketch(int width){
+        if(Integer.bitCount(width) != 1){
+            throw new IllegalArgumentException("width 는 2의 거듭제곱이어야 합니다.");
+        }
+        this.width = width;
+        this.mask = width - 1;
+        this.counts = new AtomicLongArray(SEEDS.length * width);
+    }
+
+    public void add(long key, long count){
+        for(int row=0;row<SEEDS.length;row++){
+            counts.getAndAdd(row * width + indexOf(key, row), count);
+        }
+    }
+
+    public long estimate(long key){
+        long min = Long.MAX_VALUE;
+        for(int row=0;row<SEEDS.length;row++){
+            min = Math.min(min, counts.get(row * width + indexOf(key, row)));
+        }
+        return min;
+    }
+
+    // 모든 카운터를 반으로 줄임. (오래된 빈도가 서서히 잊히도록 하는 노화, 배열을 새로 만들지 않음)
+    // 줄이는 도중 들어온 add 는 줄이기 전이나 후 어느 쪽에든 그대로 반영됨.
+    public void halve(){
+        for(int i=0;i<counts.length();i++){
+            counts.getAndUpdate(i, count -> count >>> 1);
+        }
+    }
+
+    private int indexOf(long key, int row){
+        long hash = (key + row) * SEEDS[row];
+        return (int) (hash ^ (hash >>> 29)) & mask;
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.example.ch7_8_test.stats;
+
+import com.example.ch7_8_test.event.CartItemAddedEvent;
+import com.example.ch7_8_test.event.OrderPlacedEvent;
+import com.example.ch7_8_test.repository.CatalogEntryJdbcRepository;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.function.LongSupplier;
+
+// 인기순 정렬 점수. 조회 1점, 장바구니 3점, 주문 10점을 메모리에 모았다가 itemPopularityFlushMillis 마다 catalog_entry.popularity 에 더함.
+// 시간 감쇠는 forward decay 로 처리함. 점수 = 점수 x 2^((반영 시각 - 기준 시각) / 반감기) 로 더하면
+// 오래된 점수를 매번 줄이지 않아도 상대 순서가 "반감기마다 절반으로 줄어드는 점수" 와 같아짐.
+// 그래서 컬럼 값은 한 번 쓰면 다시 계산할 필요가 없고, 인기순 조회는 (popularity, item_id) 색인 역순 스캔이 됨.
+// 가중치는 반감기마다 두 배로 커지므로 기준 시각에서 RESCALE_HALF_LIVES 반감기가 지나면 반영 직전에 기준 시각을 옮기고
+// 컬럼 값을 같은 2의 거듭제곱으로 나눔. (상대 순서는 그대로, 값은 Infinity/NaN 까지 커지지 않음)
+// 메모리에 모으는 점수는 가중치를 곱하기 전 값이라 따로 나눌 필요가 없음.
+@Component
+@Log
+public class ItemPopularityTracker {
+
+    public static final long VIEW_POINTS = 1;
+
+    public static final long CART_POINTS = 3;
+
+    public static final long ORDER_POINTS = 10;
+
+    // 디비에 기준 시각이 없을 때 쓰는 처음 값. (기준 시각을 디비에 두기 전 고정으로 쓰던 값이라 기존 컬럼 값과 맞음)
+    private static final long INITIAL_LANDMARK_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    private static final int RESCALE_HALF_LIVES = 32; //가중치가 2^32 를 넘으면 기준 시각을 옮김
+
+    private static final int STRIPE_COUNT = 32;
+
+    private final StripedLongCounterMap points = new StripedLongCounterMap(STRIPE_COUNT);
+
+    private final CatalogEntryJdbcRepository catalogEntryJdbcRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final double halfLifeMillis;
+
+    private final LongSupplier clock;
+
+    @Autowired
+    public ItemPopularityTracker(CatalogEntryJdbcRepository catalogEntryJdbcRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${itemPopularityHalfLifeHours:168}") long halfLifeHours){
+        this(catalogEntryJdbcRepository, transactionTemplate, halfLifeHours, System::currentTimeMillis);
+    }
+
+    ItemPopularityTracker(CatalogEntryJdbcRepository catalogEntryJdbcRepository, TransactionTemplate transactionTemplate,
+                          long halfLifeHours, LongSupplier clock){
+        if(halfLifeHours <= 0){
+            throw new IllegalArgumentException("itemPopularityHalfLifeHours 는 1 이상이어야 합니다 : " + halfLifeHours);
+        }
+        this.catalogEntryJdbcRepository = catalogEntryJdbcRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.halfLifeMillis = halfLifeHours * 60 * 60 * 1000.0;
+        this.clock = clock;
+    }
+
+    public void recordView(Long itemId){
+        points.add(itemId, VIEW_POINTS);
+    }
+
+    @TransactionalEventListener
+    public void onCartItemAdded(CartItemAddedEvent event){
+        points.add(event.getItemId(), CART_POINTS);
+    }
+
+    // 대량 주문 한 건이 점수를 좌우하지 않도록 수량과 관계없이 상품마다 한 번만 더함.
+    @TransactionalEventListener
+    public void onOrderPlaced(OrderPlacedEvent event){
+        for (Long itemId : event.getItemCounts().keySet()) {
+            points.add(itemId, ORDER_POINTS);
+        }
+    }
+
+    // 기준 시각이 landmarkMillis 일 때 지금 더하는 1점이 컬럼에서 갖는 값. 반영 주기 안의 시각 차이는 무시함.
+    double weightAt(long landmarkMillis){
+        return Math.pow(2, (clock.getAsLong() - landmarkMillis) / halfLifeMillis);
+    }
+
+    @Scheduled(fixedDelayString = "${itemPopularityFlushMillis:60000}")
+    public synchronized void flush(){
+        StripedLongCounterMap.Snapshot snapshot = points.drain();
+        if(snapshot.getSize() == 0){
+            return;
+        }
+        try {
+            // 기준 시각을 잠근 트랜잭션 안에서 더해야 다른 서버가 그 사이 기준 시각을 옮겨도 가중치가 어긋나지 않음.
+            transactionTemplate.executeWithoutResult(status -> {
+                double weight = weightAt(lockLandmark());
+                double[] deltas = new double[snapshot.getSize()];
+                for(int i=0;i<snapshot.getSize();i++){
+                    deltas[i] = snapshot.getValues()[i] * weight;
+                }
+                catalogEntryJdbcRepository.addPopularity(snapshot.getKeys(), deltas, snapshot.getSize());
+            });
+        } catch (RuntimeException e) {
+            // 반영에 실패하면 다음 주기에 다시 시도하도록 되돌려 놓음.
+            for(int i=0;i<snapshot.getSize();i++){
+                points.add(snapshot.getKeys()[i], snapshot.getValues()[i]);
+            }
+            log.warning("인기도 반영 실패, 다음 주기에 다시 시도 : " + e.getMessage());
+        }
+    }
+
+    // 기준 시각을 잠그고 읽은 뒤, RESCALE_HALF_LIVES 반감기 이상 지났으면 반감기 정수배만큼 옮기고 컬럼 값을 2^(옮긴 반감기 수) 로 나눔.
+    // (double 지수 범위를 넘는 경우는 최대 지수로 나눔. 그만큼 오래된 점수는 새 점수에 비해 0 과 같음)
+    private long lockLandmark(){
+        long landmark = catalogEntryJdbcRepository.lockPopularityLandmark(INITIAL_LANDMARK_MILLIS);
+        long halfLives = (long) Math.floor((clock.getAsLong() - landmark) / halfLifeMillis);
+        if(halfLives < RESCALE_HALF_LIVES){
+            return landmark;
+        }
+        long rescaled = landmark + (long) (halfLives * halfLifeMillis);
+        catalogEntryJdbcRepository.rescalePopularity(rescaled,
+                Math.scalb(1.0, (int) Math.min(halfLives, Double.MAX_EXPONENT)));
+        log.info("인기도 기준 시각 이동 : 반감기 " + halfLives + "회");
+        return rescaled;
+    }
+
+    @PreDestroy
+    public void shutdown(){
+        flush();
+    }
+
+}
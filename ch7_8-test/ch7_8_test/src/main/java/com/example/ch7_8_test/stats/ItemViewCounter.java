@@ -0,0 +1,158 @@
+package com.example.ch7_8_test.stats;
+
+import com.example.ch7_8_test.entity.ItemStats;
+import com.example.ch7_8_test.repository.ItemStatsJdbcRepository;
+import com.example.ch7_8_test.repository.ItemStatsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.concurrent.atomic.LongAdder;
+
+// 상품 상세 조회수. 조회마다 update 하지 않고 메모리 카운터에 모았다가 itemViewFlushMillis 마다 item_stats 에 일괄 반영.
+// 반영 전 조회수는 프로세스가 죽으면 사라지므로, 아직 반영되지 않은 건수를 체크포인트 파일에 주기적으로 기록하고
+// 정상 종료 시에는 남은 값을 반영한 뒤 clean 으로 표시함. 다음 시작 때 clean 이 아니면 그 건수를 유실로 보고함.
+@Component
+@Log
+public class ItemViewCounter {
+
+    private static final int STRIPE_COUNT = 32;
+
+    private final StripedLongCounterMap counts = new StripedLongCounterMap(STRIPE_COUNT);
+
+    private final LongAdder pending = new LongAdder(); //아직 디비에 반영되지 않은 조회수 합계
+
+    private final ItemStatsJdbcRepository itemStatsJdbcRepository;
+
+    private final ItemStatsRepository itemStatsRepository;
+
+    private final Path checkpointPath;
+
+    private volatile long lostOnLastCrash; //직전 실행이 비정상 종료되며 반영되지 못한 조회수 (마지막 체크포인트 기준)
+
+    public ItemViewCounter(ItemStatsJdbcRepository itemStatsJdbcRepository,
+                           ItemStatsRepository itemStatsRepository,
+                           @Value("${itemViewCheckpointPath:}") String checkpointPath,
+                           MeterRegistry meterRegistry){
+        this.itemStatsJdbcRepository = itemStatsJdbcRepository;
+        this.itemStatsRepository = itemStatsRepository;
+        this.checkpointPath = checkpointPathOf(checkpointPath);
+        meterRegistry.gauge("item.view.pending", pending, LongAdder::sum);
+        meterRegistry.gauge("item.view.lost", this, ItemViewCounter::getLostOnLastCrash);
+    }
+
+    @PostConstruct
+    public void recover(){
+        if(checkpointPath == null || !Files.exists(checkpointPath)){
+            return;
+        }
+        Properties checkpoint = new Properties();
+        try (InputStream in = Files.newInputStream(checkpointPath)) {
+            checkpoint.load(in);
+        } catch (IOException e) {
+            log.warning("조회수 체크포인트 읽기 실패 : " + e.getMessage());
+            return;
+        }
+        if(!Boolean.parseBoolean(checkpoint.getProperty("clean"))){
+            lostOnLastCrash = Long.parseLong(checkpoint.getProperty("pending", "0"));
+            log.warning("이전 실행이 정상 종료되지 않아 조회수 " + lostOnLastCrash + "건(마지막 체크포인트 기준)이 반영되지 않았습니다. "
+                    + "체크포인트 시각 : " + checkpoint.getProperty("writtenAt"));
+        }
+        writeCheckpoint(false);
+    }
+
+    public void increment(Long itemId){
+        counts.add(itemId, 1);
+        pending.increment();
+    }
+
+    // 디비에 반영된 값 + 아직 메모리에 있는 값.
+    public long getViewCount(Long itemId){
+        long flushed = itemStatsRepository.findById(itemId).map(ItemStats::getViewCount).orElse(0L);
+        return flushed + counts.get(itemId);
+    }
+
+    public long getLostOnLastCrash(){
+        return lostOnLastCrash;
+    }
+
+    @Scheduled(fixedDelayString = "${itemViewFlushMillis:10000}")
+    public synchronized void flush(){
+        StripedLongCounterMap.Snapshot snapshot = counts.drain();
+        if(snapshot.getSize() == 0){
+            return;
+        }
+        try {
+            itemStatsJdbcRepository.addViewCounts(snapshot.getKeys(), snapshot.getValues(), snapshot.getSize());
+            pending.add(-snapshot.total());
+            writeCheckpoint(false);
+        } catch (RuntimeException e) {
+            // 반영에 실패하면 다음 주기에 다시 시도하도록 되돌려 놓음.
+            for(int i=0;i<snapshot.getSize();i++){
+                counts.add(snapshot.getKeys()[i], snapshot.getValues()[i]);
+            }
+            log.warning("조회수 반영 실패, 다음 주기에 다시 시도 : " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${itemViewCheckpointMillis:1000}")
+    public void checkpoint(){
+        writeCheckpoint(false);
+    }
+
+    @PreDestroy
+    public void shutdown(){
+        flush();
+        writeCheckpoint(pending.sum() == 0);
+    }
+
+    // 경로가 없거나 상위 폴더가 없으면 체크포인트 없이 동작. (유실 건수 보고만 안 됨)
+    private static Path checkpointPathOf(String checkpointPath){
+        if(checkpointPath.isEmpty()){
+            return null;
+        }
+        Path path = Paths.get(checkpointPath).toAbsolutePath();
+        if(!Files.isDirectory(path.getParent())){
+            log.warning("조회수 체크포인트 폴더가 없어 체크포인트를 사용하지 않습니다 : " + path.getParent());
+            return null;
+        }
+        return path;
+    }
+
+    // 임시 파일에 쓴 뒤 이름을 바꿔서, 쓰는 도중에 죽어도 이전 체크포인트가 깨지지 않게 함.
+    private synchronized void writeCheckpoint(boolean clean){
+        if(checkpointPath == null){
+            return;
+        }
+        Properties checkpoint = new Properties();
+        checkpoint.setProperty("pending", String.valueOf(pending.sum()));
+        checkpoint.setProperty("clean", String.valueOf(clean));
+        checkpoint.setProperty("writtenAt", String.valueOf(System.currentTimeMillis()));
+
+        Path tmpPath = checkpointPath.resolveSibling(checkpointPath.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmpPath)) {
+            checkpoint.store(out, "item view counter checkpoint");
+        } catch (IOException e) {
+            log.warning("조회수 체크포인트 쓰기 실패 : " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(tmpPath, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warning("조회수 체크포인트 쓰기 실패 : " + e.getMessage());
+        }
+    }
+
+}
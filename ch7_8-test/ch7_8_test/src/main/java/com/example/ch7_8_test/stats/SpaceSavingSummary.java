@@ -0,0 +1,95 @@
+package com.example.ch7_8_test.stats;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// space-saving 상위 항목 요약. 최대 capacity 개의 (아이디, 횟수) 를 횟수 기준 최소 힙으로 들고 있다가
+// 자리가 없으면 가장 작은 항목을 새 항목으로 바꾸고 그 횟수를 이어받음. 자주 나오는 항목은 밀려나지 않음.
+// 스레드 안전하지 않으므로 사용하는 쪽에서 잠금을 잡아야 함.
+public class SpaceSavingSummary {
+
+    private final long[] ids;
+
+    private final long[] counts;
+
+    private final Map<Long, Integer> positions = new HashMap<>();
+
+    private int size;
+
+    public SpaceSavingSummary(int capacity){
+        this.ids = new long[capacity];
+        this.counts = new long[capacity];
+    }
+
+    public void add(long id, long count){
+        Integer pos = positions.get(id);
+        if(pos != null){
+            counts[pos] += count;
+            siftDown(pos);
+        } else if(size < ids.length){
+            ids[size] = id;
+            counts[size] = count;
+            positions.put(id, size);
+            siftUp(size++);
+        } else {
+            // 가장 작은 항목(힙의 루트) 자리를 이어받음.
+            positions.remove(ids[0]);
+            ids[0] = id;
+            counts[0] += count;
+            positions.put(id, 0);
+            siftDown(0);
+        }
+    }
+
+    public long[] ids(){
+        return Arrays.copyOf(ids, size);
+    }
+
+    public long count(long id){
+        Integer pos = positions.get(id);
+        return pos == null ? 0 : counts[pos];
+    }
+
+    private void siftUp(int pos){
+        while(pos > 0){
+            int parent = (pos - 1) / 2;
+            if(counts[parent] <= counts[pos]){
+                break;
+            }
+            swap(pos, parent);
+            pos = parent;
+        }
+    }
+
+    private void siftDown(int pos){
+        while(true){
+            int smallest = pos;
+            int left = pos * 2 + 1;
+            int right = left + 1;
+            if(left < size && counts[left] < counts[smallest]){
+                smallest = left;
+            }
+            if(right < size && counts[right] < counts[smallest]){
+                smallest = right;
+            }
+            if(smallest == pos){
+                return;
+            }
+            swap(pos, smallest);
+            pos = smallest;
+        }
+    }
+
+    private void swap(int a, int b){
+        long id = ids[a];
+        long count = counts[a];
+        ids[a] = ids[b];
+        counts[a] = counts[b];
+        ids[b] = id;
+        counts[b] = count;
+        positions.put(ids[a], a);
+        positions.put(ids[b], b);
+    }
+
+}
@@ -0,0 +1,174 @@
+package com.example.ch7_8_test.stats;
+
+import java.util.Arrays;
+
+// 상품 아이디 -> 누적 값. 아이디 해시로 stripe 를 나누고 stripe 마다 잠금을 따로 잡아서 다른 상품끼리는 거의 경합하지 않음. (LongAdder 와 같은 방식)
+// stripe 안은 기본형 배열의 개방 주소 해시라 상품마다 Long, LongAdder 객체를 만들지 않음.
+public class StripedLongCounterMap {
+
+    private static final long EMPTY = 0L; // 상품 아이디는 1부터 시작하므로 0 을 빈 칸으로 씀.
+
+    private final Stripe[] stripes;
+
+    // stripeCount 는 2의 거듭제곱.
+    public StripedLongCounterMap(int stripeCount){
+        if(Integer.bitCount(stripeCount) != 1){
+            throw new IllegalArgumentException("stripeCount 는 2의 거듭제곱이어야 합니다.");
+        }
+        stripes = new Stripe[stripeCount];
+        for(int i=0;i<stripeCount;i++){
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public void add(long key, long delta){
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            stripe.add(key, delta);
+        }
+    }
+
+    public long get(long key){
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            return stripe.get(key);
+        }
+    }
+
+    // 지금까지 쌓인 값을 꺼내고 비움. stripe 마다 배열을 통째로 바꿔치기하므로 잠금은 짧게만 잡힘.
+    public Snapshot drain(){
+        long[] keys = new long[16];
+        long[] values = new long[16];
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            long[] stripeKeys;
+            long[] stripeValues;
+            synchronized (stripe) {
+                if(stripe.size == 0){
+                    continue;
+                }
+                stripeKeys = stripe.keys;
+                stripeValues = stripe.values;
+                stripe.reset();
+            }
+            for(int i=0;i<stripeKeys.length;i++){
+                if(stripeKeys[i] != EMPTY){
+                    if(size == keys.length){
+                        keys = Arrays.copyOf(keys, size * 2);
+                        values = Arrays.copyOf(values, size * 2);
+                    }
+                    keys[size] = stripeKeys[i];
+                    values[size] = stripeValues[i];
+                    size++;
+                }
+            }
+        }
+        return new Snapshot(keys, values, size);
+    }
+
+    private Stripe stripeOf(long key){
+        return stripes[Long.hashCode(key * 0x9E3779B97F4A7C15L) & (stripes.length - 1)];
+    }
+
+    public static class Snapshot {
+
+        private final long[] keys;
+
+        private final long[] values;
+
+        private final int size;
+
+        private Snapshot(long[] keys, long[] values, int size){
+            this.keys = keys;
+            this.values = values;
+            this.size = size;
+        }
+
+        public long[] getKeys(){
+            return keys;
+        }
+
+        public long[] getValues(){
+            return values;
+        }
+
+        public int getSize(){
+            return size;
+        }
+
+        public long total(){
+            long total = 0;
+            for(int i=0;i<size;i++){
+                total += values[i];
+            }
+            return total;
+        }
+
+    }
+
+    private static class Stripe {
+
+        private static final int INITIAL_CAPACITY = 16;
+
+        private long[] keys;
+
+        private long[] values;
+
+        private int size;
+
+        private Stripe(){
+            reset();
+        }
+
+        private void reset(){
+            keys = new long[INITIAL_CAPACITY];
+            values = new long[INITIAL_CAPACITY];
+            size = 0;
+        }
+
+        private long get(long key){
+            int slot = slotOf(keys, key);
+            return keys[slot] == key ? values[slot] : 0;
+        }
+
+        private void add(long key, long delta){
+            int slot = slotOf(keys, key);
+            if(keys[slot] == EMPTY){
+                // 75% 가 차면 두 배로 늘림.
+                if((size + 1) * 4 > keys.length * 3){
+                    grow();
+                    slot = slotOf(keys, key);
+                }
+                keys[slot] = key;
+                size++;
+            }
+            values[slot] += delta;
+        }
+
+        private void grow(){
+            long[] oldKeys = keys;
+            long[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new long[oldKeys.length * 2];
+            for(int i=0;i<oldKeys.length;i++){
+                if(oldKeys[i] != EMPTY){
+                    int slot = slotOf(keys, oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        // 선형 탐사. key 가 있는 칸 또는 처음 만나는 빈 칸.
+        private static int slotOf(long[] keys, long key){
+            int mask = keys.length - 1;
+            int slot = Long.hashCode(key * 0xC2B2AE3D27D4EB4FL) & mask;
+            while(keys[slot] != EMPTY && keys[slot] != key){
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+    }
+
+}
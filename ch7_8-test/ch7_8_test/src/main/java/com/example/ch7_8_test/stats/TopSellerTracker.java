@@ -0,0 +1,155 @@
+package com.example.ch7_8_test.stats;
+
+import com.example.ch7_8_test.event.OrderPlacedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+// 최근 1시간 판매량 상위 상품. order_item 을 group by 하지 않도록 주문 커밋마다 메모리 요약에 더함.
+// 1시간을 5분 조각 12개로 나눠서 조각마다 count-min sketch(수량 추정) + space-saving(후보 상품) 을 두고,
+// 시간이 지난 조각은 새 조각으로 갈아끼움. 조회는 유효한 조각들의 후보를 모아 추정 수량 합으로 정렬.
+// sketch 는 잠금 없이, space-saving 요약은 상품 아이디 기준으로 나눈 stripe 단위로만 잠금.
+@Component
+public class TopSellerTracker {
+
+    public static final int SLICE_COUNT = 12;
+
+    public static final long SLICE_MILLIS = 5 * 60 * 1000L;
+
+    private static final int STRIPE_COUNT = 8;
+
+    private static final int SUMMARY_CAPACITY = 64;
+
+    private static final int SKETCH_WIDTH = 2048;
+
+    private final AtomicReferenceArray<Slice> slices = new AtomicReferenceArray<>(SLICE_COUNT);
+
+    private final LongSupplier clock;
+
+    public TopSellerTracker(){
+        this(System::currentTimeMillis);
+    }
+
+    TopSellerTracker(LongSupplier clock){
+        this.clock = clock;
+    }
+
+    @TransactionalEventListener
+    public void onOrderPlaced(OrderPlacedEvent event){
+        for (Map.Entry<Long, Integer> entry : event.getItemCounts().entrySet()) {
+            record(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public void record(long itemId, long count){
+        currentSlice().add(itemId, count);
+    }
+
+    // 최근 1시간 판매 수량 추정치 상위 size 개.
+    public List<ItemCount> top(int size){
+        long epoch = clock.getAsLong() / SLICE_MILLIS;
+        List<Slice> validSlices = new ArrayList<>();
+        Set<Long> candidates = new LinkedHashSet<>();
+        for(int i=0;i<SLICE_COUNT;i++){
+            Slice slice = slices.get(i);
+            if(slice != null && slice.epoch > epoch - SLICE_COUNT && slice.epoch <= epoch){
+                validSlices.add(slice);
+                slice.collectCandidates(candidates);
+            }
+        }
+
+        List<ItemCount> itemCounts = new ArrayList<>();
+        for (Long itemId : candidates) {
+            long count = 0;
+            for (Slice slice : validSlices) {
+                count += slice.sketch.estimate(itemId);
+            }
+            itemCounts.add(new ItemCount(itemId, count));
+        }
+        itemCounts.sort(Comparator.comparingLong(ItemCount::getCount).reversed()
+                .thenComparing(Comparator.comparingLong(ItemCount::getItemId).reversed()));
+        return itemCounts.size() > size ? new ArrayList<>(itemCounts.subList(0, size)) : itemCounts;
+    }
+
+    // 현재 시간 조각. 같은 자리에 지난 시간의 조각이 있으면 새 조각으로 교체. (compareAndSet 이라 교체는 한 번만 일어남)
+    private Slice currentSlice(){
+        long epoch = clock.getAsLong() / SLICE_MILLIS;
+        int index = (int) (epoch % SLICE_COUNT);
+        while(true){
+            Slice slice = slices.get(index);
+            if(slice != null && slice.epoch >= epoch){
+                return slice;
+            }
+            Slice fresh = new Slice(epoch);
+            if(slices.compareAndSet(index, slice, fresh)){
+                return fresh;
+            }
+        }
+    }
+
+    private static class Slice {
+
+        private final long epoch;
+
+        private final CountMinSketch sketch = new CountMinSketch(SKETCH_WIDTH);
+
+        private final SpaceSavingSummary[] stripes = new SpaceSavingSummary[STRIPE_COUNT];
+
+        private Slice(long epoch){
+            this.epoch = epoch;
+            for(int i=0;i<STRIPE_COUNT;i++){
+                stripes[i] = new SpaceSavingSummary(SUMMARY_CAPACITY);
+            }
+        }
+
+        private void add(long itemId, long count){
+            sketch.add(itemId, count);
+            // 같은 상품은 항상 같은 stripe 로 가므로 stripe 마다 독립적인 space-saving 이 됨.
+            SpaceSavingSummary stripe = stripes[Long.hashCode(itemId * 0x9E3779B97F4A7C15L) & (STRIPE_COUNT - 1)];
+            synchronized (stripe) {
+                stripe.add(itemId, count);
+            }
+        }
+
+        private void collectCandidates(Set<Long> candidates){
+            for (SpaceSavingSummary stripe : stripes) {
+                synchronized (stripe) {
+                    for (long itemId : stripe.ids()) {
+                        candidates.add(itemId);
+                    }
+                }
+            }
+        }
+
+    }
+
+    public static class ItemCount {
+
+        private final long itemId;
+
+        private final long count;
+
+        public ItemCount(long itemId, long count){
+            this.itemId = itemId;
+            this.count = count;
+        }
+
+        public long getItemId(){
+            return itemId;
+        }
+
+        public long getCount(){
+            return count;
+        }
+
+    }
+
+}
@@ -0,0 +1,38 @@
+function cancelOrder(obj) {
+    var orderId = obj.value;
+    var page = obj.dataset.page;
+    var token = $("meta[name='_csrf']").attr("content");
+    var header = $("meta[name='_csrf_header']").attr("content");
+
+    var url = "/order/" + orderId + "/cancel";
+    var paramData = {
+        orderId : orderId,
+    };
+
+    var param = JSON.stringify(paramData);
+
+    $.ajax({
+        url      : url,
+        type     : "POST",
+        contentType : "application/json",
+        data     : param,
+        beforeSend : function(xhr){
+            /* 데이터를 전송하기 전에 헤더에 csrf값을 설정 */
+            xhr.setRequestHeader(header, token);
+        },
+        dataType : "json",
+        cache   : false,
+        success  : function(result, status){
+            alert("주문이 취소 되었습니다.");
+            location.href='/orders/' + page;
+        },
+        error : function(jqXHR, status, error){
+            if(jqXHR.status == '401'){
+                alert('로그인 후 이용해주세요');
+                location.href='/members/login';
+            } else{
+                alert(jqXHR.responseText);
+            }
+        }
+    });
+}
@@ -0,0 +1,47 @@
+package com.example.ch7_8_test.asset;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StaticAssetCompressorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("정적 파일 gzip 미리 압축 테스트")
+    public void compressTest() throws Exception{
+        Path js = tempDir.resolve("js/cart/cartList.js");
+        Files.createDirectories(js.getParent());
+        byte[] data = "function getOrderTotalPrice(){ return 0; }\n".repeat(100).getBytes();
+        Files.write(js, data);
+        Files.write(tempDir.resolve("tiny.css"), "a{}".getBytes());
+        Files.write(tempDir.resolve("banner.png"), data);
+
+        assertEquals(1, StaticAssetCompressor.compress(tempDir));
+
+        Path gz = tempDir.resolve("js/cart/cartList.js.gz");
+        assertTrue(Files.size(gz) < data.length);
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(gz))) {
+            assertArrayEquals(data, in.readAllBytes());
+        }
+        // 작아지지 않는 파일, 압축 대상이 아닌 파일은 .gz 를 만들지 않음
+        assertFalse(Files.exists(tempDir.resolve("tiny.css.gz")));
+        assertFalse(Files.exists(tempDir.resolve("banner.png.gz")));
+
+        // 원본이 바뀌지 않았으면 다시 만들지 않음
+        assertEquals(0, StaticAssetCompressor.compress(tempDir));
+    }
+
+}
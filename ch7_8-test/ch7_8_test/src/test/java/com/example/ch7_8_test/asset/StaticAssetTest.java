@@ -0,0 +1,68 @@
+package com.example.ch7_8_test.asset;
+
+import com.example.ch7_8_test.image.ImageServlet;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(locations="classpath:application-test.properties")
+class StaticAssetTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ResourceUrlProvider resourceUrlProvider;
+
+    @Test
+    @DisplayName("정적 파일 내용 해시 주소 캐시 헤더 테스트")
+    public void versionedAssetTest() throws Exception{
+        String url = resourceUrlProvider.getForLookupPath("/js/cart/cartList.js");
+        assertNotEquals("/js/cart/cartList.js", url);
+        assertTrue(url.matches("/js/cart/cartList-[0-9a-f]{32}\\.js"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, ImageServlet.IMMUTABLE_CACHE_CONTROL));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/js/cart/cartList.js"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+
+        // 해시 모양이어도 실제 내용 해시가 아니면 immutable 을 붙이지 않음.
+        mockMvc.perform(MockMvcRequestBuilders.get("/js/cart/cartList-0123456789abcdef0123456789abcdef.js"))
+                .andExpect(status().isNotFound())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+    }
+
+    @Test
+    @DisplayName("정적 파일 gzip 응답 테스트")
+    public void gzipAssetTest() throws Exception{
+        // 빌드(prepare-package)가 만든 .gz 는 테스트 뒤에 생기므로 직접 만듦. (이미 있으면 그대로 둠)
+        StaticAssetCompressor.compress(Paths.get(new ClassPathResource("static").getURI()));
+        String url = resourceUrlProvider.getForLookupPath("/css/layout1.css");
+
+        mockMvc.perform(MockMvcRequestBuilders.get(url).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, "Accept-Encoding"));
+    }
+
+}
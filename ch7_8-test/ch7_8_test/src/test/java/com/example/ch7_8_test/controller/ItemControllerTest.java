@@ -38,4 +38,29 @@ class ItemControllerTest {
                 .andDo(print())
                 .andExpect(status().isForbidden());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("자동완성 비회원 접근 테스트")
+    public void suggestTest() throws Exception{
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/items/suggest").param("q", "셔"))
+                .andDo(print())
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("자동완성 음수 개수 요청 테스트")
+    public void suggestNegativeSizeTest() throws Exception{
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/items/suggest").param("q", "셔").param("size", "-1"))
+                .andDo(print())
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("판매량 상위 상품 음수 개수 요청 테스트")
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void topItemsNegativeSizeTest() throws Exception{
+        mockMvc.perform(MockMvcRequestBuilders.get("/admin/stats/top-items").param("size", "-1"))
+                .andDo(print())
+                .andExpect(status().isOk());
+    }
+}
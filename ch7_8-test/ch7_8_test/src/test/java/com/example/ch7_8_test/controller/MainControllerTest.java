@@ -0,0 +1,67 @@
+package com.example.ch7_8_test.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import com.example.ch7_8_test.config.MainPageCacheFilter;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+// 캐시 적중 테스트가 렌더링 시간에 따라 만료되지 않도록 TTL 을 길게 고정.
+@TestPropertySource(locations="classpath:application-test.properties", properties = "mainPageCacheTtlSeconds=600")
+class MainControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    @DisplayName("메인 페이지 페이지 번호 조회 테스트")
+    public void mainPageTest() throws Exception{
+        mockMvc.perform(MockMvcRequestBuilders.get("/").param("page", "0"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("cursorMode", false));
+    }
+
+    @Test
+    @DisplayName("메인 페이지 커서 조회 테스트")
+    public void mainCursorTest() throws Exception{
+        mockMvc.perform(MockMvcRequestBuilders.get("/").param("after", "100"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("cursorMode", true));
+    }
+
+    @Test
+    @DisplayName("비로그인 메인 페이지 html 캐시 테스트")
+    public void mainPageCacheTest() throws Exception{
+        mockMvc.perform(MockMvcRequestBuilders.get("/").param("searchQuery", "캐시").param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(MainPageCacheFilter.CACHE_HEADER, "MISS"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/").param("searchQuery", "캐시").param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(MainPageCacheFilter.CACHE_HEADER, "HIT"));
+    }
+
+    @Test
+    @DisplayName("로그인 사용자 메인 페이지 캐시 제외 테스트")
+    @WithMockUser(username = "user", roles = "USER")
+    public void mainPageNoCacheTest() throws Exception{
+        mockMvc.perform(MockMvcRequestBuilders.get("/").param("searchQuery", "캐시").param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(MainPageCacheFilter.CACHE_HEADER));
+    }
+
+}
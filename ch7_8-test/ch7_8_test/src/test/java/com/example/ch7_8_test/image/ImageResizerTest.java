@@ -0,0 +1,62 @@
+package com.example.ch7_8_test.image;
+
+import com.example.ch7_8_test.service.ItemImgVariantService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageResizerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("비율 유지 축소 테스트")
+    public void resizeTest(){
+        BufferedImage image = new BufferedImage(1600, 800, BufferedImage.TYPE_INT_RGB);
+        assertFalse(ImageResizer.fits(image, 400, 400));
+
+        BufferedImage resized = ImageResizer.resize(image, 400, 400, false);
+        assertEquals(400, resized.getWidth());
+        assertEquals(200, resized.getHeight());
+
+        // 작은 이미지는 키우지 않음.
+        BufferedImage small = ImageResizer.resize(new BufferedImage(100, 50, BufferedImage.TYPE_INT_RGB), 400, 400, false);
+        assertEquals(100, small.getWidth());
+        assertEquals(50, small.getHeight());
+    }
+
+    @Test
+    @DisplayName("썸네일 저장 테스트")
+    public void writeTest() throws Exception{
+        BufferedImage image = new BufferedImage(1200, 900, BufferedImage.TYPE_INT_ARGB);
+        for(int x=0;x<image.getWidth();x++){
+            image.setRGB(x, x % image.getHeight(), 0xffff0000);
+        }
+
+        Path original = tempDir.resolve("original.png");
+        ImageResizer.write(image, "png", original);
+        Path thumb = tempDir.resolve(ItemImgVariantService.thumbNameOf("original.png", "png"));
+        ImageResizer.write(ImageResizer.resize(ImageResizer.read(original), 400, 400, true), "png", thumb);
+
+        BufferedImage read = ImageResizer.read(thumb);
+        assertEquals(400, read.getWidth());
+        assertEquals(300, read.getHeight());
+        assertTrue(Files.size(thumb) < Files.size(original));
+        assertFalse(Files.exists(tempDir.resolve(thumb.getFileName() + ".tmp")));
+
+        Path jpg = tempDir.resolve(ItemImgVariantService.thumbNameOf("photo.jpeg", "jpg"));
+        assertEquals("thumb_photo.jpg", jpg.getFileName().toString());
+        ImageResizer.write(ImageResizer.resize(image, 400, 400, false), "jpg", jpg);
+        assertEquals(400, ImageResizer.read(jpg).getWidth());
+    }
+
+}
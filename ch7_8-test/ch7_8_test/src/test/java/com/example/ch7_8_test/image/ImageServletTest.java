@@ -0,0 +1,152 @@
+package com.example.ch7_8_test.image;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletConfig;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ImageServletTest {
+
+    private static final String HASH_NAME = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef.jpg";
+
+    @TempDir
+    Path tempDir;
+
+    ImageServlet imageServlet;
+
+    byte[] data = new byte[1000];
+
+    @BeforeEach
+    public void setUp() throws Exception{
+        new Random(3).nextBytes(data);
+        Files.createDirectories(tempDir.resolve("item"));
+        Files.write(tempDir.resolve("item").resolve(HASH_NAME), data);
+        Files.write(tempDir.resolve("item").resolve("legacy.jpg"), data);
+        Files.write(tempDir.resolve("secret.txt"), data);
+
+        imageServlet = new ImageServlet(tempDir.resolve("."));
+        imageServlet.init(new MockServletConfig());
+    }
+
+    private MockHttpServletResponse get(String pathInfo, String... headers) throws Exception{
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/images" + pathInfo);
+        request.setServletPath("/images");
+        request.setPathInfo(pathInfo);
+        for(int i=0;i<headers.length;i+=2){
+            request.addHeader(headers[i], headers[i + 1]);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        imageServlet.service(request, response);
+        return response;
+    }
+
+    @Test
+    @DisplayName("이미지 전송, 캐시 헤더 테스트")
+    public void getTest() throws Exception{
+        MockHttpServletResponse response = get("/item/" + HASH_NAME);
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(data, response.getContentAsByteArray());
+        assertEquals("image/jpeg", response.getContentType());
+        assertEquals(ImageServlet.IMMUTABLE_CACHE_CONTROL, response.getHeader("Cache-Control"));
+
+        assertEquals(ImageServlet.DEFAULT_CACHE_CONTROL, get("/item/legacy.jpg").getHeader("Cache-Control"));
+        assertEquals(404, get("/item/none.jpg").getStatus());
+        assertEquals(404, get("/item/../../secret.txt").getStatus());
+    }
+
+    @Test
+    @DisplayName("숨김 파일, 임시 파일 요청 404 테스트")
+    public void hiddenFileTest() throws Exception{
+        Files.write(tempDir.resolve("item").resolve(".upload-1.tmp"), data);
+        Files.write(tempDir.resolve("item").resolve("thumb.jpg.tmp"), data);
+        Files.createDirectories(tempDir.resolve("item").resolve(".orphan"));
+        Files.write(tempDir.resolve("item").resolve(".orphan").resolve("old.jpg"), data);
+
+        assertEquals(404, get("/item/.upload-1.tmp").getStatus());
+        assertEquals(404, get("/item/thumb.jpg.tmp").getStatus());
+        assertEquals(404, get("/item/.orphan/old.jpg").getStatus());
+        assertEquals(200, get("/item/legacy.jpg").getStatus());
+    }
+
+    @Test
+    @DisplayName("조건부 요청 304 테스트")
+    public void notModifiedTest() throws Exception{
+        String etag = get("/item/" + HASH_NAME).getHeader("ETag");
+
+        MockHttpServletResponse response = get("/item/" + HASH_NAME, "If-None-Match", etag);
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+
+        assertEquals(200, get("/item/" + HASH_NAME, "If-None-Match", "\"other\"").getStatus());
+    }
+
+    @Test
+    @DisplayName("Range 요청 테스트")
+    public void rangeTest() throws Exception{
+        MockHttpServletResponse response = get("/item/" + HASH_NAME, "Range", "bytes=100-199");
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 100-199/1000", response.getHeader("Content-Range"));
+        assertArrayEquals(Arrays.copyOfRange(data, 100, 200), response.getContentAsByteArray());
+
+        response = get("/item/" + HASH_NAME, "Range", "bytes=-10");
+        assertArrayEquals(Arrays.copyOfRange(data, 990, 1000), response.getContentAsByteArray());
+
+        response = get("/item/" + HASH_NAME, "Range", "bytes=900-");
+        assertEquals("bytes 900-999/1000", response.getHeader("Content-Range"));
+
+        assertEquals(416, get("/item/" + HASH_NAME, "Range", "bytes=1000-").getStatus());
+
+        // 파일이 바뀌었으면(If-Range 불일치) 전체 전송.
+        response = get("/item/" + HASH_NAME, "Range", "bytes=0-9", "If-Range", "\"old\"");
+        assertEquals(200, response.getStatus());
+        assertEquals(1000, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    @DisplayName("예전/새 폴더 배치 모두 서빙 테스트")
+    public void fallbackTest() throws Exception{
+        imageServlet = new ImageServlet(tempDir, ImgShard::alternate, null);
+        imageServlet.init(new MockServletConfig());
+
+        // 아직 옮기지 않은 파일을 새 경로로 요청.
+        assertEquals(200, get("/item/01/23/" + HASH_NAME).getStatus());
+
+        // 옮긴 파일을 예전 경로로 요청.
+        Files.createDirectories(tempDir.resolve("item/01/23"));
+        Files.move(tempDir.resolve("item").resolve(HASH_NAME), tempDir.resolve("item/01/23").resolve(HASH_NAME));
+        MockHttpServletResponse response = get("/item/" + HASH_NAME);
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(data, response.getContentAsByteArray());
+    }
+
+    @Test
+    @DisplayName("힙 밖 캐시 서빙 테스트")
+    public void cacheTest() throws Exception{
+        OffHeapImageCache imageCache = new OffHeapImageCache(1024 * 1024, 1024 * 1024, new SimpleMeterRegistry());
+        imageServlet = new ImageServlet(tempDir, path -> null, imageCache);
+        imageServlet.init(new MockServletConfig());
+
+        for(int i=0;i<3;i++){
+            assertArrayEquals(data, get("/item/" + HASH_NAME).getContentAsByteArray());
+        }
+        assertEquals(data.length, imageCache.getResidentBytes());
+
+        MockHttpServletResponse response = get("/item/" + HASH_NAME, "Range", "bytes=100-199");
+        assertEquals(206, response.getStatus());
+        assertArrayEquals(Arrays.copyOfRange(data, 100, 200), response.getContentAsByteArray());
+        assertEquals(0.5, imageCache.getHitRatio(), 0.0001);
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.example.ch7_8_test.image;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ImgShardTest {
+
+    @Test
+    @DisplayName("파일명으로 하위 폴더 경로 계산 테스트")
+    public void relativePathTest(){
+        assertEquals("9f/86/9f86d081.jpg", ImgShard.relativePath("9f86d081.jpg"));
+        // 썸네일은 원본과 같은 폴더.
+        assertEquals("9f/86/thumb_9f86d081.jpg", ImgShard.relativePath("thumb_9f86d081.jpg"));
+        assertEquals("ab/cd/ABCD-1234.png", ImgShard.relativePath("ABCD-1234.png"));
+        // 짧은 이름은 나누지 않음.
+        assertEquals("a.jpg", ImgShard.relativePath("a.jpg"));
+    }
+
+    @Test
+    @DisplayName("예전/새 경로 변환 테스트")
+    public void alternateTest(){
+        assertEquals("/item/9f/86/9f86d081.jpg", ImgShard.alternate("/item/9f86d081.jpg"));
+        assertEquals("/item/9f86d081.jpg", ImgShard.alternate("/item/9f/86/9f86d081.jpg"));
+        assertNull(ImgShard.alternate("/item/a.jpg"));
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.example.ch7_8_test.image;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OffHeapImageCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path createFile(String name, int size, int seed) throws Exception{
+        byte[] data = new byte[size];
+        new Random(seed).nextBytes(data);
+        return Files.write(tempDir.resolve(name), data);
+    }
+
+    private static byte[] read(OffHeapImageCache.Entry entry, long start, long count) throws Exception{
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entry.writeTo(out, start, count);
+        return out.toByteArray();
+    }
+
+    private static OffHeapImageCache.Entry get(OffHeapImageCache cache, Path file) throws Exception{
+        return cache.get(file, Files.size(file), Files.getLastModifiedTime(file).toMillis());
+    }
+
+    @Test
+    @DisplayName("두 번째 요청부터 캐시, 페이지를 넘는 구간 읽기 테스트")
+    public void admitTest() throws Exception{
+        OffHeapImageCache cache = new OffHeapImageCache(4 * OffHeapImageCache.PAGE_SIZE, 1024 * 1024, new SimpleMeterRegistry());
+        Path file = createFile("a.jpg", OffHeapImageCache.PAGE_SIZE + 100, 1);
+        byte[] data = Files.readAllBytes(file);
+
+        assertNull(get(cache, file)); //한 번 본 파일은 넣지 않음
+        OffHeapImageCache.Entry entry = get(cache, file);
+        assertNotNull(entry);
+        assertArrayEquals(data, read(entry, 0, data.length));
+        assertArrayEquals(Arrays.copyOfRange(data, OffHeapImageCache.PAGE_SIZE - 10, OffHeapImageCache.PAGE_SIZE + 10),
+                read(entry, OffHeapImageCache.PAGE_SIZE - 10, 20));
+        cache.release(entry);
+        assertEquals(data.length, cache.getResidentBytes());
+
+        entry = get(cache, file);
+        assertNotNull(entry);
+        cache.release(entry);
+        assertEquals(1.0 / 3, cache.getHitRatio(), 0.0001);
+
+        // 파일이 바뀌면(수정 시각) 예전 내용을 쓰지 않음.
+        cache.invalidate(file);
+        assertEquals(0, cache.getResidentBytes());
+    }
+
+    @Test
+    @DisplayName("빈도가 낮은 파일은 자주 쓰는 파일을 밀어내지 못함 테스트")
+    public void evictTest() throws Exception{
+        OffHeapImageCache cache = new OffHeapImageCache(2 * OffHeapImageCache.PAGE_SIZE, 1024 * 1024, new SimpleMeterRegistry());
+        Path hot = createFile("hot.jpg", OffHeapImageCache.PAGE_SIZE, 1);
+        Path cold = createFile("cold.jpg", OffHeapImageCache.PAGE_SIZE * 2, 2);
+
+        for(int i=0;i<5;i++){
+            OffHeapImageCache.Entry entry = get(cache, hot);
+            if(entry != null){
+                cache.release(entry);
+            }
+        }
+        assertNull(get(cache, cold));
+        assertNull(get(cache, cold)); //2회로는 5회 요청된 파일보다 적음
+        assertEquals(OffHeapImageCache.PAGE_SIZE, cache.getResidentBytes());
+
+        for(int i=0;i<10;i++){
+            OffHeapImageCache.Entry entry = get(cache, cold);
+            if(entry != null){
+                assertArrayEquals(Files.readAllBytes(cold), read(entry, 0, Files.size(cold)));
+                cache.release(entry);
+            }
+        }
+        assertEquals(OffHeapImageCache.PAGE_SIZE * 2, cache.getResidentBytes());
+    }
+
+    @Test
+    @DisplayName("정규화 전 경로로 무효화, 음수 크기 설정 테스트")
+    public void invalidateNormalizedTest() throws Exception{
+        OffHeapImageCache cache = new OffHeapImageCache(4 * OffHeapImageCache.PAGE_SIZE, 1024 * 1024, new SimpleMeterRegistry());
+        Files.createDirectories(tempDir.resolve("sub"));
+        Path file = createFile("a.jpg", 100, 1);
+        get(cache, file);
+        cache.release(get(cache, file));
+        assertEquals(100, cache.getResidentBytes());
+
+        // 서블릿은 정규화된 절대 경로로 조회하므로 "sub/.." 가 섞인 경로로 지워도 같은 항목이어야 함.
+        cache.invalidate(tempDir.resolve("sub").resolve("..").resolve("a.jpg"));
+        assertEquals(0, cache.getResidentBytes());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new OffHeapImageCache(-1, 1024 * 1024, new SimpleMeterRegistry()));
+    }
+
+}
@@ -1,6 +1,11 @@
 package com.example.ch7_8_test.repository;
 
+import com.example.ch7_8_test.constant.CountMode;
 import com.example.ch7_8_test.constant.ItemSellStatus;
+import com.example.ch7_8_test.dto.AdminItemDto;
+import com.example.ch7_8_test.dto.ItemSearchDto;
+import com.example.ch7_8_test.dto.MainItemDto;
+import com.example.ch7_8_test.entity.CatalogEntry;
 import com.example.ch7_8_test.entity.Item;
 import com.example.ch7_8_test.entity.QItem;
 import com.querydsl.core.BooleanBuilder;
@@ -10,17 +15,27 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
 import org.thymeleaf.util.StringUtils;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 @SpringBootTest
 @TestPropertySource(locations="classpath:application-test.properties")
 class ItemRepositoryTest {
@@ -28,6 +43,9 @@ class ItemRepositoryTest {
     @Autowired
     ItemRepository itemRepository;
 
+    @Autowired
+    CatalogEntryRepository catalogEntryRepository;
+
     @PersistenceContext
     EntityManager em;
 
@@ -182,4 +200,91 @@ class ItemRepositoryTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("관리자 상품 페이지 count 방식 테스트")
+    public void adminItemPageCountModeTest(){
+        this.createItemList2();
+
+        ItemSearchDto itemSearchDto = new ItemSearchDto();
+        Pageable pageable = PageRequest.of(0, 3);
+
+        Page<AdminItemDto> exactPage = itemRepository.getAdminItemPage(itemSearchDto, pageable, CountMode.EXACT);
+        Page<AdminItemDto> cachedPage = itemRepository.getAdminItemPage(itemSearchDto, pageable, CountMode.CACHED);
+        Page<AdminItemDto> parallelPage = itemRepository.getAdminItemPage(itemSearchDto, pageable, CountMode.PARALLEL);
+
+        assertEquals(exactPage.getTotalElements(), cachedPage.getTotalElements());
+        assertEquals(exactPage.getTotalElements(), parallelPage.getTotalElements());
+        assertEquals(exactPage.getContent().size(), parallelPage.getContent().size());
+        // 관리 화면은 전체 페이지 수가 필요하므로 건수 없는 HAS_NEXT 는 받지 않음.
+        assertThrows(InvalidDataAccessApiUsageException.class,
+                () -> itemRepository.getAdminItemPage(itemSearchDto, pageable, CountMode.HAS_NEXT));
+    }
+
+    @Test
+    @DisplayName("목록만으로 건수가 정해져 병렬 count 를 건너뛰는 경우 테스트")
+    public void totalFromContentTest(){
+        List<Integer> two = Arrays.asList(1, 2);
+        List<Integer> three = Arrays.asList(1, 2, 3);
+
+        assertTrue(ItemRepositoryCustomImpl.totalFromContent(PageRequest.of(0, 3), two));
+        assertTrue(ItemRepositoryCustomImpl.totalFromContent(PageRequest.of(0, 3), Collections.emptyList()));
+        assertTrue(ItemRepositoryCustomImpl.totalFromContent(PageRequest.of(2, 3), two));
+        assertFalse(ItemRepositoryCustomImpl.totalFromContent(PageRequest.of(0, 3), three));
+        assertFalse(ItemRepositoryCustomImpl.totalFromContent(PageRequest.of(2, 3), three));
+        // 범위를 벗어난 빈 페이지는 전체 건수를 알 수 없음.
+        assertFalse(ItemRepositoryCustomImpl.totalFromContent(PageRequest.of(5, 3), Collections.emptyList()));
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("메인 상품 다음 페이지 여부 조회 테스트")
+    public void mainItemPageHasNextTest(){
+        for(int i=0;i<4;i++){
+            CatalogEntry catalogEntry = new CatalogEntry();
+            catalogEntry.setItemId(910000L + i);
+            catalogEntry.setItemNm("다음 페이지 상품" + i);
+            catalogEntry.setPrice(10000);
+            catalogEntry.setItemSellStatus(ItemSellStatus.SELL);
+            catalogEntry.setRegTime(LocalDateTime.now());
+            catalogEntryRepository.save(catalogEntry);
+        }
+
+        ItemSearchDto itemSearchDto = new ItemSearchDto();
+        itemSearchDto.setSearchQuery("다음 페이지");
+        Slice<MainItemDto> first = itemRepository.getMainItemPage(itemSearchDto, PageRequest.of(0, 3), CountMode.HAS_NEXT);
+        Slice<MainItemDto> second = itemRepository.getMainItemPage(itemSearchDto, PageRequest.of(1, 3), CountMode.HAS_NEXT);
+
+        // 전체 건수를 지어내지 않고 Slice 로 다음 페이지 여부만 알려줌.
+        assertFalse(first instanceof Page);
+        assertEquals(3, first.getContent().size());
+        assertTrue(first.hasNext());
+        assertEquals(1, second.getContent().size());
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("메인 상품 인기순 조회 테스트")
+    public void mainItemPagePopularTest(){
+        double[] popularities = {3e9, 1e9, 2e9};
+        for(int i=0;i<popularities.length;i++){
+            CatalogEntry catalogEntry = new CatalogEntry();
+            catalogEntry.setItemId(900000L + i);
+            catalogEntry.setItemNm("인기 상품" + i);
+            catalogEntry.setPrice(10000);
+            catalogEntry.setItemSellStatus(ItemSellStatus.SELL);
+            catalogEntry.setRegTime(LocalDateTime.now());
+            catalogEntry.setPopularity(popularities[i]);
+            catalogEntryRepository.save(catalogEntry);
+        }
+
+        ItemSearchDto itemSearchDto = new ItemSearchDto();
+        itemSearchDto.setSort(ItemSearchDto.SORT_POPULAR);
+        Slice<MainItemDto> page = itemRepository.getMainItemPage(itemSearchDto, PageRequest.of(0, 3), CountMode.HAS_NEXT);
+
+        assertEquals(900000L, page.getContent().get(0).getId());
+        assertEquals(900002L, page.getContent().get(1).getId());
+        assertEquals(900001L, page.getContent().get(2).getId());
+    }
+
+}
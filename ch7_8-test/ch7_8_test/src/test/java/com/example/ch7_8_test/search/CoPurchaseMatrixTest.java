@@ -0,0 +1,46 @@
+package com.example.ch7_8_test.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CoPurchaseMatrixTest {
+
+    @Test
+    @DisplayName("동시 구매 횟수 순 상위 K개 테스트")
+    public void neighboursTest(){
+        CoPurchaseMatrix matrix = new CoPurchaseMatrix(2);
+        matrix.addOrder(new long[]{1L, 2L});
+        matrix.addOrder(new long[]{1L, 3L, 3L});
+        matrix.addOrder(new long[]{1L, 3L, 4L});
+        matrix.addOrder(new long[]{1L, 4L});
+        matrix.addOrder(new long[]{1L, 4L});
+        matrix.addOrder(new long[]{5L});
+
+        assertArrayEquals(new long[]{4L, 3L}, matrix.neighbours(1L, 10));
+        assertArrayEquals(new long[]{4L}, matrix.neighbours(1L, 1));
+        assertArrayEquals(new long[]{1L}, matrix.neighbours(2L, 10));
+        assertArrayEquals(new long[0], matrix.neighbours(5L, 10));
+        assertEquals(2, matrix.count(3L, 1L));
+        assertEquals(1, matrix.count(3L, 4L));
+    }
+
+    @Test
+    @DisplayName("상위 K개 밖의 상품이 횟수가 늘어 순위에 들어오는지 테스트")
+    public void promoteTest(){
+        CoPurchaseMatrix matrix = new CoPurchaseMatrix(2);
+        for(long itemId=2;itemId<=100;itemId++){
+            matrix.addOrder(new long[]{1L, itemId});
+        }
+        matrix.addOrder(new long[]{1L, 50L});
+        matrix.addOrder(new long[]{1L, 50L});
+        matrix.addOrder(new long[]{1L, 7L});
+
+        assertArrayEquals(new long[]{50L, 7L}, matrix.neighbours(1L, 10));
+        assertEquals(3, matrix.count(1L, 50L));
+        assertEquals(1, matrix.count(1L, 99L));
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.example.ch7_8_test.search;
+
+import com.example.ch7_8_test.constant.ItemSellStatus;
+import com.example.ch7_8_test.constant.PriceBand;
+import com.example.ch7_8_test.dto.ItemFacetDto;
+import com.example.ch7_8_test.dto.ItemSearchDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemFacetIndexTest {
+
+    ItemFacetIndex createIndex(){
+        ItemFacetIndex itemFacetIndex = new ItemFacetIndex(null);
+        LocalDateTime now = LocalDateTime.now();
+        itemFacetIndex.put(1L, ItemSellStatus.SELL, 5000, now.minusMonths(2));
+        itemFacetIndex.put(2L, ItemSellStatus.SELL, 20000, now);
+        itemFacetIndex.put(3L, ItemSellStatus.SOLD_OUT, 25000, now.minusDays(3));
+        itemFacetIndex.put(4L, ItemSellStatus.SELL, 150000, now.minusDays(3));
+        return itemFacetIndex;
+    }
+
+    @Test
+    @DisplayName("판매상태, 가격대, 등록일 필터 조합 테스트")
+    public void filterTest(){
+        ItemFacetIndex itemFacetIndex = createIndex();
+        ItemSearchDto itemSearchDto = new ItemSearchDto();
+        itemSearchDto.setSearchSellStatus(ItemSellStatus.SELL);
+        itemSearchDto.setSearchDateType("1w");
+
+        RoaringBitmap filtered = itemFacetIndex.filter(itemSearchDto);
+
+        assertEquals(Arrays.asList(4L, 2L), ItemFacetIndex.page(filtered, 0, 10));
+        assertEquals(Arrays.asList(2L), ItemFacetIndex.page(filtered, 1, 10));
+    }
+
+    @Test
+    @DisplayName("필터별 건수는 자기 자신을 뺀 나머지 필터 기준 테스트")
+    public void facetCountsTest(){
+        ItemFacetIndex itemFacetIndex = createIndex();
+        ItemSearchDto itemSearchDto = new ItemSearchDto();
+        itemSearchDto.setSearchPriceBand(PriceBand.FROM_10K_TO_30K);
+
+        ItemFacetDto itemFacetDto = itemFacetIndex.facetCounts(itemSearchDto, null);
+
+        assertEquals(1, itemFacetDto.getSellStatusCounts().get(ItemSellStatus.SELL));
+        assertEquals(1, itemFacetDto.getSellStatusCounts().get(ItemSellStatus.SOLD_OUT));
+        assertEquals(2, itemFacetDto.getPriceBandCounts().get(PriceBand.FROM_10K_TO_30K));
+        assertEquals(1, itemFacetDto.getPriceBandCounts().get(PriceBand.UNDER_10K));
+        assertEquals(2, itemFacetDto.getDateTypeCounts().get("1w"));
+    }
+
+    @Test
+    @DisplayName("상품 수정 시 이전 필터에서 제거 테스트")
+    public void updateTest(){
+        ItemFacetIndex itemFacetIndex = createIndex();
+        itemFacetIndex.put(3L, ItemSellStatus.SELL, 25000, LocalDateTime.now().minusDays(3));
+        ItemSearchDto itemSearchDto = new ItemSearchDto();
+        itemSearchDto.setSearchSellStatus(ItemSellStatus.SOLD_OUT);
+
+        assertEquals(0, itemFacetIndex.filter(itemSearchDto).getCardinality());
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.example.ch7_8_test.search;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// 메모리 역색인 vs like '%q%' 전체 스캔 비교.
+// like 쪽은 디비 I/O 를 빼고 item 행을 전부 훑어 contains 검사하는 비용만 측정하므로 실제 디비보다 유리한 조건임.
+// 실행 : mvn test-compile 후 IDE 에서 main 실행, 또는 exec:java -Dexec.classpathScope=test
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class ItemSearchIndexBenchmark {
+
+    private static final String[] COLORS = {"블랙", "화이트", "네이비", "베이지", "그레이", "카키", "레드", "스카이블루"};
+
+    private static final String[] KINDS = {"셔츠", "청바지", "스웨터", "니트", "자켓", "코트", "슬랙스", "후드티", "가디건", "원피스"};
+
+    private static final String[] DETAILS = {"면 100% 소재로 부드러운 착용감", "사계절 내내 입기 좋은 기본 아이템",
+            "오버핏 실루엣의 데일리 룩", "세탁 후에도 변형이 적은 원단", "슬림한 핏으로 깔끔한 연출"};
+
+    @Param({"100000", "1000000"})
+    int itemCount;
+
+    @Param({"네이비 셔츠", "가디건"})
+    String query;
+
+    private ItemSearchIndex itemSearchIndex;
+
+    private String[] itemNms;
+
+    private String[] itemDetails;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        Random random = new Random(42);
+        itemSearchIndex = new ItemSearchIndex(null);
+        itemNms = new String[itemCount];
+        itemDetails = new String[itemCount];
+
+        for(int i=0;i<itemCount;i++){
+            itemNms[i] = COLORS[random.nextInt(COLORS.length)] + " " + KINDS[random.nextInt(KINDS.length)] + " " + i;
+            itemDetails[i] = DETAILS[random.nextInt(DETAILS.length)];
+            itemSearchIndex.index((long) i + 1, itemNms[i], itemDetails[i]);
+        }
+    }
+
+    @Benchmark
+    public void invertedIndex(Blackhole blackhole){
+        blackhole.consume(itemSearchIndex.search(query, 0, 6));
+    }
+
+    // where item_nm like '%q%' or item_detail like '%q%' order by item_id desc limit 6 + count(*)
+    @Benchmark
+    public void likeScan(Blackhole blackhole){
+        List<Long> page = new ArrayList<>();
+        long total = 0;
+        for(int i=itemCount-1;i>=0;i--){
+            if(itemNms[i].contains(query) || itemDetails[i].contains(query)){
+                total++;
+                if(page.size() < 6){
+                    page.add((long) i + 1);
+                }
+            }
+        }
+        blackhole.consume(page);
+        blackhole.consume(total);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(ItemSearchIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.example.ch7_8_test.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemSearchIndexTest {
+
+    ItemSearchIndex createIndex(){
+        ItemSearchIndex itemSearchIndex = new ItemSearchIndex(null);
+        itemSearchIndex.index(1L, "네이비 셔츠", "면 소재의 기본 셔츠 입니다.");
+        itemSearchIndex.index(2L, "청바지", "셔츠와 잘 어울리는 청바지");
+        itemSearchIndex.index(3L, "블랙 스웨터", "따뜻한 니트 소재");
+        return itemSearchIndex;
+    }
+
+    @Test
+    @DisplayName("한글 bigram 토큰 분리 테스트")
+    public void tokenizeTest(){
+        List<String> tokens = HangulNgramTokenizer.tokenize("네이비 셔츠", false);
+        assertEquals(Arrays.asList("네이", "이비", "셔츠"), tokens);
+        assertEquals(Arrays.asList("셔"), HangulNgramTokenizer.tokenizeQuery("셔"));
+    }
+
+    @Test
+    @DisplayName("상품명 일치가 상세 설명 일치보다 높은 순위 테스트")
+    public void searchRankingTest(){
+        ItemSearchIndex itemSearchIndex = createIndex();
+
+        ItemSearchIndex.SearchResult result = itemSearchIndex.search("셔츠", 0, 10);
+
+        assertEquals(2, result.getTotal());
+        assertEquals(Arrays.asList(1L, 2L), result.getItemIds());
+    }
+
+    @Test
+    @DisplayName("상품 수정 시 이전 단어 제거 테스트")
+    public void reindexTest(){
+        ItemSearchIndex itemSearchIndex = createIndex();
+
+        itemSearchIndex.index(3L, "블랙 가디건", "따뜻한 니트 소재");
+
+        assertEquals(0, itemSearchIndex.search("스웨터", 0, 10).getTotal());
+        assertEquals(Arrays.asList(3L), itemSearchIndex.search("가디건", 0, 10).getItemIds());
+        assertTrue(itemSearchIndex.search("셔츠", 1, 10).getItemIds().contains(2L));
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.example.ch7_8_test.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ItemSpellCorrectorTest {
+
+    ItemSpellCorrector createCorrector(){
+        ItemSpellCorrector itemSpellCorrector = new ItemSpellCorrector(null);
+        itemSpellCorrector.put(1L, "네이비 셔츠");
+        itemSpellCorrector.put(2L, "블랙 스웨터");
+        itemSpellCorrector.put(3L, "카디건 니트");
+        return itemSpellCorrector;
+    }
+
+    @Test
+    @DisplayName("자모 단위 오타 교정 테스트")
+    public void correctTest(){
+        ItemSpellCorrector itemSpellCorrector = createCorrector();
+
+        assertEquals("네이비 셔츠", itemSpellCorrector.correct("네이버 셔츠"));
+        assertEquals("스웨터", itemSpellCorrector.correct("스웨타"));
+        assertEquals("카디건", itemSpellCorrector.correct("카디간"));
+        assertNull(itemSpellCorrector.correct("셔츠"));
+        assertNull(itemSpellCorrector.correct("자켓"));
+    }
+
+    @Test
+    @DisplayName("상품명 수정 시 이전 단어 제거 테스트")
+    public void updateTest(){
+        ItemSpellCorrector itemSpellCorrector = createCorrector();
+        itemSpellCorrector.put(2L, "블랙 후드티");
+
+        assertNull(itemSpellCorrector.correct("스웨타"));
+        assertEquals("후드티", itemSpellCorrector.correct("후드타"));
+    }
+
+    @Test
+    @DisplayName("자리바꿈 포함 편집 거리 테스트")
+    public void distanceTest(){
+        assertEquals(1, SymSpellDictionary.distance("abcd", "abdc", 2));
+        assertEquals(2, SymSpellDictionary.distance("abcd", "axcy", 2));
+        assertEquals(3, SymSpellDictionary.distance("abcd", "wxyz", 2));
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.example.ch7_8_test.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JamoPrefixTrieTest {
+
+    Map<Long, Long> salesCounts = new HashMap<>();
+
+    JamoPrefixTrie trie = new JamoPrefixTrie(3, itemId -> salesCounts.getOrDefault(itemId, 0L));
+
+    @Test
+    @DisplayName("자모 분리 테스트")
+    public void decomposeTest(){
+        assertEquals("ㅅㅕㅊㅡ", HangulJamo.decompose("셔츠"));
+        assertEquals("ㄷㅏㄹㄱ", HangulJamo.decompose("닭"));
+        assertEquals("ㄱㅗㅏ", HangulJamo.decompose("과"));
+    }
+
+    @Test
+    @DisplayName("입력 중인 음절 접두어 검색 테스트")
+    public void partialSyllableTest(){
+        trie.insert(1L, HangulJamo.decompose("셔츠"));
+        trie.insert(2L, HangulJamo.decompose("스웨터"));
+
+        assertArrayEquals(new long[]{1L}, trie.search(HangulJamo.decompose("셫"), 10));
+        assertArrayEquals(new long[]{1L}, trie.search(HangulJamo.decompose("셔ㅊ"), 10));
+        assertArrayEquals(new long[]{2L, 1L}, trie.search(HangulJamo.decompose("ㅅ"), 10));
+    }
+
+    @Test
+    @DisplayName("판매량 순 정렬 및 삭제 테스트")
+    public void salesOrderTest(){
+        for(long itemId=1;itemId<=4;itemId++){
+            trie.insert(itemId, HangulJamo.decompose("청바지" + itemId));
+        }
+
+        salesCounts.put(1L, 10L);
+        trie.promote(1L, HangulJamo.decompose("청바지1"));
+        assertArrayEquals(new long[]{1L, 4L, 3L}, trie.search(HangulJamo.decompose("청바"), 10));
+
+        trie.remove(4L, HangulJamo.decompose("청바지4"));
+        assertArrayEquals(new long[]{1L, 3L, 2L}, trie.search(HangulJamo.decompose("청바"), 10));
+    }
+
+    @Test
+    @DisplayName("외길 자모 압축, 삭제 후 다시 합치기 테스트")
+    public void compressTest(){
+        trie.insert(1L, HangulJamo.decompose("셔츠"));
+        assertEquals(1, trie.nodeCount());
+
+        // "ㅅㅕ" 에서 갈라지면 공통 부분, 나머지 두 갈래로 나뉨.
+        trie.insert(2L, HangulJamo.decompose("셔벗"));
+        assertEquals(3, trie.nodeCount());
+        assertArrayEquals(new long[]{2L, 1L}, trie.search(HangulJamo.decompose("셔"), 10));
+        assertArrayEquals(new long[]{1L}, trie.search(HangulJamo.decompose("셔ㅊ"), 10));
+        assertArrayEquals(new long[]{}, trie.search(HangulJamo.decompose("셔ㄱ"), 10));
+
+        // 상품명이 다른 상품명의 접두어인 경우 중간 노드에서 끝남.
+        trie.insert(3L, HangulJamo.decompose("셔"));
+        assertArrayEquals(new long[]{3L, 2L, 1L}, trie.search(HangulJamo.decompose("ㅅ"), 10));
+
+        trie.remove(3L, HangulJamo.decompose("셔"));
+        trie.remove(2L, HangulJamo.decompose("셔벗"));
+        assertEquals(1, trie.nodeCount());
+        assertArrayEquals(new long[]{1L}, trie.search(HangulJamo.decompose("셔ㅊ"), 10));
+
+        trie.remove(1L, HangulJamo.decompose("셔츠"));
+        assertEquals(0, trie.nodeCount());
+    }
+
+}
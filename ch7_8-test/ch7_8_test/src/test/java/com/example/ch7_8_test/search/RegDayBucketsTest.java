@@ -0,0 +1,45 @@
+package com.example.ch7_8_test.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RegDayBucketsTest {
+
+    @Test
+    @DisplayName("등록일 필터 시작일이 날짜 경계에 맞춰지는지 테스트")
+    public void cutoffDayTest(){
+        LocalDate today = LocalDate.of(2024, 3, 31);
+
+        assertEquals(LocalDate.of(2024, 3, 30).toEpochDay(), RegDayBuckets.cutoffDay("1d", today));
+        assertEquals(LocalDate.of(2024, 3, 24).toEpochDay(), RegDayBuckets.cutoffDay("1w", today));
+        assertEquals(LocalDate.of(2024, 2, 29).toEpochDay(), RegDayBuckets.cutoffDay("1m", today));
+        assertEquals(LocalDate.of(2023, 9, 30).toEpochDay(), RegDayBuckets.cutoffDay("6m", today));
+        assertNull(RegDayBuckets.cutoffDay("all", today));
+        assertNull(RegDayBuckets.cutoffDay(null, today));
+    }
+
+    @Test
+    @DisplayName("기간별 등록 상품 조회 테스트")
+    public void registeredSinceTest(){
+        RegDayBuckets regDayBuckets = new RegDayBuckets();
+        regDayBuckets.add(100, 1);
+        regDayBuckets.add(105, 2);
+        regDayBuckets.add(105, 3);
+        regDayBuckets.add(110, 4);
+
+        assertArrayEquals(new int[]{2, 3, 4}, regDayBuckets.registeredSince(105).toArray());
+        assertEquals(3, regDayBuckets.countSince(101));
+
+        regDayBuckets.remove(105, 2);
+        regDayBuckets.remove(110, 4);
+        assertArrayEquals(new int[]{3}, regDayBuckets.registeredSince(105).toArray());
+        assertEquals(0, regDayBuckets.countSince(106));
+    }
+
+}
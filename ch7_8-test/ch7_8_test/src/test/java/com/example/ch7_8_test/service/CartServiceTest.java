@@ -1,6 +1,7 @@
 package com.example.ch7_8_test.service;
 
 import com.example.ch7_8_test.constant.ItemSellStatus;
+import com.example.ch7_8_test.dto.CartDetailDto;
 import com.example.ch7_8_test.dto.CartItemDto;
 import com.example.ch7_8_test.entity.CartItem;
 import com.example.ch7_8_test.entity.Item;
@@ -16,6 +17,7 @@ import org.springframework.test.context.TestPropertySource;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityNotFoundException;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -36,6 +38,9 @@ class CartServiceTest {
     @Autowired
     CartItemRepository cartItemRepository;
 
+    @Autowired
+    CatalogService catalogService;
+
     public Item saveItem(){
         Item item = new Item();
         item.setItemNm("테스트 상품");
@@ -70,4 +75,23 @@ class CartServiceTest {
         assertEquals(cartItemDto.getCount(), cartItem.getCount());
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("장바구니 목록 조회 테스트")
+    public void getCartList(){
+        Item item = saveItem();
+        catalogService.saveItem(item);
+        Member member = saveMember();
+
+        CartItemDto cartItemDto = new CartItemDto();
+        cartItemDto.setCount(3);
+        cartItemDto.setItemId(item.getId());
+        cartService.addCart(cartItemDto, member.getEmail());
+
+        // catalog_entry 와 item_id 로 조인한 결과가 나와야 함
+        List<CartDetailDto> cartDetailDtoList = cartService.getCartList(member.getEmail());
+        assertEquals(1, cartDetailDtoList.size());
+        assertEquals(item.getItemNm(), cartDetailDtoList.get(0).getItemNm());
+        assertEquals(3, cartDetailDtoList.get(0).getCount());
+    }
+
+}
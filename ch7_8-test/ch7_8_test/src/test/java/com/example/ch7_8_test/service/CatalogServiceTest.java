@@ -0,0 +1,80 @@
+package com.example.ch7_8_test.service;
+
+import com.example.ch7_8_test.constant.ItemSellStatus;
+import com.example.ch7_8_test.entity.CatalogEntry;
+import com.example.ch7_8_test.entity.Item;
+import com.example.ch7_8_test.repository.CatalogEntryJdbcRepository;
+import com.example.ch7_8_test.repository.CatalogEntryRepository;
+import com.example.ch7_8_test.repository.ItemRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@Transactional
+@TestPropertySource(locations="classpath:application-test.properties")
+class CatalogServiceTest {
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    CatalogEntryRepository catalogEntryRepository;
+
+    @Autowired
+    CatalogService catalogService;
+
+    @Autowired
+    CatalogEntryJdbcRepository catalogEntryJdbcRepository;
+
+    public Item createItem(String itemDetail){
+        Item item = new Item();
+        item.setItemNm("테스트 상품");
+        item.setPrice(10000);
+        item.setItemDetail(itemDetail);
+        item.setItemSellStatus(ItemSellStatus.SELL);
+        item.setStockNumber(100);
+        return itemRepository.save(item);
+    }
+
+    @Test
+    @DisplayName("상품 저장 시 목록 읽기 테이블 갱신 테스트")
+    public void saveCatalogEntryTest(){
+        Item item = createItem("상세 설명".repeat(30));
+        catalogService.saveItem(item);
+        catalogService.updateRepImgUrl(item.getId(), "/images/item/test.jpg");
+
+        item.setPrice(20000);
+        catalogService.saveItem(item);
+
+        CatalogEntry catalogEntry = catalogEntryRepository.findById(item.getId())
+                .orElseThrow(EntityNotFoundException::new);
+        assertEquals(20000, catalogEntry.getPrice());
+        assertEquals(CatalogEntry.SUMMARY_LENGTH, catalogEntry.getSummary().length());
+        assertEquals("/images/item/test.jpg", catalogEntry.getImgUrl());
+    }
+
+    @Test
+    @DisplayName("목록 읽기 테이블 일괄 insert 테스트")
+    public void insertAllTest(){
+        Item item = createItem("일괄 insert 상품 상세 설명");
+        CatalogEntry catalogEntry = CatalogEntry.of(item);
+        catalogEntry.setImgUrl("/images/item/batch.jpg");
+        catalogEntryJdbcRepository.insertAll(Collections.singletonList(catalogEntry));
+
+        CatalogEntry saved = catalogEntryRepository.findById(item.getId())
+                .orElseThrow(EntityNotFoundException::new);
+        assertEquals(item.getItemNm(), saved.getItemNm());
+        assertEquals(ItemSellStatus.SELL, saved.getItemSellStatus());
+        assertEquals("/images/item/batch.jpg", saved.getImgUrl());
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.example.ch7_8_test.service;
+
+import com.example.ch7_8_test.image.ImgShard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileServiceTest {
+
+    FileService fileService;
+
+    @TempDir
+    Path tempDir;
+
+    Path stagingDir;
+
+    @BeforeEach
+    public void setUp() throws Exception{
+        stagingDir = Files.createDirectories(tempDir.resolve("staging"));
+        fileService = new FileService(stagingDir.toString());
+    }
+
+    @Test
+    @DisplayName("업로드 파일 스트림 저장 테스트")
+    public void uploadFileTest() throws Exception{
+        byte[] data = new byte[3 * 1024 * 1024 + 7];
+        new Random(1).nextBytes(data);
+
+        MockMultipartFile multipartFile = new MockMultipartFile("itemImgFile", "image.jpg", "image/jpeg", data);
+        String savedFileName = fileService.uploadFile(tempDir.toString(), "image.jpg", multipartFile);
+        assertArrayEquals(data, Files.readAllBytes(ImgShard.pathOf(tempDir, savedFileName)));
+
+        // 임시 파일로 받아 둔 업로드는 파일 채널로 바로 읽음.
+        Path spooled = tempDir.resolve("spooled.tmp");
+        Files.write(spooled, data);
+        try (InputStream in = new FileInputStream(spooled.toFile())) {
+            savedFileName = fileService.uploadFile(tempDir.toString(), "image.jpg", in);
+        }
+        assertArrayEquals(data, Files.readAllBytes(ImgShard.pathOf(tempDir, savedFileName)));
+
+        try (InputStream in = new ByteArrayInputStream(new byte[0])) {
+            savedFileName = fileService.uploadFile(tempDir.toString(), "empty.png", in);
+        }
+        assertArrayEquals(new byte[0], Files.readAllBytes(ImgShard.pathOf(tempDir, savedFileName)));
+    }
+
+    @Test
+    @DisplayName("같은 내용 업로드 중복 제거 테스트")
+    public void uploadFileDedupTest() throws Exception{
+        byte[] data = new byte[100 * 1024];
+        new Random(2).nextBytes(data);
+
+        String first = fileService.uploadFile(tempDir.toString(), "a.JPG",
+                new MockMultipartFile("itemImgFile", "a.JPG", "image/jpeg", data));
+        String second = fileService.uploadFile(tempDir.toString(), "b.jpg", new ByteArrayInputStream(data));
+        assertEquals(first, second);
+        assertEquals(toHex(MessageDigest.getInstance("SHA-256").digest(data)) + ".jpg", first);
+
+        // 다시 쓰는 기존 파일은 수정 시각을 새로 해서 고아 이미지 정리 유예 시간이 다시 시작됨.
+        Path existing = ImgShard.pathOf(tempDir, first);
+        Files.setLastModifiedTime(existing, FileTime.fromMillis(0));
+        List<String> reserved = new ArrayList<>();
+        fileService.uploadFile(tempDir.toString(), "d.jpg", new ByteArrayInputStream(data), reserved::add);
+        assertEquals(Collections.singletonList(first), reserved);
+        assertTrue(Files.getLastModifiedTime(existing).toMillis() > 0);
+
+        data[0]++;
+        String third = fileService.uploadFile(tempDir.toString(), "c.jpg", new ByteArrayInputStream(data));
+        assertNotEquals(first, third);
+
+        // 임시 파일은 남지 않음. (스테이징 폴더에 만들어서 이미지 폴더에는 생기지 않음)
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            assertEquals(2, files.filter(Files::isRegularFile).count());
+        }
+        try (Stream<Path> files = Files.list(stagingDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private static String toHex(byte[] bytes){
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,113 @@
+package com.example.ch7_8_test.service;
+
+import com.example.ch7_8_test.dto.StoredImgDto;
+import com.example.ch7_8_test.image.ImageResizer;
+import com.example.ch7_8_test.image.ImgShard;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ItemImgIngestServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FileService fileService() throws Exception{
+        return new FileService(Files.createDirectories(tempDir.resolve("staging")).toString());
+    }
+
+    @Test
+    @DisplayName("이미지 동시 저장 테스트")
+    public void ingestTest() throws Exception{
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ItemImgIngestService ingestService = new ItemImgIngestService(fileService(), noReserve(), executor, tempDir.toString(), 2000);
+
+            List<MultipartFile> files = new ArrayList<>();
+            for(int i=0;i<5;i++){
+                files.add(new MockMultipartFile("itemImgFile", "image" + i + ".jpg", "image/jpeg", new byte[]{1, 2, 3, (byte) i}));
+            }
+            files.add(new MockMultipartFile("itemImgFile", "", "application/octet-stream", new byte[0]));
+
+            List<StoredImgDto> storedImgs = ingestService.ingest(files);
+            assertEquals(6, storedImgs.size());
+            for(int i=0;i<5;i++){
+                assertEquals("image" + i + ".jpg", storedImgs.get(i).getOriImgName());
+                assertArrayEquals(new byte[]{1, 2, 3, (byte) i}, Files.readAllBytes(ImgShard.pathOf(tempDir, storedImgs.get(i).getImgName())));
+            }
+            assertFalse(storedImgs.get(5).isStored());
+
+            // 저장 폴더가 없으면 예외.
+            ItemImgIngestService failing = new ItemImgIngestService(fileService(), noReserve(), executor, tempDir.resolve("none").toString(), 2000);
+            assertThrows(Exception.class, () -> failing.ingest(files));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("원본 최대 크기 저장 전 적용 테스트")
+    public void capOriginalTest() throws Exception{
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            ItemImgIngestService ingestService = new ItemImgIngestService(fileService(), noReserve(), executor, tempDir.toString(), 100);
+
+            List<MultipartFile> files = new ArrayList<>();
+            files.add(new MockMultipartFile("itemImgFile", "large.jpg", "image/jpeg", imageBytes(400, 200, "jpg")));
+            files.add(new MockMultipartFile("itemImgFile", "small.png", "image/png", imageBytes(80, 60, "png")));
+
+            List<StoredImgDto> storedImgs = ingestService.ingest(files);
+
+            // 줄인 결과로 해시를 계산하므로 저장된 파일명이 가리키는 내용은 줄인 이미지.
+            Path large = ImgShard.pathOf(tempDir, storedImgs.get(0).getImgName());
+            BufferedImage capped = ImageResizer.read(large);
+            assertEquals(100, capped.getWidth());
+            assertEquals(50, capped.getHeight());
+            assertEquals(Files.size(large), storedImgs.get(0).getSize());
+
+            byte[] small = imageBytes(80, 60, "png");
+            assertArrayEquals(small, Files.readAllBytes(ImgShard.pathOf(tempDir, storedImgs.get(1).getImgName())));
+
+            // 임시 파일은 남지 않음.
+            try (Stream<Path> paths = Files.walk(tempDir)) {
+                assertEquals(2, paths.filter(Files::isRegularFile).count());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // 참조 행 예약은 디비가 필요하므로 여기서는 하지 않음.
+    private static ItemImgService noReserve(){
+        return new ItemImgService(null, null, null, null){
+            @Override
+            public void reserveImg(String imgName){
+            }
+        };
+    }
+
+    private static byte[] imageBytes(int width, int height, String format) throws Exception{
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), format, out);
+        return out.toByteArray();
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.example.ch7_8_test.service;
+
+import com.example.ch7_8_test.repository.ImgBlobRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@TestPropertySource(locations="classpath:application-test.properties")
+class ItemImgServiceTest {
+
+    @Autowired
+    ItemImgService itemImgService;
+
+    @Autowired
+    ImgBlobRepository imgBlobRepository;
+
+    @Test
+    @DisplayName("참조 0 이미지 삭제와 재업로드 예약 테스트")
+    public void purgeImgTest(){
+        String imgName = "purge-test.jpg";
+        AtomicInteger deleted = new AtomicInteger();
+
+        // 같은 내용을 다시 올리는 중(유예 시간 안에 예약)이면 지우지 않음.
+        itemImgService.reserveImg(imgName);
+        assertFalse(itemImgService.purgeImg(imgName, LocalDateTime.now().minusMinutes(60), deleted::incrementAndGet));
+        assertEquals(0, deleted.get());
+        assertTrue(imgBlobRepository.existsById(imgName));
+
+        // 예약이 유예 시간보다 오래되었으면 파일과 행을 지움.
+        assertTrue(itemImgService.purgeImg(imgName, LocalDateTime.now().plusSeconds(1), deleted::incrementAndGet));
+        assertEquals(1, deleted.get());
+        assertFalse(imgBlobRepository.existsById(imgName));
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.example.ch7_8_test.service;
+
+import com.example.ch7_8_test.entity.ItemImg;
+import com.example.ch7_8_test.repository.ItemImgJdbcRepository;
+import com.example.ch7_8_test.repository.ItemImgRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+@TestPropertySource(locations="classpath:application-test.properties")
+class ItemImgShardMigratorTest {
+
+    @Autowired
+    ItemImgRepository itemImgRepository;
+
+    @Autowired
+    ItemImgJdbcRepository itemImgJdbcRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("이미지 폴더 나누기 이동 테스트")
+    public void migrateTest() throws Exception{
+        ItemImg itemImg = new ItemImg();
+        itemImg.updateItemImg("ori.jpg", "9f86d081.jpg", "/images/item/9f86d081.jpg");
+        itemImg.setThumbImgUrl("/images/item/thumb_9f86d081.jpg");
+        itemImg.setRepimgYn("Y");
+        itemImgRepository.saveAndFlush(itemImg);
+
+        Files.write(tempDir.resolve("9f86d081.jpg"), new byte[]{1});
+        Files.write(tempDir.resolve("thumb_9f86d081.jpg"), new byte[]{2});
+        Files.write(tempDir.resolve(".upload-1.tmp"), new byte[]{3});
+
+        ItemImgShardMigrator migrator = new ItemImgShardMigrator(itemImgJdbcRepository, Runnable::run,
+                tempDir.toString(), true);
+        assertEquals(2, migrator.migrate());
+
+        assertTrue(Files.exists(tempDir.resolve("9f/86/9f86d081.jpg")));
+        assertTrue(Files.exists(tempDir.resolve("9f/86/thumb_9f86d081.jpg")));
+        assertFalse(Files.exists(tempDir.resolve("9f86d081.jpg")));
+        assertTrue(Files.exists(tempDir.resolve(".upload-1.tmp")));
+
+        assertEquals("/images/item/9f/86/9f86d081.jpg", jdbcTemplate.queryForObject(
+                "select img_url from item_img where item_img_id = ?", String.class, itemImg.getId()));
+        assertEquals("/images/item/9f/86/thumb_9f86d081.jpg", jdbcTemplate.queryForObject(
+                "select thumb_img_url from item_img where item_img_id = ?", String.class, itemImg.getId()));
+
+        // 다시 실행하면 옮길 파일이 없음.
+        assertEquals(0, migrator.migrate());
+    }
+
+}
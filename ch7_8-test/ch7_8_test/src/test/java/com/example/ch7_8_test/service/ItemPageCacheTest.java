@@ -0,0 +1,104 @@
+package com.example.ch7_8_test.service;
+
+import com.example.ch7_8_test.entity.Item;
+import com.example.ch7_8_test.entity.Order;
+import com.example.ch7_8_test.entity.OrderItem;
+import com.example.ch7_8_test.event.OrderPlacedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemPageCacheTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    Function<List<Long>, Collection<Long>> itemIdsOf = itemIds -> itemIds;
+
+    @Test
+    @DisplayName("동시 조회 시 한 번만 조회 테스트")
+    public void singleFlightTest() throws Exception{
+        ItemPageCache itemPageCache = new ItemPageCache(100, 60, meterRegistry);
+        AtomicInteger loadCount = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<List<Long>> first = CompletableFuture.supplyAsync(() ->
+                itemPageCache.get("main|셔츠", () -> {
+                    loadCount.incrementAndGet();
+                    loading.countDown();
+                    await(release);
+                    return Arrays.asList(1L, 2L);
+                }, itemIdsOf));
+        loading.await(5, TimeUnit.SECONDS);
+        CompletableFuture<List<Long>> second = CompletableFuture.supplyAsync(() ->
+                itemPageCache.get("main|셔츠", () -> {
+                    loadCount.incrementAndGet();
+                    return Arrays.asList(1L, 2L);
+                }, itemIdsOf));
+        Thread.sleep(100);
+        release.countDown();
+
+        assertEquals(Arrays.asList(1L, 2L), first.get(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(1L, 2L), second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loadCount.get());
+        assertEquals(1, meterRegistry.counter("item.page.cache", "result", "coalesced").count());
+    }
+
+    @Test
+    @DisplayName("상품 태그 무효화, LRU 제거 테스트")
+    public void invalidateTest(){
+        ItemPageCache itemPageCache = new ItemPageCache(2, 60, meterRegistry);
+        itemPageCache.get("a", () -> Arrays.asList(1L, 2L), itemIdsOf);
+        itemPageCache.get("b", () -> Arrays.asList(3L), itemIdsOf);
+
+        itemPageCache.invalidateItem(2L);
+        assertEquals(1, itemPageCache.size());
+
+        itemPageCache.get("c", () -> Arrays.asList(4L), itemIdsOf);
+        itemPageCache.get("b", () -> Arrays.asList(3L), itemIdsOf);
+        itemPageCache.get("d", () -> Arrays.asList(5L), itemIdsOf);
+        assertEquals(2, itemPageCache.size());
+        assertEquals(Arrays.asList(3L), itemPageCache.get("b", () -> Arrays.asList(99L), itemIdsOf));
+        assertEquals(Arrays.asList(99L), itemPageCache.get("c", () -> Arrays.asList(99L), itemIdsOf));
+    }
+
+    @Test
+    @DisplayName("주문된 상품이 든 결과만 무효화 테스트")
+    public void orderPlacedTest(){
+        ItemPageCache itemPageCache = new ItemPageCache(100, 60, meterRegistry);
+        itemPageCache.get("a", () -> Arrays.asList(1L, 2L), itemIdsOf);
+        itemPageCache.get("b", () -> Arrays.asList(3L), itemIdsOf);
+
+        Item item = new Item();
+        item.setId(2L);
+        OrderItem orderItem = new OrderItem();
+        orderItem.setItem(item);
+        orderItem.setCount(1);
+        Order order = new Order();
+        order.addOrderItem(orderItem);
+        itemPageCache.onOrderPlaced(new OrderPlacedEvent(order));
+
+        assertEquals(1, itemPageCache.size());
+        assertEquals(Arrays.asList(3L), itemPageCache.get("b", () -> Arrays.asList(99L), itemIdsOf));
+    }
+
+    private static void await(CountDownLatch latch){
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -1,15 +1,25 @@
 package com.example.ch7_8_test.service;
 
+import com.example.ch7_8_test.constant.CountMode;
 import com.example.ch7_8_test.constant.ItemSellStatus;
+import com.example.ch7_8_test.dto.AdminItemDto;
 import com.example.ch7_8_test.dto.ItemFormDto;
+import com.example.ch7_8_test.dto.ItemSearchDto;
+import com.example.ch7_8_test.dto.MainItemDto;
 import com.example.ch7_8_test.entity.Item;
 import com.example.ch7_8_test.entity.ItemImg;
 import com.example.ch7_8_test.repository.ItemImgRepository;
 import com.example.ch7_8_test.repository.ItemRepository;
+import com.example.ch7_8_test.search.ItemSearchIndex;
 import org.junit.jupiter.api.DisplayName;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.TestPropertySource;
@@ -17,6 +27,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.persistence.EntityNotFoundException;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -36,6 +47,18 @@ class ItemServiceTest {
     @Autowired
     ItemImgRepository itemImgRepository;
 
+    @Autowired
+    ItemImgIngestService itemImgIngestService;
+
+    @Autowired
+    ItemPageCache itemPageCache;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    ItemSearchIndex itemSearchIndex;
+
     List<MultipartFile> createMultipartFiles() throws Exception{
 
         List<MultipartFile> multipartFileList = new ArrayList<>();
@@ -63,7 +86,7 @@ class ItemServiceTest {
         itemFormDto.setStockNumber(100);
 
         List<MultipartFile> multipartFileList = createMultipartFiles();
-        Long itemId = itemService.saveItem(itemFormDto, multipartFileList);
+        Long itemId = itemService.saveItem(itemFormDto, itemImgIngestService.ingest(multipartFileList));
         List<ItemImg> itemImgList = itemImgRepository.findByItemIdOrderByIdAsc(itemId);
 
         Item item = itemRepository.findById(itemId)
@@ -77,4 +100,53 @@ class ItemServiceTest {
         assertEquals(multipartFileList.get(0).getOriginalFilename(), itemImgList.get(0).getOriImgName());
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("필터 없는 관리자 상품 목록은 디비 조회 테스트")
+    void adminItemPageWithoutFilterTest(){
+        for(int i=1;i<=4;i++){
+            Item item = new Item();
+            item.setItemNm("테스트 상품" + i);
+            item.setPrice(10000 + i);
+            item.setItemDetail("테스트 상품 상세 설명" + i);
+            item.setItemSellStatus(ItemSellStatus.SELL);
+            item.setStockNumber(100);
+            item.setRegTime(LocalDateTime.now());
+            item.setUpdateTime(LocalDateTime.now());
+            itemRepository.save(item);
+        }
+        itemPageCache.clear();
+
+        long before = adminContentQueryCount();
+        Page<AdminItemDto> page = itemService.getAdminItemPage(new ItemSearchDto(), PageRequest.of(0, 3), CountMode.EXACT);
+
+        // 필터가 없으면 비트맵이 아니라 countMode 대로 디비에서 조회
+        assertEquals(before + 1, adminContentQueryCount());
+        assertEquals(3, page.getContent().size());
+        assertEquals(itemRepository.count(), page.getTotalElements());
+    }
+
+    @Test
+    @DisplayName("검색 색인에는 있지만 목록 읽기 테이블에 없는 상품 검색 테스트")
+    void mainItemSearchMissingCatalogEntryTest(){
+        // catalog_entry 가 아직 없는 상품이면 색인 건수(1건)와 목록(0건)이 어긋나므로 디비 조회 결과를 써야 함.
+        itemSearchIndex.index(990001L, "유령상품", "목록 읽기 테이블에 없는 상품");
+        try {
+            itemPageCache.clear();
+            ItemSearchDto itemSearchDto = new ItemSearchDto();
+            itemSearchDto.setSearchQuery("유령상품");
+
+            Slice<MainItemDto> page = itemService.getMainItemPage(itemSearchDto, PageRequest.of(0, 3), CountMode.EXACT);
+
+            assertEquals(0, page.getContent().size());
+            assertEquals(0, ((Page<MainItemDto>) page).getTotalElements());
+        } finally {
+            itemSearchIndex.remove(990001L);
+        }
+    }
+
+    private long adminContentQueryCount(){
+        Timer timer = meterRegistry.find("item.page.query").tag("query", "admin").tag("part", "content").timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+}
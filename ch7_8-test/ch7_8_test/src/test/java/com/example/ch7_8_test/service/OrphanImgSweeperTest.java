@@ -0,0 +1,87 @@
+package com.example.ch7_8_test.service;
+
+import com.example.ch7_8_test.entity.ItemImg;
+import com.example.ch7_8_test.image.ImgShard;
+import com.example.ch7_8_test.repository.ItemImgRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+@TestPropertySource(locations="classpath:application-test.properties")
+class OrphanImgSweeperTest {
+
+    @Autowired
+    ItemImgRepository itemImgRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @TempDir
+    Path tempDir;
+
+    private Path createFile(String name, long ageMillis) throws Exception{
+        Path file = tempDir.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[10]);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - ageMillis));
+        return file;
+    }
+
+    @Test
+    @DisplayName("고아 이미지 격리 후 삭제 테스트")
+    public void sweepTest() throws Exception{
+        ItemImg itemImg = new ItemImg();
+        itemImg.updateItemImg("ori.jpg", "used.jpg", "/images/item/used.jpg");
+        itemImg.setThumbImgUrl("/images/item/thumb_used.jpg");
+        itemImg.setRepimgYn("Y");
+        itemImgRepository.save(itemImg);
+
+        long hour = 60 * 60 * 1000;
+        createFile("used.jpg", 2 * hour);
+        createFile("thumb_used.jpg", 2 * hour);
+        createFile("orphan.jpg", 2 * hour);
+        createFile("thumb_orphan.jpg", 2 * hour);
+        createFile("uploading.jpg", 0); //아직 커밋되지 않았을 수 있는 파일
+        createFile("ab/cd/abcdef.jpg", 2 * hour); //나뉜 폴더의 파일
+
+        OrphanImgSweeper sweeper = new OrphanImgSweeper(itemImgRepository, meterRegistry,
+                tempDir.toString(), 60, 1, 0);
+        sweeper.sweep();
+
+        Path quarantine = tempDir.resolve(OrphanImgSweeper.QUARANTINE_DIR);
+        assertTrue(Files.exists(tempDir.resolve("used.jpg")));
+        assertTrue(Files.exists(tempDir.resolve("thumb_used.jpg")));
+        assertTrue(Files.exists(tempDir.resolve("uploading.jpg")));
+        assertFalse(Files.exists(tempDir.resolve("orphan.jpg")));
+        assertTrue(Files.exists(quarantine.resolve("orphan.jpg")));
+        assertTrue(Files.exists(quarantine.resolve("thumb_orphan.jpg")));
+        assertTrue(Files.exists(quarantine.resolve("abcdef.jpg")));
+
+        // 격리 기간이 지나면 삭제, 그 사이 다시 참조된 파일은 되돌림.
+        ItemImg reused = new ItemImg();
+        reused.updateItemImg("ori.jpg", "orphan.jpg", "/images/item/orphan.jpg");
+        itemImgRepository.save(reused);
+        Files.setLastModifiedTime(quarantine.resolve("orphan.jpg"), FileTime.fromMillis(System.currentTimeMillis() - 2 * hour));
+        Files.setLastModifiedTime(quarantine.resolve("thumb_orphan.jpg"), FileTime.fromMillis(System.currentTimeMillis() - 2 * hour));
+        sweeper.sweep();
+
+        assertTrue(Files.exists(ImgShard.pathOf(tempDir, "orphan.jpg")));
+        assertFalse(Files.exists(quarantine.resolve("thumb_orphan.jpg")));
+        assertFalse(Files.exists(tempDir.resolve("thumb_orphan.jpg")));
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.example.ch7_8_test.stats;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CountMinSketchTest {
+
+    @Test
+    @DisplayName("빈도 반감(노화) 테스트")
+    public void halveTest(){
+        CountMinSketch sketch = new CountMinSketch(1024);
+        sketch.add(1L, 9);
+        sketch.add(2L, 4);
+
+        sketch.halve();
+
+        assertEquals(4, sketch.estimate(1L));
+        assertEquals(2, sketch.estimate(2L));
+        assertEquals(0, sketch.estimate(3L));
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.example.ch7_8_test.stats;
+
+import com.example.ch7_8_test.constant.ItemSellStatus;
+import com.example.ch7_8_test.entity.CatalogEntry;
+import com.example.ch7_8_test.repository.CatalogEntryJdbcRepository;
+import com.example.ch7_8_test.repository.CatalogEntryRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@TestPropertySource(locations="classpath:application-test.properties")
+class ItemPopularityTrackerTest {
+
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+
+    @Autowired
+    CatalogEntryRepository catalogEntryRepository;
+
+    @Autowired
+    CatalogEntryJdbcRepository catalogEntryJdbcRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("반감기가 지나면 같은 점수의 가중치가 두 배가 되는지 테스트")
+    public void weightTest(){
+        AtomicLong now = new AtomicLong(System.currentTimeMillis());
+        long landmark = now.get() - 10 * 24 * HOUR_MILLIS;
+        ItemPopularityTracker tracker = new ItemPopularityTracker(null, null, 24, now::get);
+
+        double weight = tracker.weightAt(landmark);
+        now.addAndGet(24 * HOUR_MILLIS);
+        assertEquals(2.0, tracker.weightAt(landmark) / weight, 1e-9);
+
+        assertThrows(IllegalArgumentException.class, () -> new ItemPopularityTracker(null, null, 0, now::get));
+    }
+
+    @Test
+    @DisplayName("기준 시각 이동 시 점수를 같은 비율로 나누는지 테스트")
+    public void rescaleTest(){
+        long now = System.currentTimeMillis();
+        long landmark = now - 40 * HOUR_MILLIS;
+        CatalogEntry catalogEntry = new CatalogEntry();
+        catalogEntry.setItemId(920000L);
+        catalogEntry.setItemNm("인기도 상품");
+        catalogEntry.setPrice(10000);
+        catalogEntry.setItemSellStatus(ItemSellStatus.SELL);
+        catalogEntry.setRegTime(LocalDateTime.now());
+        catalogEntryRepository.save(catalogEntry);
+
+        // 기준 시각에서 반감기(1시간) 40번이 지난 시점에 더한 10점.
+        jdbcTemplate.update("delete from popularity_landmark");
+        jdbcTemplate.update("insert into popularity_landmark (id, landmark_millis) values (1, ?)", landmark);
+        jdbcTemplate.update("update catalog_entry set popularity = ? where item_id = 920000", 10 * Math.pow(2, 40));
+
+        ItemPopularityTracker tracker = new ItemPopularityTracker(catalogEntryJdbcRepository, transactionTemplate, 1, () -> now);
+        tracker.recordView(920000L);
+        tracker.flush();
+
+        assertEquals(landmark + 40 * HOUR_MILLIS,
+                jdbcTemplate.queryForObject("select landmark_millis from popularity_landmark where id = 1", Long.class));
+        assertEquals(10 + ItemPopularityTracker.VIEW_POINTS,
+                jdbcTemplate.queryForObject("select popularity from catalog_entry where item_id = 920000", Double.class), 1e-9);
+    }
+
+}
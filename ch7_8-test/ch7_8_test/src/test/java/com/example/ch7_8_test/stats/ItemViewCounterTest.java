@@ -0,0 +1,42 @@
+package com.example.ch7_8_test.stats;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@TestPropertySource(locations="classpath:application-test.properties")
+class ItemViewCounterTest {
+
+    @Autowired
+    ItemViewCounter itemViewCounter;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("조회수 일괄 반영 테스트")
+    public void flushTest(){
+        for(int i=0;i<3;i++){
+            itemViewCounter.increment(9001L);
+        }
+        itemViewCounter.increment(9002L);
+        itemViewCounter.flush();
+        itemViewCounter.increment(9001L);
+
+        assertEquals(4, itemViewCounter.getViewCount(9001L));
+        itemViewCounter.flush();
+
+        assertEquals(4L, jdbcTemplate.queryForObject(
+                "select view_count from item_stats where item_id = 9001", Long.class));
+        assertEquals(1L, jdbcTemplate.queryForObject(
+                "select view_count from item_stats where item_id = 9002", Long.class));
+        assertEquals(4, itemViewCounter.getViewCount(9001L));
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.example.ch7_8_test.stats;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StripedLongCounterMapTest {
+
+    @Test
+    @DisplayName("여러 스레드에서 더한 값을 한 번에 꺼내는 테스트")
+    public void concurrentAddTest() throws Exception{
+        StripedLongCounterMap counts = new StripedLongCounterMap(8);
+        List<Thread> threads = new ArrayList<>();
+        for(int t=0;t<4;t++){
+            Thread thread = new Thread(() -> {
+                for(int i=0;i<10000;i++){
+                    counts.add(i % 500 + 1, 1);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(80, counts.get(1L));
+        StripedLongCounterMap.Snapshot snapshot = counts.drain();
+        assertEquals(500, snapshot.getSize());
+        assertEquals(40000, snapshot.total());
+        assertEquals(0, counts.get(1L));
+        assertEquals(0, counts.drain().getSize());
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.example.ch7_8_test.stats;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TopSellerTrackerTest {
+
+    @Test
+    @DisplayName("판매량 상위 상품 테스트")
+    public void topTest(){
+        AtomicLong now = new AtomicLong(System.currentTimeMillis());
+        TopSellerTracker tracker = new TopSellerTracker(now::get);
+        // 후보 요약 크기보다 훨씬 많은 상품이 한 번씩 팔려도 많이 팔린 상품은 밀려나지 않음.
+        for(long itemId=1000;itemId<6000;itemId++){
+            tracker.record(itemId, 1);
+        }
+        tracker.record(1L, 50);
+        tracker.record(2L, 30);
+        now.addAndGet(TopSellerTracker.SLICE_MILLIS);
+        tracker.record(2L, 40);
+
+        List<TopSellerTracker.ItemCount> top = tracker.top(2);
+        assertEquals(2L, top.get(0).getItemId());
+        assertTrue(top.get(0).getCount() >= 70);
+        assertEquals(1L, top.get(1).getItemId());
+        assertTrue(top.get(1).getCount() >= 50);
+    }
+
+    @Test
+    @DisplayName("1시간이 지난 판매량 제외 테스트")
+    public void windowTest(){
+        AtomicLong now = new AtomicLong(System.currentTimeMillis());
+        TopSellerTracker tracker = new TopSellerTracker(now::get);
+        tracker.record(1L, 100);
+        now.addAndGet(TopSellerTracker.SLICE_MILLIS * (TopSellerTracker.SLICE_COUNT - 1));
+        tracker.record(2L, 10);
+        assertEquals(1L, tracker.top(1).get(0).getItemId());
+
+        now.addAndGet(TopSellerTracker.SLICE_MILLIS);
+        List<TopSellerTracker.ItemCount> top = tracker.top(10);
+        assertEquals(1, top.size());
+        assertEquals(2L, top.get(0).getItemId());
+        assertEquals(10, top.get(0).getCount());
+    }
+
+}